@@ -9,17 +9,34 @@ import android.text.Editable;
 import android.text.Html;
 import android.text.TextWatcher;
 import android.view.View;
+import android.widget.CompoundButton;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.MobileAds;
+import com.walng.dhagz.paypalcalc.adapters.ComparisonAdapter;
 import com.walng.dhagz.paypalcalc.adapters.CurrencyListAdapter;
 import com.walng.dhagz.paypalcalc.databinding.ActivityMainBinding;
+import com.walng.dhagz.paypalcalc.fee.FeeHistory;
+import com.walng.dhagz.paypalcalc.fee.MinorUnits;
+import com.walng.dhagz.paypalcalc.fee.MoneyParser;
+import com.walng.dhagz.paypalcalc.fee.QuoteCache;
 import com.walng.dhagz.paypalcalc.managers.AnalyticsManager;
+import com.walng.dhagz.paypalcalc.managers.Metrics;
+import com.walng.dhagz.paypalcalc.managers.StartupScheduler;
+import com.walng.dhagz.paypalcalc.models.Comparison;
 import com.walng.dhagz.paypalcalc.models.Currency;
+import com.walng.dhagz.paypalcalc.presenters.AmountInputPipeline;
 import com.walng.dhagz.paypalcalc.presenters.PayPalCalcPresenter;
+import com.walng.dhagz.paypalcalc.providers.CurrencyListProvider;
+import com.walng.dhagz.paypalcalc.providers.FeeHistoryProvider;
 import com.walng.dhagz.paypalcalc.views.PayPalCalcView;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.LinkedList;
+import java.util.Map;
 
 import android.widget.AdapterView;
 
@@ -37,7 +54,9 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
 
         @Override
         public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-            updateAmount(charSequence.toString());
+            if (amountPipeline != null) {
+                amountPipeline.submit(charSequence);
+            }
         }
 
         @Override
@@ -76,24 +95,78 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
         }
     };
 
+    private CompoundButton.OnCheckedChangeListener mCompareAllListener = new CompoundButton.OnCheckedChangeListener() {
+        @Override
+        public void onCheckedChanged(CompoundButton compoundButton, boolean checked) {
+            if (presenter != null && presenter.isComparing() != checked) {
+                presenter.setComparing(checked);
+                updateAmount(binding.amount.getText().toString());
+            }
+        }
+    };
+
+    private ComparisonAdapter.OnCurrencyClickListener mComparisonClickListener = new ComparisonAdapter.OnCurrencyClickListener() {
+        @Override
+        public void onCurrencyClick(Currency currency) {
+            // back to the calculator with the tapped currency
+            presenter.setComparing(false);
+            int position = indexOf(currency.getId());
+            if (position >= 0 && position != binding.currencySpinner.getSelectedItemPosition()) {
+                binding.currencySpinner.setSelection(position);
+            } else {
+                updateAmount(binding.amount.getText().toString());
+            }
+        }
+    };
+
     private PayPalCalcPresenter presenter;
+    private AmountInputPipeline amountPipeline;
     private CurrencyListAdapter adapter;
+    private CurrencyListAdapter billingAdapter;
+    private final ComparisonAdapter comparisonAdapter = new ComparisonAdapter(mComparisonClickListener);
+    // the charge dialogs only accept digits and '.'; main thread only
+    private final MoneyParser chargeParser = new MoneyParser('.', ',');
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        final StartupScheduler startup = StartupScheduler.getInstance();
+        startup.mark(StartupScheduler.PHASE_ACTIVITY);
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
+        startup.watchFirstFrame(this);
+
+        // analytics and the ads SDK are not needed for the first frame
+        startup.runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                AnalyticsManager.getInstance(getApplication()).setScreen(TAG);
+                startup.mark(StartupScheduler.PHASE_ANALYTICS);
+            }
+        });
+        startup.runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                // Initialize Mobile Ads SDK
+                MobileAds.initialize(getApplicationContext(), initializationStatus -> {});
+            }
+        });
+        startup.runWhenIdle(new Runnable() {
+            @Override
+            public void run() {
+                if (!isFinishing()) {
+                    AdRequest adRequest = new AdRequest.Builder().build();
+                    binding.adView.loadAd(adRequest);
+                    startup.mark(StartupScheduler.PHASE_ADS);
+                }
+            }
+        });
 
-        AnalyticsManager.getInstance(getApplication()).setScreen(TAG);
+        binding.comparisonList.setLayoutManager(new LinearLayoutManager(this));
+        binding.comparisonList.setAdapter(comparisonAdapter);
 
-        // Initialize Mobile Ads SDK
-        MobileAds.initialize(this, initializationStatus -> {});
-        
-        AdRequest adRequest = new AdRequest.Builder().build();
-        binding.adView.loadAd(adRequest);
-        
         presenter = PayPalCalcPresenter.getInstance(this);
+        amountPipeline = new AmountInputPipeline(presenter);
         presenter.bindPayPalCalcView(this);
 
         // set the love
@@ -106,22 +179,65 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
         binding.percentageContainer.setOnClickListener(mTransactionPercentageClickListener);
         binding.additionalContainer.setOnClickListener(mTransactionAdditionClickListener);
         binding.sendSomeLove.setOnClickListener(mSendSomeLoveClickListener);
+        binding.compareAll.setOnCheckedChangeListener(mCompareAllListener);
     }
 
-    private void updateAmount(String amountString) {
-        float amount;
-        try {
-            amount = Float.parseFloat(amountString);
-        } catch (Exception ex) {
-            amount = 0;
+    /**
+     * Prints the hot-path metrics, startup timings, quote cache counters and the size of
+     * the fee history, for {@code adb shell dumpsys activity com.walng.dhagz.paypalcalc}.
+     */
+    @Override
+    public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(prefix, fd, writer, args);
+        Metrics.dump(writer);
+        writer.println("Startup (ms since application start)");
+        for (Map.Entry<String, Long> phase : StartupScheduler.getInstance().getTimings().entrySet()) {
+            writer.println("  " + phase.getKey() + " " + phase.getValue());
+        }
+        if (presenter != null) {
+            QuoteCache<?> cache = presenter.getQuoteCache();
+            writer.println("Quote cache size=" + cache.size() + " hits=" + cache.getHits()
+                    + " misses=" + cache.getMisses() + " evictions=" + cache.getEvictions());
+        }
+        FeeHistory history = FeeHistoryProvider.getInstance(this).getHistory();
+        writer.println("Fee history versions=" + history.getVersionCount() + " currencies=" + history.size());
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // don't wait out the write delay if the process may be killed
+        CurrencyListProvider.getInstance(this).flush();
+        AnalyticsManager.getInstance(this).flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (amountPipeline != null) {
+            amountPipeline.cancel();
         }
         if (presenter != null) {
-            presenter.onAmountChanged(amount);
+            presenter.unbindPayPalCalcView(this);
+        }
+    }
+
+    private void updateAmount(String amountString) {
+        if (amountPipeline != null) {
+            amountPipeline.submitNow(amountString);
         }
     }
 
     @Override
     public void populateCurrencyList(LinkedList<Currency> currencies) {
+        if (adapter != null) {
+            // rebinds only the rows that changed
+            adapter.setCurrencies(currencies);
+            billingAdapter.setCurrencies(currencies);
+            binding.currencySpinner.setSelection(Math.max(0, indexOfSelected(currencies)));
+            binding.billingSpinner.setSelection(Math.max(0, indexOfBilling(currencies)));
+            return;
+        }
         // Initialize the adapter sending the current context
         // Send the simple_spinner_item layout
         // And finally send the Users array (Your data)
@@ -135,6 +251,10 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
                 // Here you get the current item (a Currency object) that is selected by its position
                 Currency currency = adapter.getItem(position);
                 presenter.setCurrency(currency);
+                if (presenter.getBillingCurrency() == null) {
+                    // billed in the selected currency until another one is picked
+                    binding.billingSpinner.setSelection(position);
+                }
                 updateAmount(binding.amount.getText().toString());
             }
 
@@ -142,7 +262,87 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
             public void onNothingSelected(AdapterView<?> adapter) {
             }
         });
-        binding.currencySpinner.setSelection(0);
+        // keep the selection when the saved currencies replace the built-in ones
+        binding.currencySpinner.setSelection(Math.max(0, indexOfSelected(currencies)));
+
+        billingAdapter = new CurrencyListAdapter(this, currencies);
+        binding.billingSpinner.setAdapter(billingAdapter);
+        binding.billingSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+
+            @Override
+            public void onItemSelected(AdapterView<?> adapterView, View view, int position, long id) {
+                Currency billing = billingAdapter.getItem(position);
+                Currency current = presenter.getBillingCurrency();
+                if (current == null) {
+                    current = presenter.getCurrency();
+                }
+                if (current != null && current.getId() == billing.getId()) {
+                    return;
+                }
+                presenter.setBillingCurrency(billing);
+                updateAmount(binding.amount.getText().toString());
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> adapter) {
+            }
+        });
+        binding.billingSpinner.setSelection(Math.max(0, indexOfBilling(currencies)));
+    }
+
+    @Override
+    public void updateCurrency(Currency currency) {
+        if (adapter != null) {
+            adapter.updateCurrency(currency);
+            billingAdapter.updateCurrency(currency);
+        }
+    }
+
+    @Override
+    public void setComparisonMode(boolean comparing) {
+        binding.calculator.setVisibility(comparing ? View.GONE : View.VISIBLE);
+        binding.comparisonList.setVisibility(comparing ? View.VISIBLE : View.GONE);
+        if (binding.compareAll.isChecked() != comparing) {
+            binding.compareAll.setChecked(comparing);
+        }
+    }
+
+    @Override
+    public void showComparison(Comparison comparison) {
+        comparisonAdapter.setComparison(comparison);
+    }
+
+    private int indexOf(int currencyId) {
+        if (adapter == null) {
+            return -1;
+        }
+        for (int i = 0; i < adapter.getCount(); i++) {
+            if (adapter.getItemId(i) == currencyId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOfBilling(LinkedList<Currency> currencies) {
+        Currency billing = presenter != null ? presenter.getBillingCurrency() : null;
+        return billing == null ? indexOfSelected(currencies) : indexOfId(currencies, billing.getId());
+    }
+
+    private int indexOfSelected(LinkedList<Currency> currencies) {
+        Currency selected = presenter != null ? presenter.getCurrency() : null;
+        return selected == null ? -1 : indexOfId(currencies, selected.getId());
+    }
+
+    private static int indexOfId(LinkedList<Currency> currencies, int id) {
+        int index = 0;
+        for (Currency currency : currencies) {
+            if (currency.getId() == id) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
     }
 
 //    @Override
@@ -174,6 +374,11 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
         binding.totalAmount.setText(amountTotal);
     }
 
+    @Override
+    public void setBilledTotal(String billedTotal) {
+        binding.billedTotal.setText(billedTotal);
+    }
+
     @Override
     public void promptPercentageChargeChange(float currentPercentageCharge) {
         String defaultText = "";
@@ -187,12 +392,8 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
                     @Override
                     public void onClick(DialogInterface dialogInterface, String userInput) {
                         if (presenter != null) {
-                            float percentage;
-                            try {
-                                percentage = Float.parseFloat(userInput);
-                            } catch (Exception ex) {
-                                percentage = 0;
-                            }
+                            chargeParser.parse(userInput, MinorUnits.MAX_SCALE);
+                            float percentage = chargeParser.floatValue();
                             if (presenter.getCurrency() != null) {
                                 presenter.changeAdditionalCharge(presenter.getCurrency().getAmountCharge());
                             }
@@ -216,12 +417,8 @@ public class MainActivity extends AppCompatActivity implements PayPalCalcView {
                     @Override
                     public void onClick(DialogInterface dialogInterface, String userInput) {
                         if (presenter != null) {
-                            float amount;
-                            try {
-                                amount = Float.parseFloat(userInput);
-                            } catch (Exception ex) {
-                                amount = 0;
-                            }
+                            chargeParser.parse(userInput, MinorUnits.MAX_SCALE);
+                            float amount = chargeParser.floatValue();
                             if (presenter.getCurrency() != null) {
                                 presenter.changePercentageCharge(presenter.getCurrency().getPercentageCharge());
                             }
@@ -3,6 +3,11 @@ package com.walng.dhagz.paypalcalc;
 import android.app.Application;
 
 import com.google.firebase.analytics.FirebaseAnalytics;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+import com.walng.dhagz.paypalcalc.managers.Metrics;
+import com.walng.dhagz.paypalcalc.managers.StartupScheduler;
+import com.walng.dhagz.paypalcalc.models.Currency;
+import com.walng.dhagz.paypalcalc.providers.FxRateListProvider;
 
 /**
  * @author Dhagz
@@ -10,21 +15,35 @@ import com.google.firebase.analytics.FirebaseAnalytics;
  */
 public class PayPalCalcApplication extends Application {
 
-    private FirebaseAnalytics mFirebaseAnalytics;
-
     @Override
     public void onCreate() {
         super.onCreate();
-        // Initialize Firebase Analytics
-        mFirebaseAnalytics = FirebaseAnalytics.getInstance(this);
+        StartupScheduler startup = StartupScheduler.getInstance();
+        startup.mark(StartupScheduler.PHASE_APPLICATION);
+        Metrics.setEnabled(BuildConfig.METRICS_ENABLED);
+        // build the default fee table and its currencies before the first screen needs them
+        startup.runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                Currency.of(FeeTable.OTHER_ID);
+            }
+        });
+        // and the exchange rates before the first cross-currency quote
+        startup.runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                FxRateListProvider.getInstance(PayPalCalcApplication.this).getRates();
+            }
+        });
     }
 
     /**
-     * Gets the Firebase Analytics instance for this {@link Application}.
+     * Gets the Firebase Analytics instance for this {@link Application}. It is created on
+     * first use rather than at startup.
      *
      * @return FirebaseAnalytics instance
      */
     public FirebaseAnalytics getFirebaseAnalytics() {
-        return mFirebaseAnalytics;
+        return FirebaseAnalytics.getInstance(this);
     }
 }
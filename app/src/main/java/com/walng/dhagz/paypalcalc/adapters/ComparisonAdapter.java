@@ -0,0 +1,112 @@
+package com.walng.dhagz.paypalcalc.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.walng.dhagz.paypalcalc.R;
+import com.walng.dhagz.paypalcalc.models.Comparison;
+import com.walng.dhagz.paypalcalc.models.Currency;
+
+/**
+ * Rows of the comparison list: one currency each, with the total and fee for the
+ * compared amount.
+ * <p>
+ * The texts come formatted in the {@link Comparison}, so binding only sets them. A new
+ * comparison over the same currencies rebinds just the rows whose texts changed.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class ComparisonAdapter extends RecyclerView.Adapter<ComparisonAdapter.ViewHolder> {
+
+    public interface OnCurrencyClickListener {
+        void onCurrencyClick(Currency currency);
+    }
+
+    private final OnCurrencyClickListener listener;
+    private Comparison comparison;
+
+    public ComparisonAdapter(OnCurrencyClickListener listener) {
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    public void setComparison(Comparison comparison) {
+        Comparison previous = this.comparison;
+        this.comparison = comparison;
+        if (previous == null || !sameCurrencies(previous, comparison)) {
+            notifyDataSetChanged();
+            return;
+        }
+        for (int i = 0; i < comparison.size(); i++) {
+            if (!previous.getTotalText(i).equals(comparison.getTotalText(i))
+                    || !previous.getFeeText(i).equals(comparison.getFeeText(i))) {
+                notifyItemChanged(i);
+            }
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return comparison == null ? 0 : comparison.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return comparison.getCurrency(position).getId();
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.listitem_comparison, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        Currency currency = comparison.getCurrency(position);
+        holder.currency = currency;
+        holder.name.setText(currency.getName() == null ? "" : currency.getName());
+        holder.total.setText(comparison.getTotalText(position));
+        holder.fee.setText(comparison.getFeeText(position));
+    }
+
+    private static boolean sameCurrencies(Comparison a, Comparison b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.getCurrency(i) != b.getCurrency(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+
+        final TextView name;
+        final TextView total;
+        final TextView fee;
+        Currency currency;
+
+        ViewHolder(View view) {
+            super(view);
+            this.name = (TextView) view.findViewById(R.id.name);
+            this.total = (TextView) view.findViewById(R.id.comparison_total);
+            this.fee = (TextView) view.findViewById(R.id.comparison_fee);
+            view.setOnClickListener(this);
+        }
+
+        @Override
+        public void onClick(View view) {
+            if (listener != null && currency != null) {
+                listener.onCurrencyClick(currency);
+            }
+        }
+    }
+}
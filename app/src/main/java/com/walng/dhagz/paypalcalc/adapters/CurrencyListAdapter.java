@@ -8,74 +8,270 @@ import android.widget.BaseAdapter;
 import android.widget.TextView;
 
 import com.walng.dhagz.paypalcalc.R;
+import com.walng.dhagz.paypalcalc.fee.MoneyFormat;
 import com.walng.dhagz.paypalcalc.models.Currency;
 
-import java.text.DecimalFormat;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Rows of the currency spinner.
+ * <p>
+ * The text of every row is formatted once, when the currencies are set, so binding a row
+ * is four {@code setText} calls on views found once per recycled row. Use
+ * {@link #setCurrencies(List)} to show a new list and {@link #updateCurrency(Currency)}
+ * when one currency changes: rows that did not change keep their text, and an edit only
+ * rebinds the views showing that currency instead of the whole list.
+ * <p>
+ * Main thread only.
+ *
  * @author Dhagz
  * @since 2016-03-25
  */
 public class CurrencyListAdapter extends BaseAdapter {
 
-    private LinkedList<Currency> values;
-    private LayoutInflater inflater;
+    private static final Row EMPTY_ROW = new Row(null, "", "", "", "");
 
-    public CurrencyListAdapter(Context context, LinkedList<Currency> values) {
-        this.values = values;
+    private final LayoutInflater inflater;
+    private Row[] rows;
+    // holders of the rows attached to a window, at most a screenful; detached rows are
+    // brought up to date when they are attached again
+    private final List<ViewHolder> attached = new ArrayList<>();
+    private final View.OnAttachStateChangeListener attachListener = new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View view) {
+            ViewHolder holder = (ViewHolder) view.getTag();
+            attached.add(holder);
+            Row current = holder.row == null ? null : rowOf(holder.row.getId());
+            if (current != null && current != holder.row) {
+                holder.bind(current);
+            }
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View view) {
+            attached.remove(view.getTag());
+        }
+    };
+
+    public CurrencyListAdapter(Context context, List<Currency> values) {
         this.inflater = LayoutInflater.from(context);
+        this.rows = toRows(values, new Row[0]);
     }
 
     @Override
     public int getCount(){
-        return values.size();
+        return rows.length;
     }
 
     @Override
     public Currency getItem(int position){
-        return values.get(position);
+        return rows[position].currency;
     }
 
     @Override
     public long getItemId(int position){
-        if (position >= values.size()) {
+        if (position >= rows.length || rows[position].currency == null) {
             return -1;
         }
-        return values.get(position).getId();
+        return rows[position].currency.getId();
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
     }
 
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
-        View view = inflater.inflate(R.layout.listitem_currency, null);
-        TextView name = (TextView) view.findViewById(R.id.name);
-        TextView percent = (TextView) view.findViewById(R.id.percent);
-        TextView symbol = (TextView) view.findViewById(R.id.symbol);
-        TextView amount = (TextView) view.findViewById(R.id.amount);
+        View view = convertView;
+        ViewHolder holder;
+        if (view == null) {
+            view = inflater.inflate(R.layout.listitem_currency, parent, false);
+            holder = new ViewHolder(view);
+            view.setTag(holder);
+            view.addOnAttachStateChangeListener(attachListener);
+        } else {
+            holder = (ViewHolder) view.getTag();
+        }
+        holder.bind(rows[position]);
+        return view;
+    }
 
-        Currency currency = values.get(position);
-        if (currency == null) {
-            currency = new Currency(-1, "", "", 4.4f, 10);
+    /**
+     * Shows {@code values}. If it holds the same currencies in the same order, only the
+     * rows whose currency changed are formatted and rebound; otherwise the list is
+     * refreshed.
+     */
+    public void setCurrencies(List<Currency> values) {
+        Row[] previous = rows;
+        rows = toRows(values, previous);
+        if (rows.length != previous.length) {
+            notifyDataSetChanged();
+            return;
         }
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i].getId() != previous[i].getId()) {
+                notifyDataSetChanged();
+                return;
+            }
+        }
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != previous[i]) {
+                rebind(rows[i]);
+            }
+        }
+    }
 
-        if (name != null) {
-            name.setText(currency.getName() == null ? "" : currency.getName());
+    /**
+     * Replaces the row of the currency with the same id as {@code currency}, if any, and
+     * rebinds only the views showing it.
+     *
+     * @return whether the currency is in the list
+     */
+    public boolean updateCurrency(Currency currency) {
+        for (int i = 0; i < rows.length; i++) {
+            Row row = rows[i];
+            if (row.currency != null && row.currency.getId() == currency.getId()) {
+                rows[i] = row.shows(currency) ? row.with(currency) : Row.of(currency);
+                rebind(rows[i]);
+                return true;
+            }
         }
+        return false;
+    }
 
-        if (percent != null) {
-            percent.setText(String.format("%.2f", currency.getPercentageCharge()) + "%");
+    private void rebind(Row row) {
+        for (int i = 0; i < attached.size(); i++) {
+            ViewHolder holder = attached.get(i);
+            if (holder.row != null && holder.row.getId() == row.getId()) {
+                holder.bind(row);
+            }
         }
+    }
 
-        if (symbol != null) {
-            symbol.setText(currency.getSymbol() == null ? "" : currency.getSymbol());
+    private Row rowOf(int id) {
+        for (Row row : rows) {
+            if (row.getId() == id) {
+                return row;
+            }
         }
+        return null;
+    }
 
-        if (amount != null) {
-            DecimalFormat formatter = new DecimalFormat("#,###,###.00");
-            amount.setText(formatter.format(currency.getAmountCharge()));
+    private static Row[] toRows(List<Currency> values, Row[] previous) {
+        Row[] rows = new Row[values.size()];
+        int i = 0;
+        for (Currency currency : values) {
+            if (currency == null) {
+                rows[i] = EMPTY_ROW;
+            } else if (i < previous.length && previous[i].shows(currency)) {
+                // same text, keep the strings
+                rows[i] = previous[i].with(currency);
+            } else {
+                rows[i] = Row.of(currency);
+            }
+            i++;
         }
+        return rows;
+    }
 
-        return view;
+    /**
+     * A currency with its row text formatted.
+     */
+    private static final class Row {
+
+        final Currency currency;
+        final String name;
+        final String percent;
+        final String symbol;
+        final String amount;
+
+        Row(Currency currency, String name, String percent, String symbol, String amount) {
+            this.currency = currency;
+            this.name = name;
+            this.percent = percent;
+            this.symbol = symbol;
+            this.amount = amount;
+        }
+
+        static Row of(Currency currency) {
+            return new Row(currency,
+                    currency.getName() == null ? "" : currency.getName(),
+                    MoneyFormat.percent().format(currency.getPercentageCharge()),
+                    currency.getSymbol() == null ? "" : currency.getSymbol(),
+                    MoneyFormat.forSymbol("").format(currency.getAmountCharge()));
+        }
+
+        int getId() {
+            return currency == null ? -1 : currency.getId();
+        }
+
+        /**
+         * @return whether this row's text is that of {@code other}
+         */
+        boolean shows(Currency other) {
+            if (currency == other) {
+                return true;
+            }
+            return currency != null
+                    && currency.getId() == other.getId()
+                    && Float.floatToIntBits(currency.getPercentageCharge()) == Float.floatToIntBits(other.getPercentageCharge())
+                    && Float.floatToIntBits(currency.getAmountCharge()) == Float.floatToIntBits(other.getAmountCharge())
+                    && equal(currency.getName(), other.getName())
+                    && equal(currency.getSymbol(), other.getSymbol());
+        }
+
+        boolean sameText(Row other) {
+            return this == other
+                    || name.equals(other.name)
+                    && percent.equals(other.percent)
+                    && symbol.equals(other.symbol)
+                    && amount.equals(other.amount);
+        }
+
+        Row with(Currency other) {
+            return currency == other ? this : new Row(other, name, percent, symbol, amount);
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
     }
 
+    private static final class ViewHolder {
+
+        final TextView name;
+        final TextView percent;
+        final TextView symbol;
+        final TextView amount;
+        Row row;
+
+        ViewHolder(View view) {
+            this.name = (TextView) view.findViewById(R.id.name);
+            this.percent = (TextView) view.findViewById(R.id.percent);
+            this.symbol = (TextView) view.findViewById(R.id.symbol);
+            this.amount = (TextView) view.findViewById(R.id.amount);
+        }
+
+        void bind(Row row) {
+            Row shown = this.row;
+            this.row = row;
+            if (shown != null && shown.sameText(row)) {
+                return;
+            }
+            if (name != null) {
+                name.setText(row.name);
+            }
+            if (percent != null) {
+                percent.setText(row.percent);
+            }
+            if (symbol != null) {
+                symbol.setText(row.symbol);
+            }
+            if (amount != null) {
+                amount.setText(row.amount);
+            }
+        }
+    }
 }
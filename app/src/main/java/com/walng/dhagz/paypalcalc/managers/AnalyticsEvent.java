@@ -0,0 +1,67 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+/**
+ * One analytics event waiting in an {@link EventPipeline}.
+ * <p>
+ * An event has a name, an optional category and action, and a count: {@code 1} for a
+ * single occurrence, or the number of occurrences a {@link EventPipeline.Counter}
+ * aggregated since the previous flush.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class AnalyticsEvent {
+
+    public static final String SCREEN_VIEW = "screen_view";
+    public static final String CUSTOM_EVENT = "custom_event";
+
+    private final String name;
+    private final String category;
+    private final String action;
+    private final long count;
+    private final long timeMillis;
+
+    public AnalyticsEvent(String name, String category, String action, long count, long timeMillis) {
+        this.name = name;
+        this.category = category;
+        this.action = action;
+        this.count = count;
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * A view of {@code screenName}; the screen is the event's category and action.
+     */
+    public static AnalyticsEvent screenView(String screenName) {
+        return new AnalyticsEvent(SCREEN_VIEW, screenName, screenName, 1, System.currentTimeMillis());
+    }
+
+    public static AnalyticsEvent custom(String category, String action) {
+        return new AnalyticsEvent(CUSTOM_EVENT, category, action, 1, System.currentTimeMillis());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + category + ", " + action + ") x" + count;
+    }
+}
@@ -1,43 +1,82 @@
 package com.walng.dhagz.paypalcalc.managers;
 
-import android.app.Application;
-import android.os.Bundle;
-
-import com.google.firebase.analytics.FirebaseAnalytics;
+import android.content.Context;
 
 /**
+ * Records analytics through an {@link EventPipeline}, so logging never calls Firebase on
+ * the caller's thread. Screen views are always kept; custom events are sampled; quotes
+ * are only counted, per currency, and sent as totals on each flush.
+ *
  * @author Dhagz
  * @since 2016-03-26
  */
 public class AnalyticsManager {
 
-    private static AnalyticsManager instance;
-    private FirebaseAnalytics mFirebaseAnalytics;
+    public static final String QUOTES = "quotes";
+
+    private static volatile AnalyticsManager instance;
+    private final EventPipeline pipeline;
+    private final EventPipeline.Counter quotes;
 
-    public static AnalyticsManager getInstance(Application application) {
-        if (instance == null) {
-            instance = new AnalyticsManager(application);
+    public static AnalyticsManager getInstance(Context context) {
+        AnalyticsManager manager = instance;
+        if (manager == null) {
+            synchronized (AnalyticsManager.class) {
+                manager = instance;
+                if (manager == null) {
+                    manager = new AnalyticsManager(context);
+                    instance = manager;
+                }
+            }
         }
-        return instance;
+        return manager;
+    }
+
+    public AnalyticsManager(Context context) {
+        // Firebase Analytics is initialized by the first flush, off the main thread
+        this(new FirebaseEventSink(context));
+    }
+
+    /**
+     * @param sink e.g. a {@link FileEventSink} or {@link NoOpEventSink} to run without
+     *             Firebase
+     */
+    public AnalyticsManager(EventSink sink) {
+        this.pipeline = new EventPipeline(sink);
+        this.quotes = pipeline.counter(QUOTES);
     }
 
-    public AnalyticsManager(Application application) {
-        // Initialize Firebase Analytics
-        mFirebaseAnalytics = FirebaseAnalytics.getInstance(application);
+    public EventPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Fraction of the events sent with {@link #sendEvent(String, String)} that are kept.
+     */
+    public void setSampleRate(float sampleRate) {
+        pipeline.setSampleRate(sampleRate);
     }
 
     public void setScreen(String screenName) {
-        Bundle bundle = new Bundle();
-        bundle.putString(FirebaseAnalytics.Param.SCREEN_NAME, screenName);
-        bundle.putString(FirebaseAnalytics.Param.SCREEN_CLASS, screenName);
-        mFirebaseAnalytics.logEvent(FirebaseAnalytics.Event.SCREEN_VIEW, bundle);
+        pipeline.log(AnalyticsEvent.screenView(screenName));
     }
 
     public void sendEvent(String category, String action) {
-        Bundle bundle = new Bundle();
-        bundle.putString("category", category);
-        bundle.putString("action", action);
-        mFirebaseAnalytics.logEvent("custom_event", bundle);
+        pipeline.logSampled(AnalyticsEvent.custom(category, action));
+    }
+
+    /**
+     * Counts one quote in {@code currencyId}. Allocation-free for the shipped currencies.
+     */
+    public void countQuote(int currencyId) {
+        quotes.increment(currencyId);
+    }
+
+    /**
+     * Sends pending events now, e.g. before the app may be killed.
+     */
+    public void flush() {
+        pipeline.flush();
     }
 
 }
@@ -0,0 +1,335 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collects analytics events from any thread and hands them to an {@link EventSink} in
+ * batches, on a background flusher thread.
+ * <p>
+ * Logging an event is a compare-and-set on a bounded ring buffer; it never blocks or
+ * takes a lock. When the ring is full the event is dropped and counted. Events logged
+ * with {@link #logSampled(AnalyticsEvent)} are kept with the configured
+ * {@linkplain #setSampleRate(float) sample rate}.
+ * <p>
+ * High-frequency events, such as a quote per keystroke, should not be logged one by one.
+ * A {@link Counter} adds them up in place, and each flush sends one event per non-zero
+ * key with the number of occurrences since the previous flush.
+ * <p>
+ * Only the flusher thread takes events out of the ring, and the sink is only called
+ * there.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class EventPipeline {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 30000;
+
+    private final EventSink sink;
+    private final AtomicReferenceArray<AnalyticsEvent> slots;
+    private final int mask;
+    private final int batchSize;
+    // next slot to claim; producers only
+    private final AtomicLong tail = new AtomicLong();
+    // next slot to take; written by the flusher thread only
+    private volatile long head;
+    private volatile float sampleRate = 1f;
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor flusher;
+
+    private final AtomicLong logged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    // flusher thread only
+    private final ArrayList<AnalyticsEvent> batch;
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    public EventPipeline(EventSink sink) {
+        this(sink, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param capacity            events the ring holds between flushes, rounded up to a
+     *                            power of two
+     * @param batchSize           most events given to the sink in one call
+     * @param flushIntervalMillis delay between automatic flushes
+     */
+    public EventPipeline(EventSink sink, int capacity, int batchSize, long flushIntervalMillis) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        int slotCount = Integer.highestOneBit(capacity * 2 - 1);
+        this.sink = sink;
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.mask = slotCount - 1;
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+        this.flusher = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "EventPipeline");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        flusher.scheduleWithFixedDelay(drainTask, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Fraction of the events logged with {@link #logSampled(AnalyticsEvent)} that are
+     * kept, from {@code 0} (none) to {@code 1} (all, the default).
+     */
+    public void setSampleRate(float sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Queues {@code event} for the next flush.
+     *
+     * @return {@code false} if the ring was full and the event was dropped
+     */
+    public boolean log(AnalyticsEvent event) {
+        if (event == null) {
+            throw new NullPointerException("event");
+        }
+        int capacity = slots.length();
+        while (true) {
+            long claimed = tail.get();
+            if (claimed - head >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                // the flusher stops at a claimed slot until it is filled
+                slots.lazySet((int) claimed & mask, event);
+                logged.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Queues {@code event} with probability {@link #getSampleRate()}.
+     *
+     * @return {@code false} if the event was sampled out or dropped
+     */
+    public boolean logSampled(AnalyticsEvent event) {
+        float rate = sampleRate;
+        if (rate < 1f && !(ThreadLocalRandom.current().nextFloat() < rate)) {
+            sampledOut.incrementAndGet();
+            return false;
+        }
+        return log(event);
+    }
+
+    /**
+     * The counter named {@code name}, created on first use. Its flushed events are named
+     * {@code name}, with category {@code "counter"} and the key as action.
+     */
+    public Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            Counter created = new Counter(name);
+            counter = counters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Sends what is queued and counted so far without waiting for the next automatic
+     * flush.
+     *
+     * @return completes when the batch was handed to the sink
+     */
+    public Future<?> flush() {
+        return flusher.submit(drainTask);
+    }
+
+    /**
+     * Flushes and stops the flusher thread; events logged afterwards are kept in the ring
+     * and never sent.
+     */
+    public void close() {
+        flusher.execute(drainTask);
+        flusher.shutdown();
+    }
+
+    public long getLogged() {
+        return logged.get();
+    }
+
+    /**
+     * Events not queued because the ring was full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.get();
+    }
+
+    /**
+     * Events the sink accepted, counter events included.
+     */
+    public long getSent() {
+        return sent.get();
+    }
+
+    /**
+     * Events in batches the sink failed to deliver.
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    private void drain() {
+        long next = head;
+        while (true) {
+            int slot = (int) next & mask;
+            AnalyticsEvent event = slots.get(slot);
+            if (event == null) {
+                break;
+            }
+            // cleared before the head moves past it, so a producer never sees it filled
+            slots.lazySet(slot, null);
+            head = ++next;
+            add(event);
+        }
+        long now = System.currentTimeMillis();
+        for (Iterator<Counter> it = counters.values().iterator(); it.hasNext(); ) {
+            it.next().drainTo(this, now);
+        }
+        sendBatch();
+    }
+
+    private void add(AnalyticsEvent event) {
+        batch.add(event);
+        if (batch.size() == batchSize) {
+            sendBatch();
+        }
+    }
+
+    private void sendBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sink.send(batch);
+            sent.addAndGet(batch.size());
+        } catch (IOException | RuntimeException e) {
+            failed.addAndGet(batch.size());
+        }
+        batch.clear();
+    }
+
+    /**
+     * Occurrences of one high-frequency event by integer key, e.g. quotes by currency id.
+     * Keys below {@link #DENSE_KEYS} are array slots; other keys go to a map.
+     */
+    public static final class Counter {
+
+        public static final int DENSE_KEYS = 256;
+
+        private static final String CATEGORY = "counter";
+
+        private final String name;
+        private final AtomicLongArray dense = new AtomicLongArray(DENSE_KEYS);
+        private final ConcurrentHashMap<Integer, AtomicLong> sparse = new ConcurrentHashMap<>();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment(int key) {
+            add(key, 1);
+        }
+
+        public void add(int key, long delta) {
+            if (key >= 0 && key < DENSE_KEYS) {
+                dense.addAndGet(key, delta);
+                return;
+            }
+            AtomicLong count = sparse.get(key);
+            if (count == null) {
+                AtomicLong created = new AtomicLong();
+                count = sparse.putIfAbsent(key, created);
+                if (count == null) {
+                    count = created;
+                }
+            }
+            count.addAndGet(delta);
+        }
+
+        /**
+         * Occurrences of {@code key} not flushed yet.
+         */
+        public long get(int key) {
+            if (key >= 0 && key < DENSE_KEYS) {
+                return dense.get(key);
+            }
+            AtomicLong count = sparse.get(key);
+            return count == null ? 0 : count.get();
+        }
+
+        private void drainTo(EventPipeline pipeline, long now) {
+            for (int key = 0; key < DENSE_KEYS; key++) {
+                if (dense.get(key) != 0) {
+                    pipeline.add(new AnalyticsEvent(name, CATEGORY, Integer.toString(key), dense.getAndSet(key, 0), now));
+                }
+            }
+            for (Iterator<Map.Entry<Integer, AtomicLong>> it = sparse.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Integer, AtomicLong> entry = it.next();
+                long count = entry.getValue().getAndSet(0);
+                if (count != 0) {
+                    pipeline.add(new AnalyticsEvent(name, CATEGORY, entry.getKey().toString(), count, now));
+                }
+            }
+        }
+    }
+}
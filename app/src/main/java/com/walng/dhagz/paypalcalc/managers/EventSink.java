@@ -0,0 +1,22 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where an {@link EventPipeline} delivers its batches.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public interface EventSink {
+
+    /**
+     * Delivers one batch. Called on the pipeline's flusher thread only; the list is reused
+     * after the call returns, so it must not be kept.
+     *
+     * @throws IOException if the batch could not be delivered; it is counted as failed
+     *                     and not retried
+     */
+    void send(List<AnalyticsEvent> events) throws IOException;
+}
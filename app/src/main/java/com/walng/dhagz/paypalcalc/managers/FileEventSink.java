@@ -0,0 +1,65 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Appends events to a local file, one tab-separated line per event:
+ * {@code timeMillis name category action count}. Tabs and line breaks inside a field are
+ * written as spaces. Useful to inspect what would be sent, without Firebase.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FileEventSink implements EventSink {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+
+    public FileEventSink(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void send(List<AnalyticsEvent> events) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), UTF_8));
+        try {
+            for (int i = 0; i < events.size(); i++) {
+                AnalyticsEvent event = events.get(i);
+                out.write(Long.toString(event.getTimeMillis()));
+                out.write('\t');
+                writeField(out, event.getName());
+                out.write('\t');
+                writeField(out, event.getCategory());
+                out.write('\t');
+                writeField(out, event.getAction());
+                out.write('\t');
+                out.write(Long.toString(event.getCount()));
+                out.write('\n');
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            out.write(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+}
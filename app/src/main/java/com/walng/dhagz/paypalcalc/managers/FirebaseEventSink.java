@@ -0,0 +1,52 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+import java.util.List;
+
+/**
+ * Logs events to Firebase Analytics. Screen views are logged with Firebase's screen
+ * parameters; other events with {@code category} and {@code action}, plus {@code count}
+ * when they aggregate more than one occurrence.
+ * <p>
+ * Firebase is first touched by the first batch, on the flusher thread.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FirebaseEventSink implements EventSink {
+
+    private final Context context;
+    // flusher thread only
+    private FirebaseAnalytics firebaseAnalytics;
+
+    public FirebaseEventSink(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public void send(List<AnalyticsEvent> events) {
+        if (firebaseAnalytics == null) {
+            firebaseAnalytics = FirebaseAnalytics.getInstance(context);
+        }
+        for (int i = 0; i < events.size(); i++) {
+            AnalyticsEvent event = events.get(i);
+            Bundle bundle = new Bundle();
+            if (AnalyticsEvent.SCREEN_VIEW.equals(event.getName())) {
+                bundle.putString(FirebaseAnalytics.Param.SCREEN_NAME, event.getCategory());
+                bundle.putString(FirebaseAnalytics.Param.SCREEN_CLASS, event.getAction());
+                firebaseAnalytics.logEvent(FirebaseAnalytics.Event.SCREEN_VIEW, bundle);
+                continue;
+            }
+            bundle.putString("category", event.getCategory());
+            bundle.putString("action", event.getAction());
+            if (event.getCount() != 1) {
+                bundle.putLong("count", event.getCount());
+            }
+            firebaseAnalytics.logEvent(event.getName(), bundle);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import android.os.Trace;
+
+import com.walng.dhagz.paypalcalc.fee.LatencyHistogram;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms, counters and systrace sections for the calculator's hot paths.
+ * <p>
+ * A {@link Section} wraps a method: {@link Section#begin()} opens an
+ * {@code android.os.Trace} section and reads the clock, {@link Section#end(long)} closes
+ * it and records the duration in the section's {@link LatencyHistogram}. A {@link Timer}
+ * records a duration across threads without a trace section, e.g. from a keystroke to the
+ * quote being displayed.
+ * <p>
+ * While disabled (the default) every call is a check of one static field: no clock read,
+ * no trace call, nothing recorded. {@link #dump(PrintWriter)} prints the percentiles, and
+ * is wired to {@code adb shell dumpsys activity com.walng.dhagz.paypalcalc}.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class Metrics {
+
+    /**
+     * Returned by {@link Section#begin()} and {@link Timer#start()} while disabled.
+     */
+    public static final long NOT_STARTED = Long.MIN_VALUE;
+
+    // not volatile: a late view of a toggle only records or skips a few more samples
+    private static boolean enabled;
+
+    public static final Section AMOUNT_CHANGED = new Section("amountChanged");
+    public static final Section QUOTE = new Section("quote");
+    public static final Section COMPARE = new Section("compare");
+    public static final Section SET_CURRENCY = new Section("setCurrency");
+    public static final Section LIST_SET = new Section("listProvider.set");
+    public static final Section LIST_GET = new Section("listProvider.get");
+    public static final Section LIST_COMMIT = new Section("listProvider.commit");
+    public static final Timer INPUT_TO_DISPLAY = new Timer("inputToDisplay");
+
+    public static final Counter QUOTES_PUBLISHED = new Counter("quotesPublished");
+    public static final Counter QUOTES_SUPERSEDED = new Counter("quotesSuperseded");
+    public static final Counter LIST_COMMITS = new Counter("listProvider.commits");
+
+    private static final Timer[] TIMERS = {
+            AMOUNT_CHANGED, QUOTE, COMPARE, SET_CURRENCY, LIST_SET, LIST_GET, LIST_COMMIT, INPUT_TO_DISPLAY
+    };
+    private static final Counter[] COUNTERS = {QUOTES_PUBLISHED, QUOTES_SUPERSEDED, LIST_COMMITS};
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Clears every histogram and counter, e.g. after warm-up.
+     */
+    public static void reset() {
+        for (Timer timer : TIMERS) {
+            timer.histogram.reset();
+        }
+        for (Counter counter : COUNTERS) {
+            counter.count.set(0);
+        }
+    }
+
+    /**
+     * Prints one line per timer with its count and percentiles in milliseconds, then the
+     * counters.
+     */
+    public static void dump(PrintWriter out) {
+        out.println("Metrics (" + (enabled ? "enabled" : "disabled") + ")");
+        for (Timer timer : TIMERS) {
+            LatencyHistogram histogram = timer.histogram;
+            out.println(String.format(Locale.US,
+                    "  %-22s n=%-7d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f",
+                    timer.name, histogram.getCount(), histogram.getMean() / 1e6,
+                    millis(histogram.getPercentile(50)), millis(histogram.getPercentile(90)),
+                    millis(histogram.getPercentile(99)), millis(histogram.getPercentile(99.9)),
+                    millis(histogram.getMax())));
+        }
+        for (Counter counter : COUNTERS) {
+            out.println(String.format(Locale.US, "  %-22s %d", counter.name, counter.get()));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * A duration recorded into a histogram.
+     */
+    public static class Timer {
+
+        final String name;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        /**
+         * @return the start time to pass to {@link #stop(long)}, or {@link #NOT_STARTED}
+         */
+        public long start() {
+            return enabled ? System.nanoTime() : NOT_STARTED;
+        }
+
+        public void stop(long start) {
+            if (start != NOT_STARTED) {
+                histogram.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * A timer that is also a systrace section. {@link #begin()} and {@link #end(long)}
+     * must be called on the same thread, properly nested.
+     */
+    public static final class Section extends Timer {
+
+        Section(String name) {
+            super(name);
+        }
+
+        /**
+         * @return the start time to pass to {@link #end(long)}, or {@link #NOT_STARTED}
+         */
+        public long begin() {
+            if (!enabled) {
+                return NOT_STARTED;
+            }
+            Trace.beginSection(name);
+            return System.nanoTime();
+        }
+
+        public void end(long start) {
+            if (start != NOT_STARTED) {
+                long elapsed = System.nanoTime() - start;
+                Trace.endSection();
+                histogram.record(elapsed);
+            }
+        }
+    }
+
+    public static final class Counter {
+
+        final String name;
+        final AtomicLong count = new AtomicLong();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            if (enabled) {
+                count.incrementAndGet();
+            }
+        }
+
+        public long get() {
+            return count.get();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import java.util.List;
+
+/**
+ * Discards every event, e.g. when analytics are disabled or in offline tests that only
+ * look at the pipeline's counters.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class NoOpEventSink implements EventSink {
+
+    public static final NoOpEventSink INSTANCE = new NoOpEventSink();
+
+    private NoOpEventSink() {
+    }
+
+    @Override
+    public void send(List<AnalyticsEvent> events) {
+        // do nothing
+    }
+}
@@ -0,0 +1,162 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Orders the work done at startup so the calculator is drawn first.
+ * <p>
+ * Only what the first frame needs runs in {@code onCreate}. Everything else is handed to
+ * one of two stages: {@link #runInBackground(Runnable)} for work that may leave the main
+ * thread (loading the persisted fee table, analytics), and {@link #runWhenIdle(Runnable)}
+ * for main-thread work that can wait until the first frame is drawn and the main thread
+ * has nothing else to do (loading the ad). Idle tasks run one per idle pass, so a slow
+ * one never delays input.
+ * <p>
+ * Each phase is {@linkplain #mark(String) marked} with the time since the application
+ * was created; {@link #getTimings()} returns them in the order they happened.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class StartupScheduler {
+
+    public static final String PHASE_APPLICATION = "application";
+    public static final String PHASE_ACTIVITY = "activity";
+    public static final String PHASE_FIRST_FRAME = "firstFrame";
+    public static final String PHASE_FEE_TABLE = "feeTable";
+    public static final String PHASE_ANALYTICS = "analytics";
+    public static final String PHASE_ADS = "ads";
+
+    private final long origin = SystemClock.elapsedRealtime();
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+    private final ExecutorService background = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "StartupScheduler");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // main thread only
+    private final ArrayDeque<Runnable> idleTasks = new ArrayDeque<>();
+    private boolean firstFrameDrawn;
+    private boolean idleHandlerAdded;
+
+    private final MessageQueue.IdleHandler idleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            Runnable task = idleTasks.poll();
+            if (task != null) {
+                task.run();
+            }
+            idleHandlerAdded = !idleTasks.isEmpty();
+            return idleHandlerAdded;
+        }
+    };
+
+    private StartupScheduler() {
+    }
+
+    private static final class Holder {
+        static final StartupScheduler INSTANCE = new StartupScheduler();
+    }
+
+    /**
+     * The process-wide scheduler. The first call fixes the origin of the timings, so call
+     * it at the start of {@code Application.onCreate}.
+     */
+    public static StartupScheduler getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Records {@code phase} as reached now. Only the first mark of a phase counts.
+     */
+    public void mark(String phase) {
+        long elapsed = SystemClock.elapsedRealtime() - origin;
+        synchronized (marks) {
+            if (marks.containsKey(phase)) {
+                return;
+            }
+            marks.put(phase, elapsed);
+        }
+    }
+
+    /**
+     * @return milliseconds from application start to {@code phase}, or {@code -1} if the
+     * phase was not reached yet
+     */
+    public long getElapsed(String phase) {
+        synchronized (marks) {
+            Long elapsed = marks.get(phase);
+            return elapsed == null ? -1 : elapsed;
+        }
+    }
+
+    /**
+     * Milliseconds from application start to each phase reached so far.
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (marks) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(marks));
+        }
+    }
+
+    public void runInBackground(Runnable task) {
+        background.execute(task);
+    }
+
+    /**
+     * Runs {@code task} on the main thread once the first frame is drawn and the main
+     * thread is idle. Must be called on the main thread.
+     */
+    public void runWhenIdle(Runnable task) {
+        idleTasks.add(task);
+        scheduleIdleTasks();
+    }
+
+    /**
+     * Marks {@link #PHASE_FIRST_FRAME} when {@code activity} is about to draw for the
+     * first time, which also releases the idle tasks. Must be called on the main thread.
+     */
+    public void watchFirstFrame(Activity activity) {
+        if (firstFrameDrawn) {
+            return;
+        }
+        final View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                ViewTreeObserver observer = decorView.getViewTreeObserver();
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }
+                mark(PHASE_FIRST_FRAME);
+                firstFrameDrawn = true;
+                scheduleIdleTasks();
+                return true;
+            }
+        });
+    }
+
+    private void scheduleIdleTasks() {
+        if (firstFrameDrawn && !idleHandlerAdded && !idleTasks.isEmpty()) {
+            idleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(idleHandler);
+        }
+    }
+}
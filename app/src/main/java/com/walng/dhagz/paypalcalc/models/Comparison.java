@@ -0,0 +1,56 @@
+package com.walng.dhagz.paypalcalc.models;
+
+/**
+ * Result of pricing one amount in every currency: per currency, in list order, the total
+ * and fee with the text shown for them.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class Comparison {
+
+    private final float amount;
+    private final Currency[] currencies;
+    private final float[] totals;
+    private final float[] fees;
+    private final String[] totalTexts;
+    private final String[] feeTexts;
+
+    public Comparison(float amount, Currency[] currencies, float[] totals, float[] fees,
+                      String[] totalTexts, String[] feeTexts) {
+        this.amount = amount;
+        this.currencies = currencies;
+        this.totals = totals;
+        this.fees = fees;
+        this.totalTexts = totalTexts;
+        this.feeTexts = feeTexts;
+    }
+
+    public float getAmount() {
+        return amount;
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+
+    public Currency getCurrency(int index) {
+        return currencies[index];
+    }
+
+    public float getTotal(int index) {
+        return totals[index];
+    }
+
+    public float getFee(int index) {
+        return fees[index];
+    }
+
+    public String getTotalText(int index) {
+        return totalTexts[index];
+    }
+
+    public String getFeeText(int index) {
+        return feeTexts[index];
+    }
+}
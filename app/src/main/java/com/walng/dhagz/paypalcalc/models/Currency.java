@@ -2,18 +2,43 @@ package com.walng.dhagz.paypalcalc.models;
 
 import android.os.Parcel;
 import android.os.Parcelable;
+import androidx.annotation.Nullable;
+
+import com.walng.dhagz.paypalcalc.fee.FeePlan;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
 
 /**
+ * Immutable currency with its PayPal charges.
+ * <p>
+ * The shipped currencies are flyweights over the columns of {@link FeeTable#defaults()}:
+ * {@link #of(int)} and {@link #intern(Currency)} return one shared instance per row, whose
+ * {@link #getFeePlan()} is the table's precompiled plan. Only a currency whose charges
+ * were edited is a separate object. Edits return a new currency; see
+ * {@link #withPercentageCharge(float)}.
+ * <p>
+ * A shared currency is parcelled as its id alone and unparcelled as the same instance.
+ * Other currencies write their charges, plus name and symbol only when these differ from
+ * the default row with the same id.
+ *
  * @author Dhagz
  * @since 2016-03-25
  */
-public class Currency implements Parcelable {
+public final class Currency implements Parcelable {
+
+    // parcel layouts, written after the id
+    private static final int PARCEL_SHARED = 0;
+    private static final int PARCEL_CHARGES = 1;
+    private static final int PARCEL_FULL = 2;
+
+    private static final Currency[] SHARED = createShared();
 
-    private int id;
-    private String name;
-    private String symbol;
-    private float percentageCharge;
-    private float amountCharge;
+    private final int id;
+    private final String name;
+    private final String symbol;
+    private final float percentageCharge;
+    private final float amountCharge;
+    // derived from the charges; not persisted
+    private transient volatile FeePlan feePlan;
 
     public Currency(int id, String name, String symbol, float percentageCharge, float amountCharge) {
         this.id = id;
@@ -23,6 +48,41 @@ public class Currency implements Parcelable {
         this.amountCharge = amountCharge;
     }
 
+    private Currency(FeeTable table, int row) {
+        this(table.getId(row), table.getName(row), table.getSymbol(row), table.getPercentageCharge(row),
+                table.getAmountCharge(row));
+        this.feePlan = table.getPlan(row);
+    }
+
+    private static Currency[] createShared() {
+        FeeTable defaults = FeeTable.defaults();
+        Currency[] shared = new Currency[defaults.size()];
+        for (int i = 0; i < shared.length; i++) {
+            shared[i] = new Currency(defaults, i);
+        }
+        return shared;
+    }
+
+    /**
+     * The shared currency for a row of {@link FeeTable#defaults()}.
+     *
+     * @return the currency, or {@code null} if no default has this id
+     */
+    @Nullable
+    public static Currency of(int id) {
+        int row = FeeTable.defaults().indexOf(id);
+        return row < 0 ? null : SHARED[row];
+    }
+
+    /**
+     * @return the shared instance equal to {@code currency}, or {@code currency} itself if
+     * its charges, name or symbol were edited
+     */
+    public static Currency intern(Currency currency) {
+        Currency shared = of(currency.id);
+        return currency.equals(shared) ? shared : currency;
+    }
+
     public int getId() {
         return id;
     }
@@ -39,16 +99,40 @@ public class Currency implements Parcelable {
         return percentageCharge;
     }
 
-    public void setPercentageCharge(float percentageCharge) {
-        this.percentageCharge = percentageCharge;
-    }
-
     public float getAmountCharge() {
         return amountCharge;
     }
 
-    public void setAmountCharge(float amountCharge) {
-        this.amountCharge = amountCharge;
+    /**
+     * The charges compiled for pricing. Shared currencies use the plan of their default
+     * row; others build theirs on first use.
+     */
+    public FeePlan getFeePlan() {
+        FeePlan plan = feePlan;
+        if (plan == null) {
+            FeeTable defaults = FeeTable.defaults();
+            int row = defaults.indexOf(id);
+            int scale = row >= 0 ? defaults.getScale(row) : FeeTable.scaleOf(symbol);
+            plan = FeePlan.of(percentageCharge, amountCharge, scale, FeeTable.DEFAULT_ROUNDING);
+            feePlan = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * @return a currency like this one with a different percentage charge; the shared
+     * instance if that restores the default
+     */
+    public Currency withPercentageCharge(float percentageCharge) {
+        return intern(new Currency(id, name, symbol, percentageCharge, amountCharge));
+    }
+
+    /**
+     * @return a currency like this one with a different fixed charge; the shared instance
+     * if that restores the default
+     */
+    public Currency withAmountCharge(float amountCharge) {
+        return intern(new Currency(id, name, symbol, percentageCharge, amountCharge));
     }
 
     @Override
@@ -85,18 +169,6 @@ public class Currency implements Parcelable {
      * PARCELLING PART
      */
 
-    // Parcelling part
-    public Currency(Parcel in) {
-        String[] data = new String[3];
-
-        in.readStringArray(data);
-        this.id = in.readInt();
-        this.name = in.readString();
-        this.symbol = in.readString();
-        this.percentageCharge = in.readFloat();
-        this.amountCharge = in.readFloat();
-    }
-
     @Override
     public int describeContents() {
         return 0;
@@ -105,15 +177,39 @@ public class Currency implements Parcelable {
     @Override
     public void writeToParcel(Parcel parcel, int i) {
         parcel.writeInt(this.id);
-        parcel.writeString(this.name);
-        parcel.writeString(this.symbol);
+        Currency shared = of(this.id);
+        if (this == shared || this.equals(shared)) {
+            parcel.writeInt(PARCEL_SHARED);
+            return;
+        }
+        boolean sameText = shared != null && shared.name.equals(this.name) && shared.symbol.equals(this.symbol);
+        parcel.writeInt(sameText ? PARCEL_CHARGES : PARCEL_FULL);
         parcel.writeFloat(this.percentageCharge);
         parcel.writeFloat(this.amountCharge);
+        if (!sameText) {
+            parcel.writeString(this.name);
+            parcel.writeString(this.symbol);
+        }
+    }
+
+    private static Currency readFromParcel(Parcel in) {
+        int id = in.readInt();
+        int layout = in.readInt();
+        Currency shared = of(id);
+        if (layout == PARCEL_SHARED) {
+            return shared;
+        }
+        float percentageCharge = in.readFloat();
+        float amountCharge = in.readFloat();
+        if (layout == PARCEL_CHARGES) {
+            return new Currency(id, shared.name, shared.symbol, percentageCharge, amountCharge);
+        }
+        return new Currency(id, in.readString(), in.readString(), percentageCharge, amountCharge);
     }
 
-    public static final Parcelable.Creator CREATOR = new Parcelable.Creator() {
+    public static final Parcelable.Creator<Currency> CREATOR = new Parcelable.Creator<Currency>() {
         public Currency createFromParcel(Parcel in) {
-            return new Currency(in);
+            return readFromParcel(in);
         }
 
         public Currency[] newArray(int size) {
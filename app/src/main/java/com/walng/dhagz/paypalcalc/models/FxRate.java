@@ -0,0 +1,43 @@
+package com.walng.dhagz.paypalcalc.models;
+
+/**
+ * Exchange rate of one currency against the common base of the rate table, with PayPal's
+ * conversion spread into it.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FxRate {
+
+    private final String symbol;
+    private final double rate;
+    private final float spread;
+
+    /**
+     * @param symbol the ISO 4217 code, as in {@link Currency#getSymbol()}
+     * @param rate   units of the currency per unit of the base
+     * @param spread the conversion spread in percent
+     */
+    public FxRate(String symbol, double rate, float spread) {
+        this.symbol = symbol;
+        this.rate = rate;
+        this.spread = spread;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public float getSpread() {
+        return spread;
+    }
+
+    @Override
+    public String toString() {
+        return symbol + " " + rate + " (" + spread + "%)";
+    }
+}
@@ -0,0 +1,140 @@
+package com.walng.dhagz.paypalcalc.presenters;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.walng.dhagz.paypalcalc.fee.MinorUnits;
+import com.walng.dhagz.paypalcalc.fee.MoneyParser;
+import com.walng.dhagz.paypalcalc.fee.Quote;
+import com.walng.dhagz.paypalcalc.managers.Metrics;
+import com.walng.dhagz.paypalcalc.models.Comparison;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns amount input into quotes off the main thread.
+ * <p>
+ * Keystrokes passed to {@link #submit(CharSequence)} are coalesced for
+ * {@link #DEBOUNCE_MS}; only the last text of a burst is parsed and priced on a
+ * background thread, and a result is published only if no newer input arrived while it
+ * was being computed. In comparison mode the amount is priced in every currency instead.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class AmountInputPipeline {
+
+    /**
+     * How long to wait after a keystroke for the next one before pricing.
+     */
+    public static final long DEBOUNCE_MS = 60;
+
+    private static final ExecutorService CALCULATOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "AmountInputPipeline");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    // the amount field only accepts digits and '.'; used on the CALCULATOR thread only
+    private static final MoneyParser AMOUNT_PARSER = new MoneyParser('.', ',');
+
+    private final PayPalCalcPresenter presenter;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // main thread only
+    private String pendingText = "";
+    // when the pending text was typed, for Metrics.INPUT_TO_DISPLAY
+    private long pendingStart = Metrics.NOT_STARTED;
+
+    private final Runnable dispatch = new Runnable() {
+        @Override
+        public void run() {
+            dispatch(pendingText, pendingStart);
+        }
+    };
+
+    public AmountInputPipeline(PayPalCalcPresenter presenter) {
+        this.presenter = presenter;
+    }
+
+    /**
+     * Prices {@code text} once typing pauses. Must be called on the main thread.
+     */
+    public void submit(CharSequence text) {
+        pendingText = text.toString();
+        pendingStart = Metrics.INPUT_TO_DISPLAY.start();
+        mainHandler.removeCallbacks(dispatch);
+        mainHandler.postDelayed(dispatch, DEBOUNCE_MS);
+    }
+
+    /**
+     * Prices {@code text} without waiting, e.g. after the currency or fees changed. Must be
+     * called on the main thread.
+     */
+    public void submitNow(CharSequence text) {
+        pendingText = text.toString();
+        pendingStart = Metrics.INPUT_TO_DISPLAY.start();
+        mainHandler.removeCallbacks(dispatch);
+        dispatch(pendingText, pendingStart);
+    }
+
+    /**
+     * Drops pending input and any result still being computed.
+     */
+    public void cancel() {
+        mainHandler.removeCallbacks(dispatch);
+        generation.incrementAndGet();
+    }
+
+    private void dispatch(final String text, final long start) {
+        final int current = generation.incrementAndGet();
+        final boolean comparing = presenter.isComparing();
+        CALCULATOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (current != generation.get()) {
+                    Metrics.QUOTES_SUPERSEDED.increment();
+                    return;
+                }
+                float amount = parseAmount(text);
+                final Quote quote = comparing ? null : presenter.quote(amount);
+                final Comparison comparison = comparing ? presenter.compare(amount) : null;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (current == generation.get()) {
+                            if (comparing) {
+                                presenter.publishComparison(comparison);
+                            } else {
+                                presenter.publishQuote(quote);
+                            }
+                            Metrics.INPUT_TO_DISPLAY.stop(start);
+                            Metrics.QUOTES_PUBLISHED.increment();
+                        } else {
+                            Metrics.QUOTES_SUPERSEDED.increment();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Parses the amount field, returning 0 for empty, half-typed or invalid input instead
+     * of throwing. Only called on the calculator thread.
+     */
+    static float parseAmount(String text) {
+        if (AMOUNT_PARSER.parse(text, MinorUnits.MAX_SCALE) == MoneyParser.OVERFLOW) {
+            // too large for eight decimals; whole units are plenty at that size
+            AMOUNT_PARSER.parse(text, 0);
+        }
+        return AMOUNT_PARSER.floatValue();
+    }
+}
@@ -1,123 +1,574 @@
 package com.walng.dhagz.paypalcalc.presenters;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 
+import com.walng.dhagz.paypalcalc.R;
+import com.walng.dhagz.paypalcalc.fee.FeeComparison;
+import com.walng.dhagz.paypalcalc.fee.FeePlan;
+import com.walng.dhagz.paypalcalc.fee.FxPlan;
+import com.walng.dhagz.paypalcalc.fee.FxQuoter;
+import com.walng.dhagz.paypalcalc.fee.FxRates;
+import com.walng.dhagz.paypalcalc.fee.MoneyFormat;
+import com.walng.dhagz.paypalcalc.fee.Quote;
+import com.walng.dhagz.paypalcalc.fee.QuoteCache;
+import com.walng.dhagz.paypalcalc.fee.Quoter;
+import com.walng.dhagz.paypalcalc.managers.AnalyticsManager;
+import com.walng.dhagz.paypalcalc.managers.Metrics;
+import com.walng.dhagz.paypalcalc.managers.StartupScheduler;
+import com.walng.dhagz.paypalcalc.models.Comparison;
 import com.walng.dhagz.paypalcalc.models.Currency;
 import com.walng.dhagz.paypalcalc.providers.CurrencyListProvider;
+import com.walng.dhagz.paypalcalc.providers.CurrencyRegistry;
+import com.walng.dhagz.paypalcalc.providers.FeeHistoryProvider;
+import com.walng.dhagz.paypalcalc.providers.FxRateListProvider;
 import com.walng.dhagz.paypalcalc.views.PayPalCalcView;
 
-import java.text.DecimalFormat;
 import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Locale;
 
 /**
+ * Presents the calculator screen.
+ * <p>
+ * The selected currency, the billing currency, the currency registry and the exchange
+ * rates are published together as one immutable {@link State}, so {@link #quote(float)}
+ * can run on worker threads without locks and always sees a matching set. The state is
+ * replaced, never modified, and only on the main thread. The presenter keeps only the
+ * application context; the view is dropped again by
+ * {@link #unbindPayPalCalcView(PayPalCalcView)}.
+ * <p>
+ * On a cold start the view is first bound to the built-in currencies, so the calculator
+ * is drawn without reading preferences. The saved list is read in the background and
+ * replaces them when ready; charge edits made in between are carried over, and nothing is
+ * saved until then.
+ * <p>
+ * In comparison mode the amount is priced in every currency at once by
+ * {@link #compare(float)}, without selecting each one.
+ * <p>
+ * The amount can be billed in another currency than the one it should arrive in, see
+ * {@link #setBillingCurrency(Currency)}. Quotes then also carry the amount to bill, priced
+ * with a pair plan that is compiled once per pair, registry and rate table. The rates are
+ * taken into the state when a billing currency is chosen, read in the background if they
+ * are not loaded yet, and again whenever the rate list is replaced.
+ *
  * @author Dhagz
  * @since 2016-03-25
  */
 public class PayPalCalcPresenter {
 
-    private static PayPalCalcPresenter instance;
+    private static final int QUOTE_CACHE_SIZE = 256;
 
-    private Context context;
+    private static volatile PayPalCalcPresenter instance;
+
+    private final Context context;
+    private volatile State mState = State.EMPTY;
+    private final Quoter mQuoter;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // rebuilt when the registry changes
+    private volatile ComparisonTable mComparisonTable;
+
+    // main thread only
     private PayPalCalcView payPalCalcView;
     private LinkedList<Currency> mCurrencies;
-    private Currency mCurrency;
+    private String mShownFeeText;
+    private String mShownTotalText;
+    private String mShownBilledText;
+    private Locale mQuoteLocale;
+    // showing the built-in currencies until the saved ones are read
+    private boolean mProvisional;
+    private final LinkedList<Currency> mProvisionalEdits = new LinkedList<>();
+    private boolean mComparing;
+    private boolean mLoadingRates;
 
     public static PayPalCalcPresenter getInstance(Context context) {
-        if (instance == null) {
-            instance = new PayPalCalcPresenter(context);
+        PayPalCalcPresenter presenter = instance;
+        if (presenter == null) {
+            synchronized (PayPalCalcPresenter.class) {
+                presenter = instance;
+                if (presenter == null) {
+                    presenter = new PayPalCalcPresenter(context);
+                    instance = presenter;
+                }
+            }
         }
-        return instance;
+        return presenter;
     }
 
     public PayPalCalcPresenter(Context context) {
-        this.context = context;
+        // an Activity would be kept alive as long as the presenter
+        this.context = context.getApplicationContext();
+        // texts in the default locale of each quote; the cache is cleared when it changes
+        this.mQuoter = new Quoter(QUOTE_CACHE_SIZE, null, this.context.getString(R.string.no_exchange_rate));
+        FxRateListProvider.getInstance(this.context).setOnRatesChangedListener(
+                new FxRateListProvider.OnRatesChangedListener() {
+                    @Override
+                    public void onRatesChanged(final FxRates rates) {
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                applyRates(rates);
+                            }
+                        });
+                    }
+                });
     }
 
-    public void bindPayPalCalcView(PayPalCalcView view) {
+    public void bindPayPalCalcView(final PayPalCalcView view) {
         this.payPalCalcView = view;
-        this.mCurrencies = CurrencyListProvider.getInstance(context).get();
+        view.setComparisonMode(mComparing);
+        this.mShownFeeText = null;
+        this.mShownTotalText = null;
+        this.mShownBilledText = null;
+        final CurrencyListProvider provider = CurrencyListProvider.getInstance(context);
+        if (provider.isLoaded()) {
+            mProvisional = false;
+            showCurrencies(applyProvisionalEdits(provider.get()));
+            StartupScheduler.getInstance().mark(StartupScheduler.PHASE_FEE_TABLE);
+            return;
+        }
+        mProvisional = true;
+        showCurrencies(provider.getDefaultCurrencyList());
+        StartupScheduler.getInstance().runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                final LinkedList<Currency> saved = provider.get();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onSavedCurrencies(view, saved);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onSavedCurrencies(PayPalCalcView view, LinkedList<Currency> saved) {
+        if (view != payPalCalcView || !mProvisional) {
+            // rebound meanwhile; that bind used the saved list
+            return;
+        }
+        mProvisional = false;
+        showCurrencies(applyProvisionalEdits(saved));
+        StartupScheduler.getInstance().mark(StartupScheduler.PHASE_FEE_TABLE);
+    }
+
+    private LinkedList<Currency> applyProvisionalEdits(LinkedList<Currency> currencies) {
+        for (Currency edit : mProvisionalEdits) {
+            for (ListIterator<Currency> it = currencies.listIterator(); it.hasNext(); ) {
+                if (it.next().getId() == edit.getId()) {
+                    it.set(edit);
+                }
+            }
+        }
+        mProvisionalEdits.clear();
+        return currencies;
+    }
+
+    private void showCurrencies(LinkedList<Currency> currencies) {
+        this.mCurrencies = currencies;
+        State previous = mState;
+        CurrencyRegistry registry = CurrencyRegistry.of(this.mCurrencies);
+        Currency selected = previous.currency == null ? null : registry.findById(previous.currency.getId());
+        Currency billing = previous.billing == null ? null : registry.findById(previous.billing.getId());
+        mState = State.of(previous, registry, selected, billing, previous.rates);
+        invalidateQuotes(previous.registry, registry);
         if (this.payPalCalcView != null) {
             this.payPalCalcView.populateCurrencyList(this.mCurrencies);
         }
     }
 
+    /**
+     * Forgets {@code view} if it is the bound one, so a destroyed Activity is not kept.
+     */
+    public void unbindPayPalCalcView(PayPalCalcView view) {
+        if (this.payPalCalcView == view) {
+            this.payPalCalcView = null;
+        }
+    }
+
     public Currency getCurrency() {
-        return mCurrency;
+        return mState.currency;
+    }
+
+    public CurrencyRegistry getRegistry() {
+        return mState.registry;
     }
 
     public void setCurrency(Currency currency) {
-        for (int i = 0; i < mCurrencies.size(); i++) {
-            if (mCurrencies.get(i).getId() == currency.getId()) {
-                mCurrencies.set(i, currency);
-                mCurrency = mCurrencies.get(i);
-                break;
+        long start = Metrics.SET_CURRENCY.begin();
+        try {
+            applyCurrency(currency);
+        } finally {
+            Metrics.SET_CURRENCY.end(start);
+        }
+    }
+
+    private void applyCurrency(Currency currency) {
+        State state = mState;
+        int index = state.registry.indexOf(currency.getId());
+        Currency selected = state.currency;
+        CurrencyRegistry registry = state.registry;
+        boolean changed = false;
+        if (index >= 0) {
+            changed = changesQuotes(registry.get(index), currency);
+            if (changed) {
+                mQuoter.getCache().invalidate(currency.getId());
+                // the list only keeps the latest charges; the history keeps them all
+                FeeHistoryProvider.getInstance(context).record(registry.get(index), currency,
+                        System.currentTimeMillis());
+                if (mProvisional) {
+                    recordProvisionalEdit(currency);
+                }
             }
+            registry = registry.with(currency);
+            mCurrencies.set(index, currency);
+            selected = currency;
+            // compile the charges here rather than on the first keystroke
+            currency.getFeePlan();
+        }
+        Currency billing = state.billing == null ? null : registry.findById(state.billing.getId());
+        mState = State.of(state, registry, selected, billing, state.rates);
+        // seve to preferences, unless the saved list is still being read
+        if (!mProvisional) {
+            CurrencyListProvider.getInstance(context).set(mCurrencies);
         }
-        // seve to preferences
-        CurrencyListProvider.getInstance(context).set(mCurrencies);
         // update the view
-        DecimalFormat formatter = new DecimalFormat(mCurrency.getSymbol() + " #,###,###.00");
-        String transactionAddition = formatter.format(mCurrency.getAmountCharge());
-        String transactionPercentage = String.format("%.2f%%", mCurrency.getPercentageCharge());
+        if (selected == null) {
+            return;
+        }
+        MoneyFormat formatter = MoneyFormat.forSymbol(selected.getSymbol());
+        String transactionAddition = formatter.format(selected.getAmountCharge());
+        String transactionPercentage = MoneyFormat.percent().format(selected.getPercentageCharge());
         if (payPalCalcView != null) {
+            if (changed) {
+                payPalCalcView.updateCurrency(selected);
+            }
             payPalCalcView.setTransactionAddition(transactionAddition);
             payPalCalcView.setTransactionPercentage(transactionPercentage);
             // clear previous data
-            payPalCalcView.setTransactionTotal("");
-            payPalCalcView.setAmountTotal("");
+            mShownFeeText = "";
+            mShownTotalText = "";
+            mShownBilledText = "";
+            payPalCalcView.setTransactionTotal(mShownFeeText);
+            payPalCalcView.setAmountTotal(mShownTotalText);
+            payPalCalcView.setBilledTotal(mShownBilledText);
+        }
+    }
+
+    /**
+     * The currency amounts are billed in, or {@code null} if they are billed in the
+     * selected currency.
+     */
+    public Currency getBillingCurrency() {
+        return mState.billing;
+    }
+
+    /**
+     * Bills amounts in {@code billing} while they still arrive in the selected currency.
+     * {@code null} or the selected currency itself bills in the selected currency, and
+     * keeps doing so when another currency is selected. Main thread only.
+     */
+    public void setBillingCurrency(Currency billing) {
+        State state = mState;
+        if (billing != null && state.currency != null && billing.getId() == state.currency.getId()) {
+            billing = null;
         }
+        if (billing != null) {
+            // the registry's entry, so it is replaced along with the registry
+            billing = state.registry.getById(billing.getId());
+        }
+        FxRates rates = state.rates;
+        if (billing != null && rates == null) {
+            rates = FxRateListProvider.getInstance(context).peekRates();
+            if (rates == null) {
+                loadRates();
+            }
+        }
+        mState = State.of(state, state.registry, state.currency, billing, rates);
+    }
+
+    /**
+     * Reads the exchange rates off the main thread; until they arrive, billed quotes show
+     * that there is no rate.
+     */
+    private void loadRates() {
+        if (mLoadingRates) {
+            return;
+        }
+        mLoadingRates = true;
+        StartupScheduler.getInstance().runInBackground(new Runnable() {
+            @Override
+            public void run() {
+                final FxRates rates = FxRateListProvider.getInstance(context).getRates();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mLoadingRates = false;
+                        applyRates(rates);
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyRates(FxRates rates) {
+        State state = mState;
+        if (state.rates != rates) {
+            mState = State.of(state, state.registry, state.currency, state.billing, rates);
+        }
+    }
+
+    private void recordProvisionalEdit(Currency currency) {
+        for (ListIterator<Currency> it = mProvisionalEdits.listIterator(); it.hasNext(); ) {
+            if (it.next().getId() == currency.getId()) {
+                it.remove();
+            }
+        }
+        mProvisionalEdits.add(currency);
     }
 
     public void onAmountChanged(float amount) {
-        String symbol = "";
-        float percent = 0;
-        float additional = 0;
-        float totalPrice;
-        float addToAmount;
-        if (mCurrency != null) {
-            symbol = mCurrency.getSymbol().isEmpty() ? "" : mCurrency.getSymbol() + " ";
-            percent = mCurrency.getPercentageCharge();
-            additional = mCurrency.getAmountCharge();
+        long start = Metrics.AMOUNT_CHANGED.begin();
+        try {
+            publishQuote(quote(amount));
+        } finally {
+            Metrics.AMOUNT_CHANGED.end(start);
         }
+    }
 
-        totalPrice = ((amount + additional) / ((100 - percent) / 100));
-        addToAmount = totalPrice - amount;
+    /**
+     * Prices {@code amount} with the selected currency without touching the view, so it
+     * can run off the main thread. Amounts that are whole minor units are answered from
+     * the quote cache when they were priced before with the same charges.
+     */
+    public Quote quote(float amount) {
+        long start = Metrics.QUOTE.begin();
+        try {
+            return lookUpQuote(amount);
+        } finally {
+            Metrics.QUOTE.end(start);
+        }
+    }
 
-        DecimalFormat formatter = new DecimalFormat(symbol + "#,###,###.00");
-        String sTotalPrice = formatter.format(totalPrice);
-        String sAddToAmount = formatter.format(addToAmount);
+    private Quote lookUpQuote(float amount) {
+        State state = mState;
+        Currency currency = state.currency;
+        if (currency == null) {
+            return mQuoter.price("", FeePlan.NONE, amount);
+        }
+        AnalyticsManager.getInstance(context).countQuote(currency.getId());
+
+        Currency billing = state.billing;
+        if (billing == null || billing.getId() == currency.getId()) {
+            return mQuoter.quote(currency.getId(), currency.getSymbol(), currency.getFeePlan(), amount);
+        }
+        // a worker may price with a plan replaced just after it read the state; the quoter
+        // compares plans, so that quote is never served for the new one
+        FxPlan fxPlan = state.fxQuoter == null ? null : state.fxQuoter.getPlanById(billing.getId(), currency.getId());
+        return mQuoter.quote(currency.getId(), currency.getSymbol(), currency.getFeePlan(), amount,
+                billing.getId(), billing.getSymbol(), fxPlan);
+    }
+
+    /**
+     * Whether amounts are compared across all currencies instead of quoted in the
+     * selected one. Main thread only.
+     */
+    public boolean isComparing() {
+        return mComparing;
+    }
 
+    public void setComparing(boolean comparing) {
+        if (mComparing == comparing) {
+            return;
+        }
+        mComparing = comparing;
         if (payPalCalcView != null) {
-            payPalCalcView.setTransactionTotal(sAddToAmount);
-            payPalCalcView.setAmountTotal(sTotalPrice);
+            payPalCalcView.setComparisonMode(comparing);
+        }
+    }
+
+    /**
+     * Prices {@code amount} in every currency of the list, in one pass over the fee
+     * columns, and formats the results. Like {@link #quote(float)} it does not touch the
+     * view, so it can run off the main thread.
+     */
+    public Comparison compare(float amount) {
+        long start = Metrics.COMPARE.begin();
+        try {
+            CurrencyRegistry registry = mState.registry;
+            ComparisonTable table = mComparisonTable;
+            if (table == null || table.registry != registry) {
+                table = new ComparisonTable(registry);
+                mComparisonTable = table;
+            }
+            int size = table.currencies.length;
+            float[] totals = new float[size];
+            float[] fees = new float[size];
+            table.comparison.quote(amount, totals, fees);
+            String[] totalTexts = new String[size];
+            String[] feeTexts = new String[size];
+            for (int i = 0; i < size; i++) {
+                MoneyFormat formatter = MoneyFormat.forSymbol(table.currencies[i].getSymbol());
+                totalTexts[i] = formatter.format(totals[i]);
+                feeTexts[i] = formatter.format(fees[i]);
+            }
+            return new Comparison(amount, table.currencies, totals, fees, totalTexts, feeTexts);
+        } finally {
+            Metrics.COMPARE.end(start);
+        }
+    }
+
+    /**
+     * Shows {@code comparison} on the view. Must be called on the main thread.
+     */
+    public void publishComparison(Comparison comparison) {
+        if (payPalCalcView != null && mComparing) {
+            payPalCalcView.showComparison(comparison);
+        }
+    }
+
+    /**
+     * Cache counters, for diagnostics.
+     */
+    public QuoteCache<?> getQuoteCache() {
+        return mQuoter.getCache();
+    }
+
+    /**
+     * Shows {@code quote} on the view, skipping texts that are already displayed. Must be
+     * called on the main thread.
+     */
+    public void publishQuote(Quote quote) {
+        if (payPalCalcView != null) {
+            if (!quote.getFeeText().equals(mShownFeeText)) {
+                mShownFeeText = quote.getFeeText();
+                payPalCalcView.setTransactionTotal(mShownFeeText);
+            }
+            if (!quote.getTotalText().equals(mShownTotalText)) {
+                mShownTotalText = quote.getTotalText();
+                payPalCalcView.setAmountTotal(mShownTotalText);
+            }
+            if (!quote.getBilledText().equals(mShownBilledText)) {
+                mShownBilledText = quote.getBilledText();
+                payPalCalcView.setBilledTotal(mShownBilledText);
+            }
         }
     }
 
     public void displayPercentageChargeChange() {
         if (payPalCalcView != null) {
-            payPalCalcView.promptPercentageChargeChange(mCurrency.getPercentageCharge());
+            payPalCalcView.promptPercentageChargeChange(getCurrency().getPercentageCharge());
         }
     }
 
     public void displayAdditionalChargeChange() {
         if (payPalCalcView != null) {
-            payPalCalcView.promptAdditionalChargeChange(mCurrency.getAmountCharge());
+            payPalCalcView.promptAdditionalChargeChange(getCurrency().getAmountCharge());
         }
     }
 
     public void changePercentageCharge(float percentageCharge) {
         if (payPalCalcView != null) {
-            Currency currency = getCurrency();
-            currency.setPercentageCharge(percentageCharge);
-            setCurrency(currency);
+            setCurrency(getCurrency().withPercentageCharge(percentageCharge));
         }
     }
 
     public void changeAdditionalCharge(float additionalCharge) {
         if (payPalCalcView != null) {
-            Currency currency = getCurrency();
-            currency.setAmountCharge(additionalCharge);
-            setCurrency(currency);
+            setCurrency(getCurrency().withAmountCharge(additionalCharge));
+        }
+    }
+
+    /**
+     * Drops the cached quotes of every currency whose charges differ between
+     * {@code previous} and {@code current}, and all of them if the locale the texts were
+     * formatted in has changed.
+     */
+    private void invalidateQuotes(CurrencyRegistry previous, CurrencyRegistry current) {
+        Locale locale = Locale.getDefault();
+        if (previous.size() == 0 || !locale.equals(mQuoteLocale)) {
+            mQuoteLocale = locale;
+            mQuoter.getCache().clear();
+            return;
+        }
+        for (int i = 0; i < current.size(); i++) {
+            Currency currency = current.get(i);
+            Currency old = previous.findById(currency.getId());
+            if (old == null || changesQuotes(old, currency)) {
+                mQuoter.getCache().invalidate(currency.getId());
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if quotes priced with {@code old} are wrong for {@code current}
+     */
+    private static boolean changesQuotes(Currency old, Currency current) {
+        return Float.compare(old.getPercentageCharge(), current.getPercentageCharge()) != 0
+                || Float.compare(old.getAmountCharge(), current.getAmountCharge()) != 0
+                || !(old.getSymbol() == null ? current.getSymbol() == null : old.getSymbol().equals(current.getSymbol()));
+    }
+
+    /**
+     * What {@link #quote(float)} reads: the registry, the selected currency from it, the
+     * billing currency, {@code null} to bill in the selected one, and the exchange rates,
+     * {@code null} until they are needed and loaded. The pair plans of the registry and
+     * rates are compiled here while a billing currency is set.
+     */
+    private static final class State {
+
+        static final State EMPTY = new State(CurrencyRegistry.of(new LinkedList<Currency>()), null, null, null, null);
+
+        final CurrencyRegistry registry;
+        final Currency currency;
+        final Currency billing;
+        final FxRates rates;
+        // null unless billing and rates are set
+        final FxQuoter fxQuoter;
+
+        private State(CurrencyRegistry registry, Currency currency, Currency billing, FxRates rates,
+                      FxQuoter fxQuoter) {
+            this.registry = registry;
+            this.currency = currency;
+            this.billing = billing;
+            this.rates = rates;
+            this.fxQuoter = fxQuoter;
+        }
+
+        /**
+         * A state following {@code previous}, keeping its pair plans if the registry and
+         * rates are the same.
+         */
+        static State of(State previous, CurrencyRegistry registry, Currency currency, Currency billing,
+                        FxRates rates) {
+            FxQuoter fxQuoter = null;
+            if (billing != null && rates != null) {
+                fxQuoter = previous.fxQuoter != null && previous.registry == registry && previous.rates == rates
+                        ? previous.fxQuoter
+                        : new FxQuoter(registry.toFeeTable(), rates);
+            }
+            return new State(registry, currency, billing, rates, fxQuoter);
+        }
+    }
+
+    /**
+     * The fee columns of one registry, for {@link #compare(float)}.
+     */
+    private static final class ComparisonTable {
+
+        final CurrencyRegistry registry;
+        final Currency[] currencies;
+        final FeeComparison comparison;
+
+        ComparisonTable(CurrencyRegistry registry) {
+            this.registry = registry;
+            this.currencies = new Currency[registry.size()];
+            for (int i = 0; i < currencies.length; i++) {
+                currencies[i] = registry.get(i);
+            }
+            this.comparison = new FeeComparison(registry.toFeeTable());
         }
     }
 
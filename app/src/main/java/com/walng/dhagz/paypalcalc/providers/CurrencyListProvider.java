@@ -4,12 +4,16 @@ import android.content.Context;
 import androidx.annotation.Nullable;
 
 import com.google.gson.reflect.TypeToken;
+import com.walng.dhagz.paypalcalc.fee.FeeSnapshot;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
 import com.walng.dhagz.paypalcalc.models.Currency;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.List;
+import java.util.ListIterator;
 import java.util.Set;
 
 /**
@@ -19,47 +23,43 @@ import java.util.Set;
 public class CurrencyListProvider extends ListProvider<Currency> {
 
     private static final String TAG = "CurrencyListProvider";
-    private static CurrencyListProvider instance = null;
+    private static final String SNAPSHOT_FILE = "currencies.bin";
+    private static volatile CurrencyListProvider instance;
+
+    private final File snapshotFile;
 
     public static CurrencyListProvider getInstance(Context context) {
-        if (instance == null) {
-            instance = new CurrencyListProvider(context);
+        CurrencyListProvider provider = instance;
+        if (provider == null) {
+            synchronized (CurrencyListProvider.class) {
+                provider = instance;
+                if (provider == null) {
+                    provider = new CurrencyListProvider(context);
+                    instance = provider;
+                }
+            }
         }
-        return instance;
+        return provider;
     }
 
     public CurrencyListProvider(Context context) {
         super(context);
+        snapshotFile = new File(context.getApplicationContext().getFilesDir(), SNAPSHOT_FILE);
     }
 
-    private LinkedList<Currency> getDefaultCurrencyList() {
+    /**
+     * The built-in currencies, without reading preferences.
+     */
+    public LinkedList<Currency> getDefaultCurrencyList() {
         LinkedList<Currency> currencies = new LinkedList<>();
 
-        currencies.add(new Currency(15, "Philippine Peso", "PHP", 4.4f, 15));
-        currencies.add(new Currency(1, "Australian Dollar", "AUD", 4.4f, 0.3f));
-        currencies.add(new Currency(2, "Brazilian Real", "BRL", 4.4f, 0.6f));
-        currencies.add(new Currency(3, "Canadian Dollar", "CAD", 4.4f, 0.3f));
-        currencies.add(new Currency(4, "Czech Koruna", "CZK", 4.4f, 10));
-        currencies.add(new Currency(5, "Danish Kroner", "DKK", 4.4f, 2.6f));
-        currencies.add(new Currency(6, "Euro", "EUR", 4.4f, 0.35f));
-        currencies.add(new Currency(7, "Hong Kong Dollar", "HKD", 4.4f, 2.35f));
-        currencies.add(new Currency(8, "Hungarian Forint", "HUF", 4.4f, 90f));
-        currencies.add(new Currency(9, "Israeli New Shekel", "ILS", 4.4f, 1.2f));
-        currencies.add(new Currency(10, "Japanese Yen", "JPY", 3.9f, 40f));
-        currencies.add(new Currency(11, "Malaysian Ringgit", "MYR", 4.4f, 2f));
-        currencies.add(new Currency(12, "Mexican Peso", "MXN", 4.4f, 4f));
-        currencies.add(new Currency(13, "New Zealand Dollar", "NZD", 4.4f, 0.45f));
-        currencies.add(new Currency(14, "Norwegian Krone", "NOK", 4.4f, 2.8f));
-        currencies.add(new Currency(16, "Polish Zloty", "PLN", 4.4f, 1.35f));
-        currencies.add(new Currency(17, "Russian Ruble", "RUB", 4.4f, 10f));
-        currencies.add(new Currency(18, "Singapore Dollar", "SGD", 4.4f, 0.5f));
-        currencies.add(new Currency(19, "Swedish Krona", "SEK", 4.4f, 3.25f));
-        currencies.add(new Currency(20, "Swiss Franc", "CHF", 4.4f, 0.55f));
-        currencies.add(new Currency(21, "New Taiwan Dollar", "TWD", 4.4f, 10f));
-        currencies.add(new Currency(22, "Thai Baht", "THB", 4.4f, 11f));
-        currencies.add(new Currency(23, "Turkish Lira", "TRY", 4.4f, 0.45f));
-        currencies.add(new Currency(24, "U.K. Pounds Sterling", "GBP", 4.4f, 0.2f));
-        currencies.add(new Currency(25, "US Dollar", "USD", 4.4f, 0.3f));
+        FeeTable defaults = FeeTable.defaults();
+        for (int i = 0; i < defaults.size(); i++) {
+            if (defaults.getId(i) == FeeTable.OTHER_ID) {
+                continue;
+            }
+            currencies.add(Currency.of(defaults.getId(i)));
+        }
         currencies.add(getOtherCurrency());
 
         return currencies;
@@ -71,6 +71,13 @@ public class CurrencyListProvider extends ListProvider<Currency> {
         if (list == null) {
             return getDefaultCurrencyList();
         }
+        // Gson builds fresh objects; swap unedited ones for the shared instances
+        for (ListIterator<Currency> it = list.listIterator(); it.hasNext(); ) {
+            Currency currency = it.next();
+            if (currency != null) {
+                it.set(Currency.intern(currency));
+            }
+        }
         return list;
     }
 
@@ -86,6 +93,43 @@ public class CurrencyListProvider extends ListProvider<Currency> {
         set(null);
     }
 
+    @Nullable
+    @Override
+    protected LinkedList<Currency> readSnapshot() {
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        try {
+            FeeSnapshot snapshot = FeeSnapshot.open(snapshotFile);
+            LinkedList<Currency> currencies = new LinkedList<>();
+            for (int i = 0; i < snapshot.size(); i++) {
+                currencies.add(Currency.intern(new Currency(snapshot.getId(i),
+                        snapshot.getName(i),
+                        snapshot.getSymbol(i),
+                        snapshot.getPercentageCharge(i),
+                        snapshot.getAmountCharge(i))));
+            }
+            return currencies;
+        } catch (IOException | RuntimeException ex) {
+            // unreadable or from a newer version, fall back to the JSON entries
+            return null;
+        }
+    }
+
+    @Override
+    protected void writeSnapshot(@Nullable LinkedList<Currency> items) {
+        if (items == null) {
+            snapshotFile.delete();
+            return;
+        }
+        try {
+            FeeSnapshot.write(CurrencyRegistry.of(items).toFeeTable(), snapshotFile);
+        } catch (IOException ex) {
+            // a stale snapshot would shadow the JSON entries, so drop it
+            snapshotFile.delete();
+        }
+    }
+
     @Override
     public String getPreferenceKey() {
         return TAG;
@@ -96,16 +140,7 @@ public class CurrencyListProvider extends ListProvider<Currency> {
         return new TypeToken<LinkedList<Currency>>(){}.getType();
     }
 
-    public static Currency getCurrencyById(List<Currency> currencies, int id) {
-        for (Currency currency : currencies) {
-            if (currency.getId() == id) {
-                return currency;
-            }
-        }
-        return getOtherCurrency();
-    }
-
     public static Currency getOtherCurrency() {
-        return new Currency(0, "Custom", "", 4.4f, 0.3f);
+        return CurrencyRegistry.OTHER;
     }
 }
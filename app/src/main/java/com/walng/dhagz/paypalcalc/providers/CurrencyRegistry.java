@@ -0,0 +1,139 @@
+package com.walng.dhagz.paypalcalc.providers;
+
+import androidx.annotation.Nullable;
+
+import com.walng.dhagz.paypalcalc.fee.FeePlan;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+import com.walng.dhagz.paypalcalc.fee.IntIndex;
+import com.walng.dhagz.paypalcalc.models.Currency;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, indexed view of a currency list.
+ * <p>
+ * Lookups by id and by ISO code are O(1). Edits never modify a registry;
+ * {@link #with(Currency)} returns a copy that shares whatever indexes the edit did not
+ * affect, so a registry can be handed to other threads without locking.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class CurrencyRegistry {
+
+    /**
+     * The shared "Custom" entry returned for ids that are not registered.
+     */
+    public static final Currency OTHER = Currency.of(FeeTable.OTHER_ID);
+
+    private final Currency[] currencies;
+    private final int[] ids;
+    private final IntIndex idIndex;
+    private final Map<String, Integer> symbolIndex;
+
+    private CurrencyRegistry(Currency[] currencies, int[] ids, IntIndex idIndex,
+                             Map<String, Integer> symbolIndex) {
+        this.currencies = currencies;
+        this.ids = ids;
+        this.idIndex = idIndex;
+        this.symbolIndex = symbolIndex;
+    }
+
+    public static CurrencyRegistry of(List<Currency> currencies) {
+        Currency[] array = currencies.toArray(new Currency[0]);
+        int[] ids = new int[array.length];
+        for (int i = 0; i < array.length; i++) {
+            ids[i] = array[i].getId();
+        }
+        return new CurrencyRegistry(array, ids, new IntIndex(ids, ids.length), indexSymbols(array));
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+
+    public Currency get(int index) {
+        return currencies[index];
+    }
+
+    /**
+     * @return the position of the currency with the given id, or {@code -1}
+     */
+    public int indexOf(int id) {
+        return idIndex.get(id);
+    }
+
+    @Nullable
+    public Currency findById(int id) {
+        int index = idIndex.get(id);
+        return index < 0 ? null : currencies[index];
+    }
+
+    /**
+     * Same as {@link #findById(int)} but falls back to the shared {@link #OTHER} entry.
+     */
+    public Currency getById(int id) {
+        int index = idIndex.get(id);
+        return index < 0 ? OTHER : currencies[index];
+    }
+
+    @Nullable
+    public Currency findBySymbol(String symbol) {
+        Integer index = symbolIndex.get(symbol);
+        return index == null ? null : currencies[index];
+    }
+
+    /**
+     * Returns a registry in which {@code currency} replaces the entry with the same id, or
+     * is appended if there is none.
+     */
+    public CurrencyRegistry with(Currency currency) {
+        int index = idIndex.get(currency.getId());
+        if (index < 0) {
+            Currency[] array = Arrays.copyOf(currencies, currencies.length + 1);
+            array[currencies.length] = currency;
+            int[] newIds = Arrays.copyOf(ids, ids.length + 1);
+            newIds[ids.length] = currency.getId();
+            return new CurrencyRegistry(array, newIds, new IntIndex(newIds, newIds.length), indexSymbols(array));
+        }
+        Currency[] array = currencies.clone();
+        array[index] = currency;
+        String oldSymbol = currencies[index].getSymbol();
+        boolean sameSymbol = oldSymbol == null ? currency.getSymbol() == null : oldSymbol.equals(currency.getSymbol());
+        return new CurrencyRegistry(array, ids, idIndex, sameSymbol ? symbolIndex : indexSymbols(array));
+    }
+
+    public LinkedList<Currency> toList() {
+        return new LinkedList<>(Arrays.asList(currencies));
+    }
+
+    /**
+     * Column-oriented copy of the fees, for batch pricing with the fee engine. Scales and
+     * rounding are those of each currency's {@link Currency#getFeePlan() plan}.
+     */
+    public FeeTable toFeeTable() {
+        FeeTable.Builder builder = new FeeTable.Builder();
+        for (Currency currency : currencies) {
+            FeePlan plan = currency.getFeePlan();
+            builder.add(currency.getId(), currency.getName(), currency.getSymbol(),
+                    currency.getPercentageCharge(), currency.getAmountCharge(),
+                    plan.getScale(), plan.getRoundingMode());
+        }
+        return builder.build();
+    }
+
+    private static Map<String, Integer> indexSymbols(Currency[] currencies) {
+        Map<String, Integer> symbols = new HashMap<>(currencies.length * 2);
+        for (int i = 0; i < currencies.length; i++) {
+            String symbol = currencies[i].getSymbol();
+            if (symbol != null && !symbol.isEmpty() && !symbols.containsKey(symbol)) {
+                symbols.put(symbol, i);
+            }
+        }
+        return symbols;
+    }
+}
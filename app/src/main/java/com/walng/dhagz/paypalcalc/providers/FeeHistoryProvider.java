@@ -0,0 +1,130 @@
+package com.walng.dhagz.paypalcalc.providers;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.walng.dhagz.paypalcalc.fee.FeeHistory;
+import com.walng.dhagz.paypalcalc.fee.FeeHistoryLog;
+import com.walng.dhagz.paypalcalc.models.Currency;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Records every change of a currency's charges in an append-only {@link FeeHistoryLog},
+ * so amounts can be re-priced with the charges of their time after the currency list has
+ * been overwritten.
+ * <p>
+ * {@link #record(Currency, Currency, long)} returns immediately; the log is opened and
+ * appended to on a background thread. The first change of a currency also records the
+ * charges it had before, as in effect since the epoch.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class FeeHistoryProvider {
+
+    private static final String TAG = "FeeHistoryProvider";
+    private static final String LOG_FILE = "fee_history.bin";
+    private static volatile FeeHistoryProvider instance;
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "FeeHistory-writer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final File logFile;
+    // guarded by this
+    private FeeHistoryLog log;
+
+    public static FeeHistoryProvider getInstance(Context context) {
+        FeeHistoryProvider provider = instance;
+        if (provider == null) {
+            synchronized (FeeHistoryProvider.class) {
+                provider = instance;
+                if (provider == null) {
+                    provider = new FeeHistoryProvider(context);
+                    instance = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    public FeeHistoryProvider(Context context) {
+        logFile = new File(context.getApplicationContext().getFilesDir(), LOG_FILE);
+    }
+
+    /**
+     * Records that {@code current} replaced {@code previous} at {@code time}, if their
+     * charges differ.
+     */
+    public void record(final Currency previous, final Currency current, final long time) {
+        if (Float.compare(previous.getPercentageCharge(), current.getPercentageCharge()) == 0
+                && Float.compare(previous.getAmountCharge(), current.getAmountCharge()) == 0) {
+            return;
+        }
+        WRITER.execute(new Runnable() {
+            @Override
+            public void run() {
+                append(previous, current, time);
+            }
+        });
+    }
+
+    /**
+     * The recorded history. Opens the log on first use, so call it off the main thread.
+     *
+     * @return the history, empty if the log cannot be read
+     */
+    public synchronized FeeHistory getHistory() {
+        FeeHistoryLog log = open();
+        return log == null ? FeeHistory.empty() : log.getHistory();
+    }
+
+    private synchronized void append(Currency previous, Currency current, long time) {
+        FeeHistoryLog log = open();
+        if (log == null) {
+            return;
+        }
+        int id = current.getId();
+        try {
+            FeeHistory history = log.getHistory();
+            int row = history.indexOf(id);
+            if (row < 0) {
+                log.append(id, 0, previous.getPercentageCharge(), previous.getAmountCharge());
+            } else {
+                // the clock may have been set back since the last change
+                time = Math.max(time, history.getEffectiveFrom(history.getLatestVersion(row)));
+            }
+            log.append(id, time, current.getPercentageCharge(), current.getAmountCharge());
+        } catch (IOException ex) {
+            Log.w(TAG, "Could not record the charges of currency " + id, ex);
+        }
+    }
+
+    private FeeHistoryLog open() {
+        if (log == null) {
+            try {
+                log = FeeHistoryLog.open(logFile);
+            } catch (IOException ex) {
+                // not a history we can read; keep it for inspection and start a new one
+                Log.w(TAG, "Unreadable fee history, starting over", ex);
+                logFile.renameTo(new File(logFile.getPath() + ".bad"));
+                try {
+                    log = FeeHistoryLog.open(logFile);
+                } catch (IOException again) {
+                    Log.w(TAG, "Could not create the fee history", again);
+                }
+            }
+        }
+        return log;
+    }
+}
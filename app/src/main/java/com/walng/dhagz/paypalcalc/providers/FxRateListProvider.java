@@ -0,0 +1,232 @@
+package com.walng.dhagz.paypalcalc.providers;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+
+import com.google.gson.reflect.TypeToken;
+import com.walng.dhagz.paypalcalc.R;
+import com.walng.dhagz.paypalcalc.fee.FxRates;
+import com.walng.dhagz.paypalcalc.models.FxRate;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Exchange rates, kept next to the currency list in the same preferences.
+ * <p>
+ * The rates are also written to a text file in the app's files directory (see
+ * {@link FxRates} for the format), which is read before the preferences, so a rate file
+ * copied there replaces the saved rates. Until any rates are saved the ones bundled with
+ * the app are used, so cross-currency quotes work offline from the first start.
+ * <p>
+ * {@link #getRates()} returns the rates compiled for pricing; it is built once per list
+ * rather than on every quote. Holders of the compiled rates learn about a new list from
+ * {@link OnRatesChangedListener}.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class FxRateListProvider extends ListProvider<FxRate> {
+
+    public interface OnRatesChangedListener {
+        /**
+         * Called on the thread that set the list, after the rates were compiled.
+         */
+        void onRatesChanged(FxRates rates);
+    }
+
+    private static final String TAG = "FxRateListProvider";
+    private static final String SNAPSHOT_FILE = "fx_rates.csv";
+    private static volatile FxRateListProvider instance;
+
+    private final Context context;
+    private final File snapshotFile;
+    // written under this, rebuilt when the list is set
+    private volatile FxRates rates;
+    private volatile OnRatesChangedListener onRatesChangedListener;
+
+    public static FxRateListProvider getInstance(Context context) {
+        FxRateListProvider provider = instance;
+        if (provider == null) {
+            synchronized (FxRateListProvider.class) {
+                provider = instance;
+                if (provider == null) {
+                    provider = new FxRateListProvider(context);
+                    instance = provider;
+                }
+            }
+        }
+        return provider;
+    }
+
+    public FxRateListProvider(Context context) {
+        super(context);
+        this.context = context.getApplicationContext();
+        snapshotFile = new File(this.context.getFilesDir(), SNAPSHOT_FILE);
+    }
+
+    /**
+     * The rates bundled with the app, without reading preferences.
+     */
+    public LinkedList<FxRate> getDefaultRateList() {
+        InputStream in = context.getResources().openRawResource(R.raw.fx_rates);
+        try {
+            return toList(FxRates.parse(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (IOException ex) {
+            // ships with the app, so this only happens to a broken build; bill in the same currency only
+            return new LinkedList<>();
+        } finally {
+            close(in);
+        }
+    }
+
+    @Override
+    public LinkedList<FxRate> get() {
+        LinkedList<FxRate> list = super.get();
+        if (list == null) {
+            return getDefaultRateList();
+        }
+        return list;
+    }
+
+    @Override
+    public void set(LinkedList<FxRate> items) {
+        if (items == null) {
+            items = getDefaultRateList();
+        }
+        FxRates compiled = toFxRates(items);
+        synchronized (this) {
+            super.set(items);
+            rates = compiled;
+        }
+        OnRatesChangedListener listener = onRatesChangedListener;
+        if (listener != null) {
+            listener.onRatesChanged(compiled);
+        }
+    }
+
+    public void setOnRatesChangedListener(@Nullable OnRatesChangedListener listener) {
+        this.onRatesChangedListener = listener;
+    }
+
+    /**
+     * The current rates compiled for pricing. The first call reads them if they are not
+     * loaded yet, so call it off the main thread.
+     */
+    public synchronized FxRates getRates() {
+        if (rates == null) {
+            rates = toFxRates(get());
+        }
+        return rates;
+    }
+
+    /**
+     * The compiled rates if they are loaded, without blocking or reading anything.
+     *
+     * @return the rates, or {@code null} until {@link #getRates()} or
+     * {@link #set(LinkedList)} ran
+     */
+    @Nullable
+    public FxRates peekRates() {
+        return rates;
+    }
+
+    @Nullable
+    @Override
+    protected LinkedList<FxRate> readSnapshot() {
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(snapshotFile), StandardCharsets.UTF_8);
+            return toList(FxRates.parse(reader));
+        } catch (IOException ex) {
+            // unreadable or hand-edited badly, fall back to the JSON entries
+            return null;
+        } finally {
+            close(reader);
+        }
+    }
+
+    @Override
+    protected void writeSnapshot(@Nullable LinkedList<FxRate> items) {
+        if (items == null) {
+            snapshotFile.delete();
+            return;
+        }
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8);
+            toFxRates(items).write(writer);
+            writer.close();
+            writer = null;
+            if (!temp.renameTo(snapshotFile)) {
+                throw new IOException("Could not replace " + snapshotFile);
+            }
+        } catch (IOException ex) {
+            // a stale file would shadow the JSON entries, so drop it
+            temp.delete();
+            snapshotFile.delete();
+        } finally {
+            close(writer);
+        }
+    }
+
+    @Override
+    public String getPreferenceKey() {
+        return TAG;
+    }
+
+    @Override
+    public Type getType() {
+        return new TypeToken<LinkedList<FxRate>>(){}.getType();
+    }
+
+    /**
+     * Compiles {@code items} for pricing, skipping entries {@link FxRates} rejects.
+     */
+    public static FxRates toFxRates(List<FxRate> items) {
+        FxRates.Builder builder = new FxRates.Builder();
+        for (FxRate item : items) {
+            try {
+                builder.add(item.getSymbol(), item.getRate(), item.getSpread());
+            } catch (IllegalArgumentException ex) {
+                // a missing rate only disables quotes billed in or from that currency
+            }
+        }
+        return builder.build();
+    }
+
+    private static LinkedList<FxRate> toList(FxRates rates) {
+        LinkedList<FxRate> list = new LinkedList<>();
+        for (int i = 0; i < rates.size(); i++) {
+            list.add(new FxRate(rates.getCode(i), rates.getRate(i), rates.getSpread(i)));
+        }
+        return list;
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            // nothing left to do with it
+        }
+    }
+}
@@ -5,51 +5,269 @@ import android.content.SharedPreferences;
 import androidx.annotation.Nullable;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.walng.dhagz.paypalcalc.R;
-import com.walng.dhagz.paypalcalc.models.Currency;
+import com.walng.dhagz.paypalcalc.managers.Metrics;
 
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Persists a list in {@link SharedPreferences}, one JSON entry per item.
+ * <p>
+ * The parsed list is kept in memory, so only the first {@link #get()} reads preferences.
+ * {@link #set(LinkedList)} updates that copy immediately and schedules the write on a
+ * background thread; edits arriving within {@link #WRITE_DELAY_MS} are merged into one
+ * write, and only items whose JSON changed are written. Lists stored by older versions as
+ * a single JSON array are migrated on first read.
+ * <p>
+ * Subclasses can also keep a snapshot in a faster format by overriding
+ * {@link #readSnapshot()} and {@link #writeSnapshot(LinkedList)}; the JSON entries remain
+ * the fallback whenever the snapshot is missing or unreadable.
+ *
  * @author Dhagz
  * @since 2016-03-27
  */
 public abstract class ListProvider<D> {
 
-    private static SharedPreferences sharedPreferences;
+    /**
+     * How long {@link #set(LinkedList)} waits for further edits before writing.
+     */
+    public static final long WRITE_DELAY_MS = 300;
+
+    private static final Gson GSON = new Gson();
+
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ListProvider-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final SharedPreferences sharedPreferences;
+
+    private final Object lock = new Object();
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            writePending();
+        }
+    };
+
+    private volatile boolean loaded;
+    private volatile LinkedList<D> items;
+
+    // guarded by lock
+    private boolean writePending;
+    private LinkedList<D> pendingItems;
+    private Future<?> scheduledWrite;
+
+    // only touched on the writer thread, or under lock before the first write
+    private List<String> persistedJson;
 
     public ListProvider(Context context) {
-        sharedPreferences = context.getSharedPreferences(context.getString(R.string.shared_prefs_name), Context.MODE_PRIVATE);
+        Context application = context.getApplicationContext();
+        sharedPreferences = application.getSharedPreferences(application.getString(R.string.shared_prefs_name),
+                Context.MODE_PRIVATE);
     }
 
     public void set(LinkedList<D> items) {
-        SharedPreferences.Editor editor = sharedPreferences.edit();
-        if (items == null) {
-            editor.clear();
-        } else {
-            Gson gson = new Gson();
-            String json = gson.toJson(items);
-            editor.putString(getPreferenceKey(), json);
+        long start = Metrics.LIST_SET.begin();
+        try {
+            store(items);
+        } finally {
+            Metrics.LIST_SET.end(start);
         }
-        editor.commit();
+    }
+
+    private void store(LinkedList<D> items) {
+        synchronized (lock) {
+            this.items = items == null ? null : new LinkedList<>(items);
+            this.loaded = true;
+            pendingItems = this.items;
+            writePending = true;
+            if (scheduledWrite == null) {
+                scheduledWrite = WRITER.schedule(writeTask, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} once the list is in memory, so {@link #get()} will not read
+     * preferences
+     */
+    public boolean isLoaded() {
+        return loaded;
     }
 
     @Nullable
     public LinkedList<D> get() {
-        String json = sharedPreferences.getString(getPreferenceKey(), null);
-        if (json == null) {
-            return null;
+        long start = Metrics.LIST_GET.begin();
+        try {
+            return load();
+        } finally {
+            Metrics.LIST_GET.end(start);
+        }
+    }
+
+    private LinkedList<D> load() {
+        if (!loaded) {
+            synchronized (lock) {
+                if (!loaded) {
+                    items = read();
+                    loaded = true;
+                }
+            }
+        }
+        LinkedList<D> current = items;
+        return current == null ? null : new LinkedList<>(current);
+    }
+
+    /**
+     * Writes any pending edit now instead of waiting for {@link #WRITE_DELAY_MS}. The
+     * write still happens on the background thread.
+     */
+    public void flush() {
+        synchronized (lock) {
+            if (!writePending) {
+                return;
+            }
+            if (scheduledWrite != null) {
+                scheduledWrite.cancel(false);
+            }
+            scheduledWrite = WRITER.submit(writeTask);
         }
-        Gson gson = new Gson();
-        Type type = getType();
-        return gson.fromJson(json, type);
     }
 
     public abstract String getPreferenceKey();
 
     public abstract Type getType();
 
+    /**
+     * Reads the list from the subclass's snapshot, if it keeps one.
+     *
+     * @return the list, or {@code null} to fall back to the JSON entries
+     */
+    @Nullable
+    protected LinkedList<D> readSnapshot() {
+        return null;
+    }
+
+    /**
+     * Called on the writer thread before the JSON entries are written, so a snapshot is
+     * never older than the JSON. {@code null} means the list was cleared.
+     */
+    protected void writeSnapshot(@Nullable LinkedList<D> items) {
+    }
+
+    private LinkedList<D> read() {
+        LinkedList<D> snapshot = readSnapshot();
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        String key = getPreferenceKey();
+        Type itemType = ((ParameterizedType) getType()).getActualTypeArguments()[0];
+        int size = sharedPreferences.getInt(sizeKey(key), -1);
+        if (size >= 0) {
+            LinkedList<D> list = new LinkedList<>();
+            List<String> json = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String entry = sharedPreferences.getString(entryKey(key, i), null);
+                json.add(entry);
+                if (entry != null) {
+                    list.add(GSON.<D>fromJson(entry, itemType));
+                }
+            }
+            persistedJson = json;
+            scheduleSnapshot(list);
+            return list;
+        }
+
+        String legacyJson = sharedPreferences.getString(key, null);
+        if (legacyJson == null) {
+            return null;
+        }
+        LinkedList<D> list = GSON.fromJson(legacyJson, getType());
+        // rewrite in the per-item format
+        pendingItems = list;
+        writePending = true;
+        scheduledWrite = WRITER.submit(writeTask);
+        return list;
+    }
+
+    private void scheduleSnapshot(final LinkedList<D> list) {
+        WRITER.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeSnapshot(list);
+            }
+        });
+    }
+
+    private void writePending() {
+        LinkedList<D> items;
+        synchronized (lock) {
+            if (!writePending) {
+                return;
+            }
+            items = pendingItems;
+            writePending = false;
+            pendingItems = null;
+            scheduledWrite = null;
+        }
+
+        writeSnapshot(items);
+
+        String key = getPreferenceKey();
+        SharedPreferences.Editor editor = sharedPreferences.edit();
+        if (items == null) {
+            editor.clear();
+            persistedJson = null;
+        } else {
+            int oldSize = persistedJson != null
+                    ? persistedJson.size()
+                    : sharedPreferences.getInt(sizeKey(key), 0);
+            List<String> json = new ArrayList<>(items.size());
+            int i = 0;
+            for (D item : items) {
+                String entry = GSON.toJson(item);
+                json.add(entry);
+                if (persistedJson == null || i >= persistedJson.size() || !entry.equals(persistedJson.get(i))) {
+                    editor.putString(entryKey(key, i), entry);
+                }
+                i++;
+            }
+            for (int j = items.size(); j < oldSize; j++) {
+                editor.remove(entryKey(key, j));
+            }
+            editor.putInt(sizeKey(key), items.size());
+            editor.remove(key);
+            persistedJson = json;
+        }
+        // already off the main thread, so wait for the disk write
+        long start = Metrics.LIST_COMMIT.begin();
+        editor.commit();
+        Metrics.LIST_COMMIT.end(start);
+        Metrics.LIST_COMMITS.increment();
+    }
+
+    private static String sizeKey(String key) {
+        return key + ".size";
+    }
+
+    private static String entryKey(String key, int index) {
+        return key + "." + index;
+    }
+
 }
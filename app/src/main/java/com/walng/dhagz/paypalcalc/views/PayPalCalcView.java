@@ -1,5 +1,6 @@
 package com.walng.dhagz.paypalcalc.views;
 
+import com.walng.dhagz.paypalcalc.models.Comparison;
 import com.walng.dhagz.paypalcalc.models.Currency;
 
 import java.util.LinkedList;
@@ -12,8 +13,21 @@ import java.util.List;
 public interface PayPalCalcView {
     void populateCurrencyList(LinkedList<Currency> currencies);
 
+    /**
+     * Called when the charges of one currency already in the list change.
+     */
+    void updateCurrency(Currency currency);
+
 //    Currency selectOtherCurrency();
 
+    /**
+     * Switches between the single-currency calculator and the list comparing all
+     * currencies.
+     */
+    void setComparisonMode(boolean comparing);
+
+    void showComparison(Comparison comparison);
+
     void setTransactionAddition(String transactionAddition);
 
     void setTransactionPercentage(String transactionPercentage);
@@ -22,6 +36,12 @@ public interface PayPalCalcView {
 
     void setAmountTotal(String amountTotal);
 
+    /**
+     * Shows the amount to bill in the billing currency, see
+     * {@link com.walng.dhagz.paypalcalc.presenters.PayPalCalcPresenter#setBillingCurrency(Currency)}.
+     */
+    void setBilledTotal(String billedTotal);
+
     void promptPercentageChargeChange(float currentPercentageCharge);
 
     void promptAdditionalChargeChange(float currentAdditionalCharge);
@@ -0,0 +1,172 @@
+package com.walng.dhagz.paypalcalc.managers;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class EventPipelineTest {
+
+    /**
+     * Long enough that only explicit flushes drain the pipeline during a test.
+     */
+    private static final long NO_AUTOMATIC_FLUSH = 3600000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EventPipeline pipeline;
+
+    @After
+    public void tearDown() throws Exception {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    public void log_dropsWhenRingIsFull() throws Exception {
+        pipeline = new EventPipeline(NoOpEventSink.INSTANCE, 3, 64, NO_AUTOMATIC_FLUSH);
+        assertEquals(4, pipeline.getCapacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pipeline.log(AnalyticsEvent.custom("test", "event " + i)));
+        }
+        assertFalse(pipeline.log(AnalyticsEvent.custom("test", "overflow")));
+        assertEquals(4, pipeline.getLogged());
+        assertEquals(1, pipeline.getDropped());
+
+        pipeline.flush().get();
+        assertEquals(4, pipeline.getSent());
+        assertTrue(pipeline.log(AnalyticsEvent.custom("test", "after flush")));
+        assertEquals(1, pipeline.getDropped());
+    }
+
+    @Test
+    public void logSampled_keepsNoneAtZeroAndAllAtOne() throws Exception {
+        pipeline = new EventPipeline(NoOpEventSink.INSTANCE, 64, 64, NO_AUTOMATIC_FLUSH);
+
+        pipeline.setSampleRate(0f);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(pipeline.logSampled(AnalyticsEvent.custom("test", "sampled out")));
+        }
+        assertEquals(10, pipeline.getSampledOut());
+        assertEquals(0, pipeline.getLogged());
+
+        pipeline.setSampleRate(1f);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(pipeline.logSampled(AnalyticsEvent.custom("test", "kept")));
+        }
+        assertEquals(10, pipeline.getSampledOut());
+        assertEquals(10, pipeline.getLogged());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSampleRate_rejectsOutOfRange() throws Exception {
+        pipeline = new EventPipeline(NoOpEventSink.INSTANCE);
+        pipeline.setSampleRate(1.5f);
+    }
+
+    @Test
+    public void counter_aggregatesAndResetsOnFlush() throws Exception {
+        File file = folder.newFile("events.tsv");
+        pipeline = new EventPipeline(new FileEventSink(file), 64, 64, NO_AUTOMATIC_FLUSH);
+        EventPipeline.Counter counter = pipeline.counter("quotes");
+        assertSame(counter, pipeline.counter("quotes"));
+
+        int dense = 15;
+        int sparse = EventPipeline.Counter.DENSE_KEYS + 744;
+        for (int i = 0; i < 3; i++) {
+            counter.increment(dense);
+            counter.increment(sparse);
+        }
+        counter.add(dense, 10);
+        counter.add(sparse, 20);
+        counter.add(-1, 5);
+        assertEquals(13, counter.get(dense));
+        assertEquals(23, counter.get(sparse));
+        assertEquals(5, counter.get(-1));
+
+        pipeline.flush().get();
+        Map<String, Long> counts = readCounts(file, "quotes");
+        assertEquals(3, counts.size());
+        assertEquals(Long.valueOf(13), counts.get(Integer.toString(dense)));
+        assertEquals(Long.valueOf(23), counts.get(Integer.toString(sparse)));
+        assertEquals(Long.valueOf(5), counts.get("-1"));
+        assertEquals(0, counter.get(dense));
+        assertEquals(0, counter.get(sparse));
+        assertEquals(0, counter.get(-1));
+        assertEquals(3, pipeline.getSent());
+
+        // nothing counted since, so nothing is sent again
+        pipeline.flush().get();
+        assertEquals(3, readCounts(file, "quotes").size());
+        assertEquals(3, pipeline.getSent());
+
+        counter.increment(sparse);
+        pipeline.flush().get();
+        assertEquals(4, pipeline.getSent());
+    }
+
+    @Test
+    public void flush_splitsIntoBatchesOfBatchSize() throws Exception {
+        final List<Integer> batchSizes = new ArrayList<>();
+        pipeline = new EventPipeline(new EventSink() {
+            @Override
+            public void send(List<AnalyticsEvent> events) {
+                batchSizes.add(events.size());
+            }
+        }, 16, 3, NO_AUTOMATIC_FLUSH);
+        for (int i = 0; i < 7; i++) {
+            pipeline.log(AnalyticsEvent.custom("test", "event " + i));
+        }
+
+        pipeline.flush().get();
+        assertEquals(Arrays.asList(3, 3, 1), batchSizes);
+        assertEquals(7, pipeline.getSent());
+        assertEquals(0, pipeline.getFailed());
+    }
+
+    @Test
+    public void flush_countsFailedBatchesWhenSinkThrows() throws Exception {
+        // a directory cannot be opened for appending, so every send throws
+        pipeline = new EventPipeline(new FileEventSink(folder.newFolder("events")), 16, 4, NO_AUTOMATIC_FLUSH);
+        for (int i = 0; i < 6; i++) {
+            pipeline.log(AnalyticsEvent.custom("test", "event " + i));
+        }
+        pipeline.counter("quotes").increment(1);
+
+        pipeline.flush().get();
+        assertEquals(7, pipeline.getFailed());
+        assertEquals(0, pipeline.getSent());
+
+        // failed batches are not retried
+        pipeline.flush().get();
+        assertEquals(7, pipeline.getFailed());
+    }
+
+    /**
+     * The counts written by a {@link FileEventSink} for the counter {@code name}, by key.
+     */
+    private static Map<String, Long> readCounts(File file, String name) throws Exception {
+        Map<String, Long> counts = new HashMap<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (fields[1].equals(name) && fields[2].equals("counter")) {
+                assertNull("key flushed twice: " + line, counts.put(fields[3], Long.parseLong(fields[4])));
+            }
+        }
+        return counts;
+    }
+}
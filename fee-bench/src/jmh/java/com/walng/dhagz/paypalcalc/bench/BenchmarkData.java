@@ -0,0 +1,51 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import java.util.Random;
+
+/**
+ * Shared, seeded inputs so every suite prices the same amounts.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+final class BenchmarkData {
+
+    /**
+     * Size of the batch benchmarks.
+     */
+    static final int BATCH = 1000000;
+
+    /**
+     * Size of the rotating sample used by single-call benchmarks; a power of two so the
+     * index can be masked.
+     */
+    static final int SAMPLES = 1024;
+
+    /**
+     * Philippine Peso, the app's default currency.
+     */
+    static final int PHP_ID = 15;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Amounts in cents between 0.00 and 100,000.00.
+     */
+    static long[] minorAmounts(int count) {
+        Random random = new Random(42);
+        long[] amounts = new long[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = (long) (random.nextDouble() * 10000000L);
+        }
+        return amounts;
+    }
+
+    static double[] amounts(long[] minorAmounts) {
+        double[] amounts = new double[minorAmounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = minorAmounts[i] / 100.0;
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,105 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.walng.dhagz.paypalcalc.fee.BulkQuoter;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+import com.walng.dhagz.paypalcalc.fee.MinorUnits;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming a CSV of {@code currency,amount} rows through {@link BulkQuoter}, with both
+ * channels in memory so the score is parsing, pricing and formatting rather than disk.
+ * Scores are per row.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BulkQuoteBenchmark {
+
+    private byte[] csv;
+    private BulkQuoter quoter;
+    private MemoryChannel channel;
+
+    @Setup
+    public void setUp() {
+        FeeTable table = FeeTable.defaults();
+        long[] minorAmounts = BenchmarkData.minorAmounts(BenchmarkData.BATCH);
+        StringBuilder text = new StringBuilder("currency,amount\n");
+        for (int i = 0; i < minorAmounts.length; i++) {
+            int index = i % (table.size() - 1);
+            text.append(table.getSymbol(index)).append(',')
+                    .append(MinorUnits.toDecimal(minorAmounts[i], 2).toPlainString()).append('\n');
+        }
+        csv = text.toString().getBytes(StandardCharsets.US_ASCII);
+        quoter = new BulkQuoter(',');
+        channel = new MemoryChannel();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public long quoteCsv() throws IOException {
+        channel.reset(csv);
+        return quoter.quote(channel, channel).getRows() + channel.written;
+    }
+
+    /**
+     * Reads from a byte array and counts, but discards, what is written.
+     */
+    private static final class MemoryChannel implements ReadableByteChannel, WritableByteChannel {
+
+        private ByteBuffer input;
+        long written;
+
+        void reset(byte[] data) {
+            input = ByteBuffer.wrap(data);
+            written = 0;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!input.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(dst.remaining(), input.remaining());
+            ByteBuffer slice = input.duplicate();
+            slice.limit(slice.position() + count);
+            dst.put(slice);
+            input.position(input.position() + count);
+            return count;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int count = src.remaining();
+            src.position(src.limit());
+            written += count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
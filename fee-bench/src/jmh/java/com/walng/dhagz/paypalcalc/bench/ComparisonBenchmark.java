@@ -0,0 +1,108 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.google.gson.Gson;
+import com.walng.dhagz.paypalcalc.fee.FeeComparison;
+import com.walng.dhagz.paypalcalc.fee.FeePlan;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+import com.walng.dhagz.paypalcalc.fee.MoneyFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparing one amount across all default currencies against picking a single currency.
+ * <p>
+ * {@code compareAll} is the {@link FeeComparison} pass alone and {@code compareAllFormatted}
+ * adds the total and fee texts, as {@code PayPalCalcPresenter.compare} does.
+ * {@code singleCurrencyUpdate} is the JVM-measurable part of one spinner pick: the list's
+ * per-item JSON that {@code ListProvider} writes, the charge texts and one quote. The
+ * {@code SharedPreferences} commit that follows on the device is not included. All scores
+ * are per call.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComparisonBenchmark {
+
+    private final Gson gson = new Gson();
+    private FeeTable table;
+    private FeeComparison comparison;
+    private float[] totals;
+    private float[] fees;
+    private String[] totalTexts;
+    private String[] feeTexts;
+    private List<CurrencyRecord> currencies;
+    private float[] samples;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        Locale.setDefault(Locale.US);
+        table = FeeTable.defaults();
+        comparison = new FeeComparison(table);
+        totals = new float[table.size()];
+        fees = new float[table.size()];
+        totalTexts = new String[table.size()];
+        feeTexts = new String[table.size()];
+        currencies = new ArrayList<>();
+        for (int i = 0; i < table.size(); i++) {
+            currencies.add(new CurrencyRecord(table.getId(i), table.getName(i), table.getSymbol(i),
+                    table.getPercentageCharge(i), table.getAmountCharge(i)));
+        }
+        long[] minorSamples = BenchmarkData.minorAmounts(BenchmarkData.SAMPLES);
+        samples = new float[BenchmarkData.SAMPLES];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = minorSamples[i] / 100f;
+        }
+    }
+
+    private float next() {
+        return samples[cursor++ & (BenchmarkData.SAMPLES - 1)];
+    }
+
+    @Benchmark
+    public float[] compareAll() {
+        comparison.quote(next(), totals, fees);
+        return totals;
+    }
+
+    @Benchmark
+    public String[] compareAllFormatted() {
+        comparison.quote(next(), totals, fees);
+        for (int i = 0; i < totals.length; i++) {
+            MoneyFormat formatter = MoneyFormat.forSymbol(table.getSymbol(i));
+            totalTexts[i] = formatter.format(totals[i]);
+            feeTexts[i] = formatter.format(fees[i]);
+        }
+        return feeTexts;
+    }
+
+    @Benchmark
+    public String singleCurrencyUpdate() {
+        int row = cursor % table.size();
+        List<String> entries = new ArrayList<>(currencies.size());
+        for (CurrencyRecord currency : currencies) {
+            entries.add(gson.toJson(currency));
+        }
+        MoneyFormat formatter = MoneyFormat.forSymbol(table.getSymbol(row));
+        FeePlan plan = table.getPlan(row);
+        float amount = next();
+        float total = plan.total(amount);
+        return entries.size() + formatter.format(table.getAmountCharge(row))
+                + MoneyFormat.percent().format(table.getPercentageCharge(row))
+                + formatter.format(total) + formatter.format(total - amount);
+    }
+}
@@ -0,0 +1,126 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+import com.walng.dhagz.paypalcalc.fee.FxPlan;
+import com.walng.dhagz.paypalcalc.fee.FxQuoter;
+import com.walng.dhagz.paypalcalc.fee.FxRates;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cross-currency quotes over the default currencies, for invoices with random billing and
+ * receiving currencies.
+ * <p>
+ * {@code reparse} reads the rate file for every quote; {@code lookup} keeps the parsed
+ * rates but finds both rates by code and compiles the pair for every quote; {@code cached}
+ * uses the pair plans of {@link FxQuoter}. Batch scores are per invoice.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CrossCurrencyBenchmark {
+
+    private FeeTable table;
+    private FxRates rates;
+    private String ratesText;
+    private FxQuoter quoter;
+
+    private int[] billingRows;
+    private int[] receivingRows;
+    private double[] amounts;
+    private double[] totals;
+    private double[] costs;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        table = FeeTable.defaults();
+        Random random = new Random(42);
+        FxRates.Builder builder = new FxRates.Builder();
+        int[] rows = new int[table.size()];
+        int priced = 0;
+        for (int i = 0; i < table.size(); i++) {
+            if (!table.getSymbol(i).isEmpty()) {
+                builder.add(table.getSymbol(i), 0.5 + random.nextDouble() * 150, 4f);
+                rows[priced++] = i;
+            }
+        }
+        rates = builder.build();
+        StringWriter text = new StringWriter();
+        rates.write(text);
+        ratesText = text.toString();
+        quoter = new FxQuoter(table, rates);
+
+        billingRows = new int[BenchmarkData.BATCH];
+        receivingRows = new int[BenchmarkData.BATCH];
+        for (int i = 0; i < BenchmarkData.BATCH; i++) {
+            billingRows[i] = rows[random.nextInt(priced)];
+            receivingRows[i] = rows[random.nextInt(priced)];
+        }
+        amounts = BenchmarkData.amounts(BenchmarkData.minorAmounts(BenchmarkData.BATCH));
+        totals = new double[BenchmarkData.BATCH];
+        costs = new double[BenchmarkData.BATCH];
+    }
+
+    private FxPlan lookUp(FxRates rates, int billingRow, int receivingRow) {
+        int billing = rates.indexOf(table.getSymbol(billingRow));
+        int receiving = rates.indexOf(table.getSymbol(receivingRow));
+        return FxPlan.of(table.getPlan(receivingRow), rates.crossRate(receiving, billing),
+                rates.getSpread(receiving));
+    }
+
+    @Benchmark
+    public float singleReparse() throws IOException {
+        int i = cursor++ & (BenchmarkData.SAMPLES - 1);
+        FxRates parsed = FxRates.parse(new StringReader(ratesText));
+        return lookUp(parsed, billingRows[i], receivingRows[i]).total((float) amounts[i]);
+    }
+
+    @Benchmark
+    public float singleLookup() {
+        int i = cursor++ & (BenchmarkData.SAMPLES - 1);
+        return lookUp(rates, billingRows[i], receivingRows[i]).total((float) amounts[i]);
+    }
+
+    @Benchmark
+    public float singleCached() {
+        int i = cursor++ & (BenchmarkData.SAMPLES - 1);
+        return quoter.getPlan(billingRows[i], receivingRows[i]).total((float) amounts[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchLookup() {
+        for (int i = 0; i < BenchmarkData.BATCH; i++) {
+            FxPlan plan = lookUp(rates, billingRows[i], receivingRows[i]);
+            float amount = (float) amounts[i];
+            float total = plan.total(amount);
+            totals[i] = total;
+            costs[i] = total - (float) (amount * plan.getRate());
+        }
+        return totals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchCached() {
+        quoter.quote(billingRows, receivingRows, amounts, 0, BenchmarkData.BATCH, totals, costs);
+        return totals;
+    }
+}
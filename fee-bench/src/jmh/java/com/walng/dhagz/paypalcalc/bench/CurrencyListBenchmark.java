@@ -0,0 +1,85 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.walng.dhagz.paypalcalc.fee.FeeSnapshot;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing the currency list the way {@code ListProvider.get/set} does: the original
+ * single JSON array, the per-item JSON entries, and the binary {@link FeeSnapshot}.
+ * {@code SharedPreferences} itself needs Android, so these measure the encode and decode
+ * work around it.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CurrencyListBenchmark {
+
+    private static final Type LIST_TYPE = new TypeToken<LinkedList<CurrencyRecord>>() {
+    }.getType();
+
+    private final Gson gson = new Gson();
+    private FeeTable table;
+    private LinkedList<CurrencyRecord> currencies;
+
+    @Setup
+    public void setUp() {
+        table = FeeTable.defaults();
+        currencies = new LinkedList<>();
+        for (int i = 0; i < table.size(); i++) {
+            currencies.add(new CurrencyRecord(table.getId(i), table.getName(i), table.getSymbol(i),
+                    table.getPercentageCharge(i), table.getAmountCharge(i)));
+        }
+    }
+
+    @Benchmark
+    public LinkedList<CurrencyRecord> jsonArrayRoundTrip() {
+        String json = gson.toJson(currencies);
+        return gson.fromJson(json, LIST_TYPE);
+    }
+
+    @Benchmark
+    public LinkedList<CurrencyRecord> jsonEntriesRoundTrip() {
+        List<String> entries = new ArrayList<>(currencies.size());
+        for (CurrencyRecord currency : currencies) {
+            entries.add(gson.toJson(currency));
+        }
+        LinkedList<CurrencyRecord> list = new LinkedList<>();
+        for (String entry : entries) {
+            list.add(gson.fromJson(entry, CurrencyRecord.class));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public LinkedList<CurrencyRecord> snapshotRoundTrip() throws IOException {
+        ByteBuffer data = FeeSnapshot.encode(table);
+        FeeSnapshot snapshot = FeeSnapshot.wrap(data);
+        LinkedList<CurrencyRecord> list = new LinkedList<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            list.add(new CurrencyRecord(snapshot.getId(i), snapshot.getName(i), snapshot.getSymbol(i),
+                    snapshot.getPercentageCharge(i), snapshot.getAmountCharge(i)));
+        }
+        return list;
+    }
+}
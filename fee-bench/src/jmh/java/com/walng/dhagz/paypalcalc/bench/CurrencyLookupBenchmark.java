@@ -0,0 +1,98 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving a currency id: the linear scan of {@code CurrencyListProvider.getCurrencyById}
+ * over the stored {@link LinkedList} against the hashed index of {@link FeeTable}. Batch
+ * scores are per lookup.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CurrencyLookupBenchmark {
+
+    private FeeTable table;
+    private LinkedList<CurrencyRecord> currencies;
+    private CurrencyRecord other;
+
+    private int[] ids;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        table = FeeTable.defaults();
+        currencies = new LinkedList<>();
+        for (int i = 0; i < table.size(); i++) {
+            currencies.add(new CurrencyRecord(table.getId(i), table.getName(i), table.getSymbol(i),
+                    table.getPercentageCharge(i), table.getAmountCharge(i)));
+        }
+        other = currencies.getLast();
+
+        // mostly known ids, with some misses that fall through to "Custom"
+        Random random = new Random(42);
+        ids = new int[BenchmarkData.BATCH];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt(30);
+        }
+    }
+
+    private int next() {
+        return ids[cursor++ & (BenchmarkData.SAMPLES - 1)];
+    }
+
+    private CurrencyRecord scan(int id) {
+        for (CurrencyRecord currency : currencies) {
+            if (currency.getId() == id) {
+                return currency;
+            }
+        }
+        return other;
+    }
+
+    @Benchmark
+    public CurrencyRecord singleLinearScan() {
+        return scan(next());
+    }
+
+    @Benchmark
+    public int singleIndexed() {
+        return table.indexOf(next());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public int batchLinearScan() {
+        int hash = 0;
+        for (int id : ids) {
+            hash += scan(id).getId();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public int batchIndexed() {
+        int hash = 0;
+        for (int id : ids) {
+            hash += table.indexOf(id);
+        }
+        return hash;
+    }
+}
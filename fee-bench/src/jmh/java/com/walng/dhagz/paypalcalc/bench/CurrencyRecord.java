@@ -0,0 +1,29 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+/**
+ * Same fields as the app's {@code Currency}, so Gson produces the JSON the app stores
+ * without pulling in the Android model.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+class CurrencyRecord {
+
+    private int id;
+    private String name;
+    private String symbol;
+    private float percentageCharge;
+    private float amountCharge;
+
+    CurrencyRecord(int id, String name, String symbol, float percentageCharge, float amountCharge) {
+        this.id = id;
+        this.name = name;
+        this.symbol = symbol;
+        this.percentageCharge = percentageCharge;
+        this.amountCharge = amountCharge;
+    }
+
+    int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,177 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.walng.dhagz.paypalcalc.fee.BatchQuoter;
+import com.walng.dhagz.paypalcalc.fee.FeeEngine;
+import com.walng.dhagz.paypalcalc.fee.FeePlan;
+import com.walng.dhagz.paypalcalc.fee.FeeSolver;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The gross-up calculation behind {@code PayPalCalcPresenter.onAmountChanged}, one amount
+ * at a time and in batches, and the other {@link FeeSolver} modes in batches. Batch scores
+ * are per amount.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeeCalculationBenchmark {
+
+    private float percent;
+    private float additional;
+    private long ratePpm;
+    private long additionalMinor;
+    private RoundingMode roundingMode;
+    private FeePlan plan;
+    private BatchQuoter quoter;
+    private FeeSolver net;
+    private FeeSolver split;
+
+    private float[] samples;
+    private long[] minorSamples;
+    private int cursor;
+
+    private double[] amounts;
+    private long[] minorAmounts;
+    private double[] totals;
+    private double[] fees;
+    private long[] minorTotals;
+    private long[] minorFees;
+
+    @Setup
+    public void setUp() {
+        FeeTable table = FeeTable.defaults();
+        int row = table.indexOf(BenchmarkData.PHP_ID);
+        percent = table.getPercentageCharge(row);
+        additional = table.getAmountCharge(row);
+        ratePpm = table.getRatePpm(row);
+        additionalMinor = table.getAmountChargeMinor(row);
+        roundingMode = table.getRoundingMode(row);
+        plan = table.getPlan(row);
+        quoter = new BatchQuoter(table);
+        net = FeeSolver.net(plan);
+        split = FeeSolver.split(plan, 50);
+
+        minorSamples = BenchmarkData.minorAmounts(BenchmarkData.SAMPLES);
+        samples = new float[BenchmarkData.SAMPLES];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = minorSamples[i] / 100f;
+        }
+
+        minorAmounts = BenchmarkData.minorAmounts(BenchmarkData.BATCH);
+        amounts = BenchmarkData.amounts(minorAmounts);
+        totals = new double[BenchmarkData.BATCH];
+        fees = new double[BenchmarkData.BATCH];
+        minorTotals = new long[BenchmarkData.BATCH];
+        minorFees = new long[BenchmarkData.BATCH];
+    }
+
+    private int next() {
+        return cursor++ & (BenchmarkData.SAMPLES - 1);
+    }
+
+    @Benchmark
+    public float singleFloat() {
+        return FeeEngine.total(samples[next()], percent, additional);
+    }
+
+    @Benchmark
+    public float singleFloatPlan() {
+        return plan.total(samples[next()]);
+    }
+
+    @Benchmark
+    public long singleMinor() {
+        return FeeEngine.totalMinor(minorSamples[next()], ratePpm, additionalMinor, roundingMode);
+    }
+
+    @Benchmark
+    public long singleMinorPlan() {
+        return plan.totalMinor(minorSamples[next()]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchFloat() {
+        FeeEngine.quote(amounts, 0, amounts.length, percent, additional, totals, fees);
+        return totals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchFloatPlan() {
+        plan.quote(amounts, 0, amounts.length, totals, fees);
+        return totals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchFloatParallel() {
+        quoter.quoteParallel(BenchmarkData.PHP_ID, amounts, totals, fees);
+        return totals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public long[] batchMinor() {
+        FeeEngine.quoteMinor(minorAmounts, 0, minorAmounts.length, ratePpm, additionalMinor, roundingMode,
+                minorTotals, minorFees);
+        return minorTotals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public long[] batchMinorPlan() {
+        plan.quoteMinor(minorAmounts, 0, minorAmounts.length, minorTotals, minorFees);
+        return minorTotals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public long[] batchMinorParallel() {
+        quoter.quoteExactParallel(BenchmarkData.PHP_ID, minorAmounts, minorTotals, minorFees);
+        return minorTotals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchNetFloat() {
+        net.quote(amounts, 0, amounts.length, totals, fees);
+        return totals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchSplitFloat() {
+        split.quote(amounts, 0, amounts.length, totals, fees);
+        return totals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public long[] batchNetMinor() {
+        net.quoteMinor(minorAmounts, 0, minorAmounts.length, minorTotals, minorFees);
+        return minorTotals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public long[] batchSplitMinor() {
+        split.quoteMinor(minorAmounts, 0, minorAmounts.length, minorTotals, minorFees);
+        return minorTotals;
+    }
+}
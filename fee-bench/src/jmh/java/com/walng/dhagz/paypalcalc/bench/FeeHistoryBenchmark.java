@@ -0,0 +1,120 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.walng.dhagz.paypalcalc.fee.FeeHistory;
+import com.walng.dhagz.paypalcalc.fee.FeePlan;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-pricing a year of transactions with the charges in effect at their time, over the
+ * default currencies with a few charge changes each.
+ * <p>
+ * {@code treeMap} keeps one {@link TreeMap} of plans per currency id and looks up both
+ * per transaction; {@code history} binary-searches the columns of {@link FeeHistory} with
+ * the currency rows resolved beforehand. Batch scores are per transaction.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeeHistoryBenchmark {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long YEAR_START = 1735689600000L;
+
+    private FeeHistory history;
+    private Map<Integer, TreeMap<Long, FeePlan>> plans;
+
+    private int[] ids;
+    private int[] rows;
+    private long[] times;
+    private double[] amounts;
+    private double[] totals;
+    private double[] fees;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        FeeTable table = FeeTable.defaults();
+        Random random = new Random(42);
+        history = FeeHistory.empty();
+        plans = new HashMap<>();
+        for (int i = 0; i < table.size(); i++) {
+            int id = table.getId(i);
+            float percent = table.getPercentageCharge(i);
+            float amount = table.getAmountCharge(i);
+            TreeMap<Long, FeePlan> versions = new TreeMap<>();
+            plans.put(id, versions);
+            long time = 0;
+            // about one change a quarter
+            while (time < YEAR_START + 365 * DAY) {
+                history = history.append(id, time, percent, amount);
+                versions.put(time, FeePlan.of(percent, amount, table.getScale(i), table.getRoundingMode(i)));
+                time = Math.max(time, YEAR_START) + (long) (random.nextDouble() * 180 * DAY);
+                percent = 3 + random.nextInt(20) / 10f;
+                amount = amount * (0.9f + random.nextFloat() * 0.2f);
+            }
+        }
+
+        ids = new int[BenchmarkData.BATCH];
+        rows = new int[BenchmarkData.BATCH];
+        times = new long[BenchmarkData.BATCH];
+        for (int i = 0; i < BenchmarkData.BATCH; i++) {
+            ids[i] = table.getId(random.nextInt(table.size()));
+            rows[i] = history.indexOf(ids[i]);
+            // in time order, as a year's statement would be
+            times[i] = YEAR_START + (long) i * (365 * DAY / BenchmarkData.BATCH);
+        }
+        amounts = BenchmarkData.amounts(BenchmarkData.minorAmounts(BenchmarkData.BATCH));
+        totals = new double[BenchmarkData.BATCH];
+        fees = new double[BenchmarkData.BATCH];
+    }
+
+    @Benchmark
+    public float singleTreeMap() {
+        int i = cursor++ & (BenchmarkData.SAMPLES - 1);
+        return plans.get(ids[i]).floorEntry(times[i]).getValue().total((float) amounts[i]);
+    }
+
+    @Benchmark
+    public float singleHistory() {
+        int i = cursor++ & (BenchmarkData.SAMPLES - 1);
+        return history.total(history.versionAt(rows[i], times[i]), (float) amounts[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchTreeMap() {
+        for (int i = 0; i < BenchmarkData.BATCH; i++) {
+            FeePlan plan = plans.get(ids[i]).floorEntry(times[i]).getValue();
+            float amount = (float) amounts[i];
+            float total = plan.total(amount);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+        return totals;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public double[] batchHistory() {
+        history.quote(rows, times, amounts, 0, BenchmarkData.BATCH, totals, fees);
+        return totals;
+    }
+}
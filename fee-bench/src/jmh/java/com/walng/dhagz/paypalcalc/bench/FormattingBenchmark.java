@@ -0,0 +1,113 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.walng.dhagz.paypalcalc.fee.MoneyFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money and percentage formatting as done in {@code PayPalCalcPresenter.setCurrency}:
+ * the original per-call {@link DecimalFormat} and {@link String#format} against the cached
+ * {@link MoneyFormat}. Batch scores are per amount.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormattingBenchmark {
+
+    private static final String SYMBOL = "PHP";
+
+    private MoneyFormat money;
+    private MoneyFormat percent;
+    private DecimalFormat decimalFormat;
+
+    private float[] samples;
+    private int cursor;
+    private double[] amounts;
+    private char[] chars;
+    private StringBuffer buffer;
+    private FieldPosition position;
+
+    @Setup
+    public void setUp() {
+        Locale.setDefault(Locale.US);
+        money = MoneyFormat.forSymbol(SYMBOL);
+        percent = MoneyFormat.percent();
+        decimalFormat = new DecimalFormat(SYMBOL + " #,###,###.00", DecimalFormatSymbols.getInstance());
+
+        long[] minorSamples = BenchmarkData.minorAmounts(BenchmarkData.SAMPLES);
+        samples = new float[BenchmarkData.SAMPLES];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = minorSamples[i] / 100f;
+        }
+        amounts = BenchmarkData.amounts(BenchmarkData.minorAmounts(BenchmarkData.BATCH));
+        chars = new char[money.getMaxLength()];
+        buffer = new StringBuffer();
+        position = new FieldPosition(0);
+    }
+
+    private float next() {
+        return samples[cursor++ & (BenchmarkData.SAMPLES - 1)];
+    }
+
+    @Benchmark
+    public String singleDecimalFormat() {
+        return new DecimalFormat(SYMBOL + " #,###,###.00").format(next());
+    }
+
+    @Benchmark
+    public String singleStringFormatPercent() {
+        return String.format("%.2f%%", next() / 1000);
+    }
+
+    @Benchmark
+    public String singleMoneyFormat() {
+        return MoneyFormat.forSymbol(SYMBOL).format(next());
+    }
+
+    @Benchmark
+    public String singleMoneyFormatPercent() {
+        return percent.format(next() / 1000);
+    }
+
+    @Benchmark
+    public int singleMoneyFormatChars() {
+        return money.format(next(), chars, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public int batchDecimalFormat() {
+        int length = 0;
+        for (double amount : amounts) {
+            buffer.setLength(0);
+            length += decimalFormat.format(amount, buffer, position).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.BATCH)
+    public int batchMoneyFormatChars() {
+        int length = 0;
+        for (double amount : amounts) {
+            length += money.format(amount, chars, 0);
+        }
+        return length;
+    }
+}
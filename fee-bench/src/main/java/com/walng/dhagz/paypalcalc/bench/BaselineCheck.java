@@ -0,0 +1,194 @@
+package com.walng.dhagz.paypalcalc.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file against the checked-in baseline.
+ * <p>
+ * Usage: {@code check <results.json> <baseline.json> <tolerance>} or
+ * {@code update <results.json> <baseline.json>}; {@code update} replaces the entries of
+ * the benchmarks that ran and keeps the others. A benchmark regresses when its
+ * throughput drops (or its time per operation grows) by more than {@code tolerance},
+ * e.g. {@code 0.20} for 20%. Benchmarks present in only one of the files are reported
+ * but do not fail the check, so a filtered run can still be compared.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || ("check".equals(args[0]) && args.length < 4)) {
+            System.err.println("Usage: check <results.json> <baseline.json> <tolerance>");
+            System.err.println("       update <results.json> <baseline.json>");
+            System.exit(2);
+        }
+        Map<String, Score> results = readScores(new File(args[1]));
+        File baselineFile = new File(args[2]);
+        if ("update".equals(args[0])) {
+            // keep entries of benchmarks that were filtered out of this run
+            Map<String, Score> baseline = baselineFile.exists() ? readScores(baselineFile) : new TreeMap<String, Score>();
+            baseline.putAll(results);
+            writeBaseline(baseline, baselineFile);
+            System.out.println("Recorded " + results.size() + " baselines in " + baselineFile);
+            return;
+        }
+        List<String> regressions = compare(results, readScores(baselineFile), Double.parseDouble(args[3]));
+        if (!regressions.isEmpty()) {
+            System.err.println(regressions.size() + " benchmark(s) regressed:");
+            for (String regression : regressions) {
+                System.err.println("  " + regression);
+            }
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints one line per benchmark and returns the ones outside the tolerance.
+     */
+    static List<String> compare(Map<String, Score> results, Map<String, Score> baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score actual = entry.getValue();
+            Score expected = baseline.get(entry.getKey());
+            if (expected == null) {
+                System.out.println(String.format("%-90s %14.3f %-10s (no baseline)",
+                        entry.getKey(), actual.score, actual.unit));
+                continue;
+            }
+            // throughput: higher is better; average/sample/single-shot time: lower is better
+            double change = "thrpt".equals(actual.mode)
+                    ? expected.score / actual.score - 1
+                    : actual.score / expected.score - 1;
+            String line = String.format("%-90s %14.3f %-10s baseline %14.3f  %+7.1f%% slower",
+                    entry.getKey(), actual.score, actual.unit, expected.score, change * 100);
+            System.out.println(line);
+            if (!actual.unit.equals(expected.unit)) {
+                regressions.add(entry.getKey() + ": unit changed from " + expected.unit + " to " + actual.unit);
+            } else if (change > tolerance) {
+                regressions.add(line);
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!results.containsKey(key)) {
+                System.out.println(String.format("%-90s (not run)", key));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads either a JMH result file or a baseline written by {@code update}; both are
+     * arrays of objects with {@code benchmark}, {@code mode} and {@code params}.
+     */
+    static Map<String, Score> readScores(File file) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8);
+        try {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                JsonObject metric = run.has("primaryMetric") ? run.getAsJsonObject("primaryMetric") : run;
+                String mode = run.get("mode").getAsString();
+                scores.put(key(run, mode), new Score(mode, metric.get("score").getAsDouble(),
+                        metric.get("scoreUnit").getAsString()));
+            }
+        } finally {
+            reader.close();
+        }
+        return scores;
+    }
+
+    private static void writeBaseline(Map<String, Score> results, File file) throws IOException {
+        JsonArray runs = new JsonArray();
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            String key = entry.getKey();
+            int paramsStart = key.indexOf('{');
+            JsonObject run = new JsonObject();
+            run.addProperty("benchmark", key.substring(0, key.indexOf(' ')));
+            run.addProperty("mode", entry.getValue().mode);
+            if (paramsStart >= 0) {
+                JsonObject params = new JsonObject();
+                for (String param : key.substring(paramsStart + 1, key.length() - 1).split(",")) {
+                    int separator = param.indexOf('=');
+                    params.addProperty(param.substring(0, separator), param.substring(separator + 1));
+                }
+                run.add("params", params);
+            }
+            run.addProperty("score", round(entry.getValue().score));
+            run.addProperty("scoreUnit", entry.getValue().unit);
+            runs.add(run);
+        }
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8);
+        try {
+            gson.toJson(runs, writer);
+            writer.write('\n');
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String key(JsonObject run, String mode) {
+        StringBuilder key = new StringBuilder(run.get("benchmark").getAsString()).append(' ').append(mode);
+        if (run.has("params")) {
+            Map<String, String> params = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                params.put(param.getKey(), param.getValue().getAsString());
+            }
+            if (!params.isEmpty()) {
+                key.append(" {");
+                boolean first = true;
+                for (Map.Entry<String, String> param : params.entrySet()) {
+                    if (!first) {
+                        key.append(',');
+                    }
+                    key.append(param.getKey()).append('=').append(param.getValue());
+                    first = false;
+                }
+                key.append('}');
+            }
+        }
+        return key.toString();
+    }
+
+    private static double round(double score) {
+        // four significant digits are plenty next to the run-to-run noise
+        if (score == 0) {
+            return 0;
+        }
+        double magnitude = Math.pow(10, 3 - Math.floor(Math.log10(Math.abs(score))));
+        return Math.round(score * magnitude) / magnitude;
+    }
+
+    static final class Score {
+
+        final String mode;
+        final double score;
+        final String unit;
+
+        Score(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+/**
+ * A {@link QuoteView} that keeps the texts it is given, for the command line and tests.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class HeadlessQuoteView implements QuoteView {
+
+    private String transactionTotal = "";
+    private String amountTotal = "";
+    private String billedTotal = "";
+
+    @Override
+    public void setTransactionTotal(String transactionTotal) {
+        this.transactionTotal = transactionTotal;
+    }
+
+    @Override
+    public void setAmountTotal(String amountTotal) {
+        this.amountTotal = amountTotal;
+    }
+
+    @Override
+    public void setBilledTotal(String billedTotal) {
+        this.billedTotal = billedTotal;
+    }
+
+    public String getTransactionTotal() {
+        return transactionTotal;
+    }
+
+    public String getAmountTotal() {
+        return amountTotal;
+    }
+
+    public String getBilledTotal() {
+        return billedTotal;
+    }
+}
@@ -0,0 +1,75 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import com.walng.dhagz.paypalcalc.fee.LatencyHistogram;
+
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link QuoteLoadClient}: throughput and the latency seen by the clients.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class LoadReport {
+
+    private final long requests;
+    private final long errors;
+    private final long elapsedNanos;
+    private final LatencyHistogram latency;
+
+    public LoadReport(long requests, long errors, long elapsedNanos, LatencyHistogram latency) {
+        this.requests = requests;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Requests that failed or were not answered with 200.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRequestsPerSecond() {
+        return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Round-trip time of each request, in nanoseconds.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "requests=%d errors=%d seconds=%.3f rps=%.0f%n", requests, errors,
+                elapsedNanos / 1e9, getRequestsPerSecond()) + describe("client", latency);
+    }
+
+    /**
+     * One line with the count and percentiles of {@code histogram} in milliseconds, in the
+     * layout of the app's metrics dump.
+     */
+    public static String describe(String name, LatencyHistogram histogram) {
+        return String.format(Locale.US,
+                "%-8s n=%-8d mean=%.3f p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f",
+                name, histogram.getCount(), histogram.getMean() / 1e6,
+                millis(histogram.getPercentile(50)), millis(histogram.getPercentile(90)),
+                millis(histogram.getPercentile(99)), millis(histogram.getPercentile(99.9)),
+                millis(histogram.getMax()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
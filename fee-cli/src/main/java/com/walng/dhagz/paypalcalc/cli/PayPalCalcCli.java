@@ -0,0 +1,162 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+import com.walng.dhagz.paypalcalc.fee.MoneyFormat;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line entry point for quoting without the app.
+ * <pre>
+ * currencies                          list the currencies and their charges
+ * quote CURRENCY AMOUNT [BILLING]     price one amount, as the calculator screen shows it
+ * batch CURRENCY                      price one amount per line of stdin
+ * serve [PORT]                        serve quotes over HTTP on localhost, see QuoteServer
+ * load [REQUESTS] [CLIENTS] [URL]     load-test a server, or one started in-process
+ * </pre>
+ * Currencies are given by code, e.g. {@code PHP}, or by id.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class PayPalCalcCli {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_REQUESTS = 100000;
+    private static final int DEFAULT_CLIENTS = 16;
+
+    private PayPalCalcCli() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @return the exit status: 0 on success, 1 for bad input, 2 for bad usage
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            return usage(err);
+        }
+        QuoteService service = QuoteService.defaults(Locale.US);
+        try {
+            String command = args[0];
+            if ("currencies".equals(command)) {
+                printCurrencies(service.getTable(), out);
+            } else if ("quote".equals(command) && (args.length == 3 || args.length == 4)) {
+                int currencyId = service.idOf(args[1]);
+                int billingId = args.length == 4 ? service.idOf(args[3]) : QuoteService.SAME_CURRENCY;
+                HeadlessQuoteView view = new HeadlessQuoteView();
+                QuoteService.publish(service.quote(currencyId, billingId, service.parseAmount(currencyId, args[2])), view);
+                out.println("fee    " + view.getTransactionTotal());
+                out.println("total  " + view.getAmountTotal());
+                if (billingId != QuoteService.SAME_CURRENCY) {
+                    out.println("billed " + view.getBilledTotal());
+                }
+            } else if ("batch".equals(command) && args.length == 2) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                service.quoteLines(service.idOf(args[1]), new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                        writer);
+            } else if ("serve".equals(command) && args.length <= 2) {
+                serve(service, args.length == 2 ? Integer.parseInt(args[1]) : DEFAULT_PORT, out);
+            } else if ("load".equals(command) && args.length <= 4) {
+                load(service, args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REQUESTS,
+                        args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CLIENTS,
+                        args.length > 3 ? args[3] : null, out);
+            } else {
+                return usage(err);
+            }
+            return 0;
+        } catch (IllegalArgumentException ex) {
+            // includes NumberFormatException for ports and counts
+            err.println(ex.getMessage());
+            return 1;
+        }
+    }
+
+    private static int usage(PrintStream err) {
+        err.println("Usage:");
+        err.println("  currencies");
+        err.println("  quote CURRENCY AMOUNT [BILLING]");
+        err.println("  batch CURRENCY < amounts");
+        err.println("  serve [PORT]");
+        err.println("  load [REQUESTS] [CLIENTS] [URL]");
+        return 2;
+    }
+
+    private static void printCurrencies(FeeTable table, PrintStream out) {
+        MoneyFormat percent = MoneyFormat.percent(Locale.US);
+        MoneyFormat plain = MoneyFormat.plain();
+        for (int i = 0; i < table.size(); i++) {
+            out.println(String.format(Locale.US, "%3d  %-4s %-22s %7s + %s", table.getId(i), table.getSymbol(i),
+                    table.getName(i), percent.format(table.getPercentageCharge(i)),
+                    plain.format(table.getAmountCharge(i))));
+        }
+    }
+
+    private static void serve(final QuoteService service, int port, PrintStream out) throws IOException,
+            InterruptedException {
+        final QuoteServer server = QuoteServer.start(service,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        final PrintStream log = out;
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                server.close();
+                log.println(LoadReport.describe("server", server.getLatency()));
+            }
+        }));
+        out.println("Serving quotes on http://" + hostAndPort(server) + " with "
+                + (server.isVirtualThreads() ? "virtual" : "platform") + " threads; Ctrl+C to stop");
+        Thread.currentThread().join();
+    }
+
+    private static void load(QuoteService service, int requests, int clients, String url, PrintStream out)
+            throws IOException, InterruptedException {
+        QuoteServer server = null;
+        if (url == null) {
+            server = QuoteServer.start(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            url = "http://" + hostAndPort(server);
+        }
+        try {
+            FeeTable table = service.getTable();
+            List<String> codes = new ArrayList<>();
+            for (int i = 0; i < table.size(); i++) {
+                if (!table.getSymbol(i).isEmpty()) {
+                    codes.add(table.getSymbol(i));
+                }
+            }
+            out.println("Load test of " + url + ": " + requests + " requests from " + clients + " clients"
+                    + (server == null ? "" : ", server on " + (server.isVirtualThreads() ? "virtual" : "platform")
+                    + " threads"));
+            LoadReport report = new QuoteLoadClient(url, codes.toArray(new String[0])).run(requests, clients);
+            out.println(report);
+            if (server != null) {
+                // includes the warm-up requests
+                out.println(LoadReport.describe("server", server.getLatency()));
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static String hostAndPort(QuoteServer server) {
+        InetSocketAddress address = server.getAddress();
+        return address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+}
@@ -0,0 +1,127 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import com.walng.dhagz.paypalcalc.fee.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load client for a {@link QuoteServer}'s {@code /quote} endpoint.
+ * <p>
+ * Each client thread sends one request, reads the whole response and sends the next, so
+ * connections are kept alive and the latency measured is the full round trip. Currencies
+ * and amounts are random but seeded, and one request in four is billed in another
+ * currency. The first tenth of the requests warms up the server and is not recorded.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class QuoteLoadClient {
+
+    private static final int BILLED_EVERY = 4;
+    private static final int TIMEOUT_MILLIS = 10000;
+
+    private final String baseUrl;
+    private final String[] currencies;
+
+    /**
+     * @param baseUrl    e.g. {@code http://localhost:8080}
+     * @param currencies the currency codes to quote in
+     */
+    public QuoteLoadClient(String baseUrl, String[] currencies) {
+        this.baseUrl = baseUrl;
+        this.currencies = currencies.clone();
+    }
+
+    /**
+     * Sends {@code requests} quotes from {@code concurrency} client threads, after the
+     * warm-up.
+     */
+    public LoadReport run(int requests, int concurrency) throws InterruptedException {
+        drive(Math.max(requests / 10, concurrency), concurrency, new LatencyHistogram(), new AtomicLong(), 1);
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        drive(requests, concurrency, latency, errors, 42);
+        long elapsed = System.nanoTime() - start;
+        return new LoadReport(requests, errors.get(), elapsed, latency);
+    }
+
+    private void drive(final int requests, int concurrency, final LatencyHistogram latency,
+                       final AtomicLong errors, long seed) throws InterruptedException {
+        final AtomicLong remaining = new AtomicLong(requests);
+        final CountDownLatch done = new CountDownLatch(concurrency);
+        for (int t = 0; t < concurrency; t++) {
+            final Random random = new Random(seed * 31 + t);
+            Thread client = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (remaining.getAndDecrement() > 0) {
+                            URL url = new URL(nextQuery(random));
+                            long begin = System.nanoTime();
+                            if (!send(url)) {
+                                errors.incrementAndGet();
+                            }
+                            latency.record(System.nanoTime() - begin);
+                        }
+                    } catch (IOException ex) {
+                        // a malformed URL, so every remaining request would fail the same way
+                        errors.addAndGet(Math.max(0, remaining.getAndSet(0)) + 1);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "QuoteLoadClient-" + t);
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+    }
+
+    private String nextQuery(Random random) {
+        String currency = currencies[random.nextInt(currencies.length)];
+        long cents = 100 + random.nextInt(10000000);
+        StringBuilder query = new StringBuilder(baseUrl.length() + 64)
+                .append(baseUrl).append("/quote?currency=").append(currency)
+                .append("&amount=").append(String.format(Locale.US, "%d.%02d", cents / 100, cents % 100));
+        if (random.nextInt(BILLED_EVERY) == 0) {
+            query.append("&billing=").append(currencies[random.nextInt(currencies.length)]);
+        }
+        return query.toString();
+    }
+
+    /**
+     * @return whether the server answered with 200 within the timeout
+     */
+    private static boolean send(URL url) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            int status = connection.getResponseCode();
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in != null) {
+                // reading to the end lets the connection be reused
+                byte[] buffer = new byte[512];
+                while (in.read(buffer) >= 0) {
+                    // discard
+                }
+                in.close();
+            }
+            return status == 200;
+        } catch (IOException ex) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.walng.dhagz.paypalcalc.fee.LatencyHistogram;
+import com.walng.dhagz.paypalcalc.fee.Quote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP endpoint for a {@link QuoteService}, on the JDK's built-in {@link HttpServer}.
+ * <p>
+ * Endpoints:
+ * <ul>
+ * <li>{@code GET /quote?currency=PHP&amount=1000[&billing=USD]}: one quote as JSON.</li>
+ * <li>{@code POST /batch?currency=PHP}: one amount per line of the body, answered with
+ * {@code amount,total,fee} per line, see {@link QuoteService#quoteLines}.</li>
+ * <li>{@code GET /stats}: requests served and their latency percentiles.</li>
+ * </ul>
+ * Requests are handled on virtual threads when the JVM has them (Java 21 and later), on a
+ * pool of platform threads otherwise. Every request's time from dispatch to the response
+ * being written is recorded in {@link #getLatency()}.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class QuoteServer implements Closeable {
+
+    /**
+     * Read once, when the JDK's server classes load.
+     */
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final QuoteService service;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    private QuoteServer(HttpServer server, ExecutorService executor, boolean virtualThreads,
+                        QuoteService service) {
+        this.server = server;
+        this.executor = executor;
+        this.virtualThreads = virtualThreads;
+        this.service = service;
+    }
+
+    /**
+     * Starts serving {@code service} on {@code address}; port 0 picks a free port.
+     */
+    public static QuoteServer start(QuoteService service, InetSocketAddress address) throws IOException {
+        // the server writes the headers and the body of a response separately; with Nagle's
+        // algorithm on, every keep-alive response waits about 40 ms for the client's delayed ACK
+        if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+        ExecutorService executor = newVirtualThreadExecutor();
+        boolean virtualThreads = executor != null;
+        if (executor == null) {
+            executor = newPlatformThreadExecutor();
+        }
+        HttpServer http = HttpServer.create(address, 0);
+        QuoteServer server = new QuoteServer(http, executor, virtualThreads, service);
+        http.createContext("/quote", server.new QuoteEndpoint());
+        http.createContext("/batch", server.new BatchEndpoint());
+        http.createContext("/stats", server.new StatsEndpoint());
+        http.setExecutor(executor);
+        http.start();
+        return server;
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Time spent on each request, in nanoseconds.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Requests answered with an error status.
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, looked up reflectively so the
+     * module still runs on Java 8.
+     *
+     * @return the executor, or {@code null} if the JVM has no virtual threads
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor() {
+        final AtomicInteger count = new AtomicInteger();
+        // requests only compute, so a few threads per core keep up with the dispatcher
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "QuoteServer-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Times a request and turns {@link IllegalArgumentException} into a 400 response.
+     */
+    private abstract class Endpoint implements HttpHandler {
+
+        private final String method;
+        private final String contentType;
+
+        Endpoint(String method, String contentType) {
+            this.method = method;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long start = System.nanoTime();
+            try {
+                int status = 200;
+                String body;
+                String type = contentType;
+                if (!method.equals(exchange.getRequestMethod())) {
+                    status = 405;
+                    body = "Use " + method + "\n";
+                    type = "text/plain; charset=utf-8";
+                } else {
+                    try {
+                        body = serve(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+                    } catch (IllegalArgumentException ex) {
+                        status = 400;
+                        body = ex.getMessage() + "\n";
+                        type = "text/plain; charset=utf-8";
+                    }
+                }
+                if (status != 200) {
+                    errors.incrementAndGet();
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", type);
+                exchange.sendResponseHeaders(status, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes);
+                out.close();
+            } finally {
+                exchange.close();
+                latency.record(System.nanoTime() - start);
+            }
+        }
+
+        abstract String serve(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    private final class QuoteEndpoint extends Endpoint {
+
+        QuoteEndpoint() {
+            super("GET", "application/json; charset=utf-8");
+        }
+
+        @Override
+        String serve(HttpExchange exchange, Map<String, String> query) {
+            int currencyId = service.idOf(require(query, "currency"));
+            String billing = query.get("billing");
+            int billingId = billing == null ? QuoteService.SAME_CURRENCY : service.idOf(billing);
+            float amount = service.parseAmount(currencyId, require(query, "amount"));
+            return toJson(service.quote(currencyId, billingId, amount));
+        }
+    }
+
+    private final class BatchEndpoint extends Endpoint {
+
+        BatchEndpoint() {
+            super("POST", "text/csv; charset=utf-8");
+        }
+
+        @Override
+        String serve(HttpExchange exchange, Map<String, String> query) throws IOException {
+            int currencyId = service.idOf(require(query, "currency"));
+            StringWriter out = new StringWriter();
+            service.quoteLines(currencyId,
+                    new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), out);
+            return out.toString();
+        }
+    }
+
+    private final class StatsEndpoint extends Endpoint {
+
+        StatsEndpoint() {
+            super("GET", "text/plain; charset=utf-8");
+        }
+
+        @Override
+        String serve(HttpExchange exchange, Map<String, String> query) {
+            return LoadReport.describe("server", latency) + "\n"
+                    + String.format(Locale.US, "errors=%d threads=%s cacheHits=%d cacheMisses=%d%n", errors.get(),
+                    virtualThreads ? "virtual" : "platform", service.getQuoteCache().getHits(),
+                    service.getQuoteCache().getMisses());
+        }
+    }
+
+    private static String require(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        try {
+            for (String pair : rawQuery.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    query.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"),
+                            URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+                }
+            }
+        } catch (UnsupportedEncodingException ex) {
+            throw new AssertionError(ex);
+        }
+        return query;
+    }
+
+    static String toJson(Quote quote) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"amount\":").append(quote.getAmount())
+                .append(",\"total\":").append(quote.getTotal())
+                .append(",\"fee\":").append(quote.getFee())
+                .append(",\"totalText\":");
+        appendString(json, quote.getTotalText());
+        json.append(",\"feeText\":");
+        appendString(json, quote.getFeeText());
+        json.append(",\"billedTotal\":");
+        // JSON has no NaN
+        if (Float.isNaN(quote.getBilledTotal())) {
+            json.append("null");
+        } else {
+            json.append(quote.getBilledTotal());
+        }
+        json.append(",\"billedText\":");
+        appendString(json, quote.getBilledText());
+        return json.append("}\n").toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,217 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import com.walng.dhagz.paypalcalc.fee.BatchQuoter;
+import com.walng.dhagz.paypalcalc.fee.FeeTable;
+import com.walng.dhagz.paypalcalc.fee.FxPlan;
+import com.walng.dhagz.paypalcalc.fee.FxQuoter;
+import com.walng.dhagz.paypalcalc.fee.FxRates;
+import com.walng.dhagz.paypalcalc.fee.MoneyFormat;
+import com.walng.dhagz.paypalcalc.fee.MoneyParser;
+import com.walng.dhagz.paypalcalc.fee.Quote;
+import com.walng.dhagz.paypalcalc.fee.QuoteCache;
+import com.walng.dhagz.paypalcalc.fee.Quoter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The calculator's quoting path without Android: the same {@link Quoter} as
+ * {@code PayPalCalcPresenter}, over a fixed {@link FeeTable} and {@link FxRates}.
+ * <p>
+ * Thread-safe, so one service can answer every request of a {@link QuoteServer}.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class QuoteService {
+
+    /**
+     * Billing id for amounts billed in their own currency.
+     */
+    public static final int SAME_CURRENCY = Quoter.SAME_CURRENCY;
+
+    private static final int QUOTE_CACHE_SIZE = 256;
+    private static final String RATES_RESOURCE = "/fx_rates.csv";
+    private static final String NO_EXCHANGE_RATE = "No exchange rate";
+
+    private final FeeTable table;
+    private final FxQuoter fxQuoter;
+    private final BatchQuoter batchQuoter;
+    private final Quoter quoter;
+    private final Map<String, Integer> idsByCode = new HashMap<>();
+
+    public QuoteService(FeeTable table, FxRates rates, Locale locale) {
+        this.table = table;
+        this.fxQuoter = new FxQuoter(table, rates);
+        this.batchQuoter = new BatchQuoter(table);
+        this.quoter = new Quoter(QUOTE_CACHE_SIZE, locale, NO_EXCHANGE_RATE);
+        for (int i = 0; i < table.size(); i++) {
+            if (!table.getSymbol(i).isEmpty()) {
+                idsByCode.put(table.getSymbol(i).toUpperCase(Locale.ROOT), table.getId(i));
+            }
+        }
+    }
+
+    /**
+     * The app's default fee schedule and the exchange rates it ships with.
+     */
+    public static QuoteService defaults(Locale locale) throws IOException {
+        InputStream in = QuoteService.class.getResourceAsStream(RATES_RESOURCE);
+        if (in == null) {
+            throw new IOException("Missing resource " + RATES_RESOURCE);
+        }
+        try {
+            return new QuoteService(FeeTable.defaults(),
+                    FxRates.parse(new InputStreamReader(in, StandardCharsets.UTF_8)), locale);
+        } finally {
+            in.close();
+        }
+    }
+
+    public FeeTable getTable() {
+        return table;
+    }
+
+    /**
+     * Cache counters, for diagnostics.
+     */
+    public QuoteCache<?> getQuoteCache() {
+        return quoter.getCache();
+    }
+
+    /**
+     * Resolves a currency given by its code, e.g. {@code "PHP"}, or by its id.
+     *
+     * @return the currency id
+     * @throws IllegalArgumentException if there is no such currency
+     */
+    public int idOf(String currency) {
+        Integer id = idsByCode.get(currency.trim().toUpperCase(Locale.ROOT));
+        if (id != null) {
+            return id;
+        }
+        try {
+            int parsed = Integer.parseInt(currency.trim());
+            if (table.indexOf(parsed) >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ex) {
+            // not an id either
+        }
+        throw new IllegalArgumentException("Unknown currency: " + currency);
+    }
+
+    /**
+     * Parses {@code text} as an amount in currency {@code currencyId}, e.g.
+     * {@code "1,000.50"}, rounded to the currency's minor units.
+     *
+     * @throws IllegalArgumentException if the text is not an amount
+     */
+    public float parseAmount(int currencyId, String text) {
+        MoneyParser parser = new MoneyParser('.', ',');
+        if (!MoneyParser.isValid(parser.parse(text, table.getScale(rowOf(currencyId))))) {
+            throw new IllegalArgumentException("Not an amount: " + text);
+        }
+        return parser.floatValue();
+    }
+
+    /**
+     * Prices {@code amount} in currency {@code currencyId}, billed in {@code billingId}.
+     * Like the presenter, amounts that are whole minor units are answered from the quote
+     * cache.
+     *
+     * @param billingId the billing currency, or {@link #SAME_CURRENCY}
+     * @throws IllegalArgumentException if either currency is unknown
+     */
+    public Quote quote(int currencyId, int billingId, float amount) {
+        int row = rowOf(currencyId);
+        if (billingId == SAME_CURRENCY || billingId == currencyId) {
+            return quoter.quote(currencyId, table.getSymbol(row), table.getPlan(row), amount);
+        }
+        int billingRow = rowOf(billingId);
+        FxPlan fxPlan = fxQuoter.getPlan(billingRow, row);
+        return quoter.quote(currencyId, table.getSymbol(row), table.getPlan(row), amount,
+                billingId, table.getSymbol(billingRow), fxPlan);
+    }
+
+    /**
+     * Shows {@code quote} on {@code view}, as the presenter does.
+     */
+    public static void publish(Quote quote, QuoteView view) {
+        view.setTransactionTotal(quote.getFeeText());
+        view.setAmountTotal(quote.getTotalText());
+        view.setBilledTotal(quote.getBilledText());
+    }
+
+    /**
+     * Prices one amount per line of {@code in} in currency {@code currencyId}, as one
+     * batch, and writes {@code amount,total,fee} per line to {@code out} in the plain
+     * machine-readable format. Blank lines are skipped.
+     *
+     * @return the number of amounts priced
+     * @throws IllegalArgumentException naming the first line that is not an amount, before
+     *                                  anything is written
+     */
+    public int quoteLines(int currencyId, Reader in, Writer out) throws IOException {
+        int scale = table.getScale(rowOf(currencyId));
+        MoneyParser parser = new MoneyParser('.', ',');
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        long[] minorAmounts = new long[64];
+        int count = 0;
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            int status = parser.parse(line, scale);
+            if (status == MoneyParser.EMPTY) {
+                continue;
+            }
+            if (!MoneyParser.isValid(status)) {
+                throw new IllegalArgumentException("Line " + number + ": not an amount: " + line);
+            }
+            if (count == minorAmounts.length) {
+                long[] grown = new long[count * 2];
+                System.arraycopy(minorAmounts, 0, grown, 0, count);
+                minorAmounts = grown;
+            }
+            minorAmounts[count++] = parser.getValue();
+        }
+        if (count < minorAmounts.length) {
+            long[] exact = new long[count];
+            System.arraycopy(minorAmounts, 0, exact, 0, count);
+            minorAmounts = exact;
+        }
+
+        double[] totals = new double[count];
+        double[] fees = new double[count];
+        batchQuoter.quoteParallel(currencyId, minorAmounts, totals, fees);
+
+        MoneyFormat plain = MoneyFormat.plain();
+        StringBuilder text = new StringBuilder(64);
+        for (int i = 0; i < count; i++) {
+            text.setLength(0);
+            plain.formatMinor(minorAmounts[i], scale, text).append(',');
+            plain.format(totals[i], text).append(',');
+            plain.format(fees[i], text).append('\n');
+            out.append(text);
+        }
+        out.flush();
+        return count;
+    }
+
+    private int rowOf(int currencyId) {
+        int row = table.indexOf(currencyId);
+        if (row < 0) {
+            throw new IllegalArgumentException("Unknown currency id: " + currencyId);
+        }
+        return row;
+    }
+}
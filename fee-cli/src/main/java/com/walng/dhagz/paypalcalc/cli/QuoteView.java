@@ -0,0 +1,28 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+/**
+ * The quote outputs of the app's {@code PayPalCalcView}, for front-ends without Android.
+ * <p>
+ * The methods and their texts are those the presenter publishes a quote with, so a
+ * headless front-end shows exactly what the calculator screen would.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public interface QuoteView {
+
+    /**
+     * The fee to add to the amount.
+     */
+    void setTransactionTotal(String transactionTotal);
+
+    /**
+     * The amount plus the fee.
+     */
+    void setAmountTotal(String amountTotal);
+
+    /**
+     * The total converted to the billing currency.
+     */
+    void setBilledTotal(String billedTotal);
+}
@@ -0,0 +1,53 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class PayPalCalcCliTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(String... args) throws Exception {
+        return PayPalCalcCli.run(args, new PrintStream(out, true, "UTF-8"), new PrintStream(err, true, "UTF-8"));
+    }
+
+    @Test
+    public void run_printsQuoteAndReturnsZero() throws Exception {
+        assertEquals(0, run("quote", "PHP", "1000", "USD"));
+        String printed = out.toString("UTF-8");
+        assertTrue(printed, printed.contains("fee    PHP 61.72"));
+        assertTrue(printed, printed.contains("total  PHP 1,061.72"));
+        assertTrue(printed, printed.contains("billed USD 19.13"));
+        assertEquals("", err.toString("UTF-8"));
+    }
+
+    @Test
+    public void run_listsCurrencies() throws Exception {
+        assertEquals(0, run("currencies"));
+        assertTrue(out.toString("UTF-8").contains("PHP  Philippine Peso"));
+    }
+
+    @Test
+    public void run_returnsOneForBadInput() throws Exception {
+        assertEquals(1, run("quote", "PHP", "abc"));
+        assertEquals("Not an amount: abc", err.toString("UTF-8").trim());
+        err.reset();
+        assertEquals(1, run("quote", "XYZ", "1"));
+        assertEquals("Unknown currency: XYZ", err.toString("UTF-8").trim());
+        assertEquals("", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void run_returnsTwoForBadUsage() throws Exception {
+        assertEquals(2, run());
+        assertEquals(2, run("quote", "PHP"));
+        assertEquals(2, run("convert", "PHP", "1"));
+        assertTrue(err.toString("UTF-8").startsWith("Usage:"));
+        assertEquals("", out.toString("UTF-8"));
+    }
+}
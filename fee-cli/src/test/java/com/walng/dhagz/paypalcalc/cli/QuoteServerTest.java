@@ -0,0 +1,49 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import com.walng.dhagz.paypalcalc.fee.Quote;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class QuoteServerTest {
+
+    @Test
+    public void parseQuery_decodesPairs() throws Exception {
+        Map<String, String> query = QuoteServer.parseQuery("currency=PHP&amount=1%2C000.50&note=a+b&empty=&=x&flag");
+        assertEquals("PHP", query.get("currency"));
+        assertEquals("1,000.50", query.get("amount"));
+        assertEquals("a b", query.get("note"));
+        assertEquals("", query.get("empty"));
+        assertFalse(query.containsKey(""));
+        assertFalse(query.containsKey("flag"));
+        assertEquals(4, query.size());
+    }
+
+    @Test
+    public void parseQuery_acceptsNoQuery() throws Exception {
+        assertTrue(QuoteServer.parseQuery(null).isEmpty());
+        assertTrue(QuoteServer.parseQuery("").isEmpty());
+    }
+
+    @Test
+    public void toJson_writesNumbersAndTexts() throws Exception {
+        Quote quote = new Quote(1000f, 1061.72f, 61.72f, "PHP 1,061.72", "PHP 61.72", 19.13f, "USD 19.13");
+        assertEquals("{\"amount\":1000.0,\"total\":1061.72,\"fee\":61.72,\"totalText\":\"PHP 1,061.72\","
+                + "\"feeText\":\"PHP 61.72\",\"billedTotal\":19.13,\"billedText\":\"USD 19.13\"}\n",
+                QuoteServer.toJson(quote));
+    }
+
+    @Test
+    public void toJson_writesNaNAsNullAndEscapesTexts() throws Exception {
+        Quote quote = new Quote(1f, 2f, 1f, "say \"hi\"", "C:\\fees", Float.NaN, "line\nbreak\ttab");
+        String json = QuoteServer.toJson(quote);
+        assertTrue(json, json.contains("\"totalText\":\"say \\\"hi\\\"\""));
+        assertTrue(json, json.contains("\"feeText\":\"C:\\\\fees\""));
+        assertTrue(json, json.contains("\"billedTotal\":null"));
+        assertTrue(json, json.contains("\"billedText\":\"line\\u000abreak\\u0009tab\""));
+        assertFalse(json, json.contains("NaN"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.walng.dhagz.paypalcalc.cli;
+
+import com.walng.dhagz.paypalcalc.fee.Quote;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class QuoteServiceTest {
+
+    private static final int PHP = 15;
+    private static final int USD = 25;
+
+    private QuoteService service;
+
+    @Before
+    public void setUp() throws Exception {
+        service = QuoteService.defaults(Locale.US);
+    }
+
+    @Test
+    public void idOf_acceptsCodesAndIds() throws Exception {
+        assertEquals(PHP, service.idOf("PHP"));
+        assertEquals(PHP, service.idOf(" php "));
+        assertEquals(PHP, service.idOf("15"));
+        try {
+            service.idOf("XYZ");
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertEquals("Unknown currency: XYZ", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void parseAmount_readsGroupedAmounts() throws Exception {
+        assertEquals(1000f, service.parseAmount(PHP, "1000"), 0);
+        assertEquals(1234.5f, service.parseAmount(PHP, "1,234.50"), 0);
+        assertEquals(0.01f, service.parseAmount(USD, "0.01"), 0);
+        try {
+            service.parseAmount(PHP, "12abc");
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertEquals("Not an amount: 12abc", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void quote_formatsAndBills() throws Exception {
+        Quote quote = service.quote(PHP, QuoteService.SAME_CURRENCY, 1000);
+        assertEquals("PHP 1,061.72", quote.getTotalText());
+        assertEquals("PHP 61.72", quote.getFeeText());
+        assertEquals(quote.getTotal(), quote.getBilledTotal(), 0);
+        assertSame(quote, service.quote(PHP, PHP, 1000));
+
+        Quote billed = service.quote(PHP, USD, 1000);
+        assertEquals("PHP 1,061.72", billed.getTotalText());
+        assertEquals("USD 19.13", billed.getBilledText());
+
+        Quote noRate = service.quote(PHP, 0, 1000);
+        assertTrue(Float.isNaN(noRate.getBilledTotal()));
+        assertEquals("No exchange rate", noRate.getBilledText());
+    }
+
+    @Test
+    public void quoteLines_skipsBlankLinesAndWritesPlainCsv() throws Exception {
+        StringWriter out = new StringWriter();
+        int count = service.quoteLines(PHP, new StringReader("1000\n\n1,234.5\n  \n0.01\n"), out);
+        assertEquals(3, count);
+        assertEquals("1000.00,1061.72,61.72\n1234.50,1307.01,72.51\n0.01,15.70,15.69\n", out.toString());
+    }
+
+    @Test
+    public void quoteLines_namesTheBadLineBeforeWriting() throws Exception {
+        StringWriter out = new StringWriter();
+        try {
+            service.quoteLines(PHP, new StringReader("1000\n\nten\n5\n"), out);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertEquals("Line 3: not an amount: ten", ex.getMessage());
+        }
+        assertEquals("", out.toString());
+    }
+}
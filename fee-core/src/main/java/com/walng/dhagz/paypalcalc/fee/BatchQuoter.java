@@ -0,0 +1,238 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Prices arrays of amounts against a {@link FeeTable}.
+ * <p>
+ * Results are written into caller-provided arrays at the same positions as the amounts,
+ * so nothing is allocated per element. The {@code quoteParallel} variants split large
+ * batches across a {@link ForkJoinPool}; every element still gives exactly the numbers
+ * of {@link FeeEngine#total(float, float, float)}.
+ * <p>
+ * The {@code quoteExact} variants work in fixed-point minor units instead, see
+ * {@link FeeEngine#totalMinor(long, long, long, java.math.RoundingMode)}. With
+ * {@link #setVerifyExact(boolean)} each exact result is also recomputed with
+ * {@link java.math.BigDecimal}; this is for cross-checking and is much slower.
+ * <p>
+ * The {@link FeeSolver} overloads answer the other questions (net from gross, split
+ * fees) over the same batching.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class BatchQuoter {
+
+    /**
+     * Batches at or below this size are priced on the calling thread.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final FeeTable table;
+    private final ForkJoinPool pool;
+    private volatile boolean verifyExact;
+
+    public BatchQuoter(FeeTable table) {
+        this(table, ForkJoinPool.commonPool());
+    }
+
+    public BatchQuoter(FeeTable table, ForkJoinPool pool) {
+        this.table = table;
+        this.pool = pool;
+    }
+
+    public FeeTable getTable() {
+        return table;
+    }
+
+    public boolean isVerifyExact() {
+        return verifyExact;
+    }
+
+    public void setVerifyExact(boolean verifyExact) {
+        this.verifyExact = verifyExact;
+    }
+
+    public void quote(int currencyId, double[] amounts, double[] totals, double[] fees) {
+        quote(grossUp(currencyId), amounts, totals, fees);
+    }
+
+    /**
+     * Prices amounts given in minor units of the currency, see {@link FeeTable#getScale(int)}.
+     */
+    public void quote(int currencyId, long[] minorAmounts, double[] totals, double[] fees) {
+        quote(grossUp(currencyId), minorAmounts, totals, fees);
+    }
+
+    public void quoteParallel(int currencyId, double[] amounts, double[] totals, double[] fees) {
+        quoteParallel(grossUp(currencyId), amounts, totals, fees);
+    }
+
+    public void quoteParallel(int currencyId, long[] minorAmounts, double[] totals, double[] fees) {
+        quoteParallel(grossUp(currencyId), minorAmounts, totals, fees);
+    }
+
+    /**
+     * Prices minor-unit amounts into minor-unit totals and fees, using the currency's scale
+     * and rounding mode from the table.
+     *
+     * @throws ArithmeticException in verification mode, if a result differs from the
+     *                             {@link java.math.BigDecimal} reference
+     */
+    public void quoteExact(int currencyId, long[] minorAmounts, long[] totals, long[] fees) {
+        quoteExact(grossUp(currencyId), minorAmounts, totals, fees);
+    }
+
+    public void quoteExactParallel(int currencyId, long[] minorAmounts, long[] totals, long[] fees) {
+        quoteExactParallel(grossUp(currencyId), minorAmounts, totals, fees);
+    }
+
+    /**
+     * Solves {@code inputs} with any {@link FeeSolver} mode, e.g. net amounts from gross
+     * payments.
+     */
+    public void quote(FeeSolver solver, double[] inputs, double[] results, double[] fees) {
+        checkLengths(inputs.length, results, fees);
+        solver.quote(inputs, 0, inputs.length, results, fees);
+    }
+
+    public void quote(FeeSolver solver, long[] minorInputs, double[] results, double[] fees) {
+        checkLengths(minorInputs.length, results, fees);
+        solver.quote(minorInputs, 0, minorInputs.length, results, fees);
+    }
+
+    public void quoteParallel(FeeSolver solver, double[] inputs, double[] results, double[] fees) {
+        checkLengths(inputs.length, results, fees);
+        pool.invoke(new QuoteTask(inputs, null, 0, inputs.length, solver, results, fees));
+    }
+
+    public void quoteParallel(FeeSolver solver, long[] minorInputs, double[] results, double[] fees) {
+        checkLengths(minorInputs.length, results, fees);
+        pool.invoke(new QuoteTask(null, minorInputs, 0, minorInputs.length, solver, results, fees));
+    }
+
+    /**
+     * Exact minor-unit variant of {@link #quote(FeeSolver, double[], double[], double[])}.
+     *
+     * @throws ArithmeticException in verification mode, if a result differs from
+     *                             {@link FeeSolver#solveReference(long)}
+     */
+    public void quoteExact(FeeSolver solver, long[] minorInputs, long[] results, long[] fees) {
+        checkLengths(minorInputs.length, results, fees);
+        quoteExact(solver, minorInputs, 0, minorInputs.length, results, fees);
+    }
+
+    public void quoteExactParallel(FeeSolver solver, long[] minorInputs, long[] results, long[] fees) {
+        checkLengths(minorInputs.length, results, fees);
+        pool.invoke(new ExactQuoteTask(solver, minorInputs, 0, minorInputs.length, results, fees));
+    }
+
+    private void quoteExact(FeeSolver solver, long[] minorInputs, int from, int to, long[] results, long[] fees) {
+        solver.quoteMinor(minorInputs, from, to, results, fees);
+        if (verifyExact) {
+            for (int i = from; i < to; i++) {
+                long expected = solver.solveReference(minorInputs[i]).longValueExact();
+                if (results[i] != expected) {
+                    throw new ArithmeticException("Exact result " + results[i] + " differs from reference "
+                            + expected + " for input " + minorInputs[i]);
+                }
+            }
+        }
+    }
+
+    private FeeSolver grossUp(int currencyId) {
+        return FeeSolver.grossUp(table.getPlan(rowOf(currencyId)));
+    }
+
+    private int rowOf(int currencyId) {
+        int index = table.indexOf(currencyId);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown currency id: " + currencyId);
+        }
+        return index;
+    }
+
+    private static void checkLengths(int length, double[] totals, double[] fees) {
+        if (totals.length < length || fees.length < length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the input: " + length);
+        }
+    }
+
+    private static void checkLengths(int length, long[] totals, long[] fees) {
+        if (totals.length < length || fees.length < length) {
+            throw new IllegalArgumentException("Output arrays are shorter than the input: " + length);
+        }
+    }
+
+    private static class QuoteTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[] amounts;
+        private final long[] minorAmounts;
+        private final int from;
+        private final int to;
+        private final FeeSolver solver;
+        private final double[] totals;
+        private final double[] fees;
+
+        QuoteTask(double[] amounts, long[] minorAmounts, int from, int to, FeeSolver solver,
+                  double[] totals, double[] fees) {
+            this.amounts = amounts;
+            this.minorAmounts = minorAmounts;
+            this.from = from;
+            this.to = to;
+            this.solver = solver;
+            this.totals = totals;
+            this.fees = fees;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                if (amounts != null) {
+                    solver.quote(amounts, from, to, totals, fees);
+                } else {
+                    solver.quote(minorAmounts, from, to, totals, fees);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new QuoteTask(amounts, minorAmounts, from, middle, solver, totals, fees),
+                    new QuoteTask(amounts, minorAmounts, middle, to, solver, totals, fees));
+        }
+    }
+
+    private class ExactQuoteTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FeeSolver solver;
+        private final long[] minorAmounts;
+        private final int from;
+        private final int to;
+        private final long[] totals;
+        private final long[] fees;
+
+        ExactQuoteTask(FeeSolver solver, long[] minorAmounts, int from, int to, long[] totals, long[] fees) {
+            this.solver = solver;
+            this.minorAmounts = minorAmounts;
+            this.from = from;
+            this.to = to;
+            this.totals = totals;
+            this.fees = fees;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                quoteExact(solver, minorAmounts, from, to, totals, fees);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ExactQuoteTask(solver, minorAmounts, from, middle, totals, fees),
+                    new ExactQuoteTask(solver, minorAmounts, middle, to, totals, fees));
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Streams a delimited file of {@code (currency code, amount)} rows through the
+ * calculator's formula and writes each row back with its total and fee appended.
+ * <p>
+ * Each row is priced as the calculator screen prices typed input: the amount is parsed
+ * like the amount field, the total comes from {@link FeePlan#total(float)} and the fee is
+ * the difference, both written with {@link MoneyFormat#plain()}. The currency code is
+ * matched against the symbols of the {@link FeeTable}, which defaults to
+ * {@link FeeTable#defaults()}; an empty code picks the "Custom" row. A row whose currency
+ * is unknown or whose amount is not a number is written back with both fields empty and
+ * counted in {@link Summary#getErrors()}. A first line whose amount is not a number is
+ * taken for a header and gets {@code total} and {@code fee} column names.
+ * <p>
+ * The input is read in fixed-size chunks that end on a line break. Chunks are parsed,
+ * priced and formatted in parallel, straight from and into byte arrays without a
+ * {@code String} per cell, and written back in input order. At most
+ * {@link #getMaxInFlight()} chunks are held at once and their buffers are reused, so
+ * memory stays constant however large the input is. Fields may be quoted with
+ * {@code "}, so amounts with grouping separators can appear in comma-separated input.
+ * The input must be ASCII-compatible (ASCII, UTF-8 or ISO-8859-1); columns after the
+ * amount are copied through unchanged.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class BulkQuoter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private static final byte[] HEADER_TOTAL = {'t', 'o', 't', 'a', 'l'};
+    private static final byte[] HEADER_FEE = {'f', 'e', 'e'};
+
+    private final FeeTable table;
+    private final ExecutorService executor;
+    private final byte delimiter;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final IntIndex codeIndex;
+
+    /**
+     * Quotes against {@link FeeTable#defaults()} on the common pool.
+     *
+     * @param delimiter {@code ','} for CSV or {@code '\t'} for TSV
+     */
+    public BulkQuoter(char delimiter) {
+        this(FeeTable.defaults(), delimiter, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param delimiter the field delimiter, an ASCII character other than {@code "}
+     * @param executor  runs the chunk tasks; the calling thread reads and writes
+     * @param chunkSize bytes read per chunk, which bounds the longest line
+     */
+    public BulkQuoter(FeeTable table, char delimiter, ExecutorService executor, int chunkSize) {
+        if (delimiter > 0x7F || delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Unsupported delimiter: " + delimiter);
+        }
+        if (chunkSize < 16) {
+            throw new IllegalArgumentException("Chunk size too small: " + chunkSize);
+        }
+        this.table = table;
+        this.executor = executor;
+        this.delimiter = (byte) delimiter;
+        this.chunkSize = chunkSize;
+        this.maxInFlight = 2 * Math.max(1, Runtime.getRuntime().availableProcessors());
+        int[] keys = new int[table.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = codeKey(table.getSymbol(i));
+        }
+        // symbols that cannot be keyed get -1, which is never looked up
+        this.codeIndex = new IntIndex(keys, keys.length);
+    }
+
+    public FeeTable getTable() {
+        return table;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Number of chunks read ahead of the one being written.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Summary quote(File input, File output) throws IOException {
+        FileInputStream in = new FileInputStream(input);
+        try {
+            FileOutputStream out = new FileOutputStream(output);
+            try {
+                return quote(in.getChannel(), out.getChannel());
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Quotes every row of {@code input} into {@code output}. Neither channel is closed.
+     *
+     * @throws IOException if a channel fails or a line is longer than the chunk size
+     */
+    public Summary quote(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+        Summary summary = new Summary();
+        byte[] carry = new byte[chunkSize];
+        int carryLength = 0;
+        boolean first = true;
+        boolean eof = false;
+        try {
+            while (!eof) {
+                Chunk chunk = pending.size() < maxInFlight ? new Chunk(chunkSize)
+                        : write(pending.poll(), output, summary);
+                System.arraycopy(carry, 0, chunk.input, 0, carryLength);
+                ByteBuffer buffer = ByteBuffer.wrap(chunk.input);
+                buffer.position(carryLength);
+                while (buffer.hasRemaining()) {
+                    if (input.read(buffer) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                int length = buffer.position();
+                int end = length;
+                if (!eof) {
+                    end = lastLineEnd(chunk.input, length);
+                    if (end < 0) {
+                        throw new IOException("Line longer than " + chunkSize + " bytes");
+                    }
+                }
+                carryLength = length - end;
+                System.arraycopy(chunk.input, end, carry, 0, carryLength);
+                if (end == 0) {
+                    continue;
+                }
+                chunk.inputLength = end;
+                chunk.first = first;
+                first = false;
+                pending.add(executor.submit(chunk));
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), output, summary);
+            }
+        } finally {
+            for (Future<Chunk> future : pending) {
+                future.cancel(false);
+            }
+        }
+        return summary;
+    }
+
+    private static Chunk write(Future<Chunk> future, WritableByteChannel output, Summary summary)
+            throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while quoting");
+        } catch (ExecutionException ex) {
+            throw new IOException("Could not quote chunk", ex.getCause());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.output, 0, chunk.outputLength);
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        if (summary.firstErrorLine == 0 && chunk.firstErrorLine > 0) {
+            summary.firstErrorLine = summary.lines + chunk.firstErrorLine;
+        }
+        summary.lines += chunk.lines;
+        summary.rows += chunk.rows;
+        summary.errors += chunk.errors;
+        summary.header |= chunk.header;
+        return chunk;
+    }
+
+    private static int lastLineEnd(byte[] data, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (data[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Packs an ASCII currency code of up to four characters into an {@code int}, or
+     * returns {@code -1} if it cannot be packed.
+     */
+    private static int codeKey(String code) {
+        if (code.length() > 4) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < code.length(); i++) {
+            int c = upperAscii(code.charAt(i));
+            if (c <= 0 || c > 0x7F) {
+                return -1;
+            }
+            key = key << 8 | c;
+        }
+        return key;
+    }
+
+    private static int upperAscii(int c) {
+        return c >= 'a' && c <= 'z' ? c - ('a' - 'A') : c;
+    }
+
+    /**
+     * Counts for one {@link #quote} call.
+     */
+    public static final class Summary {
+
+        private long lines;
+        private long rows;
+        private long errors;
+        private long firstErrorLine;
+        private boolean header;
+
+        /**
+         * Rows read, without the header and blank lines.
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Rows written without a total and fee.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the 1-based line number of the first failed row, or {@code 0} if none
+         */
+        public long getFirstErrorLine() {
+            return firstErrorLine;
+        }
+
+        public boolean hasHeader() {
+            return header;
+        }
+    }
+
+    /**
+     * One chunk of input with its output buffer, reused once written. Only the task
+     * touches it between submission and {@link Future#get()}.
+     */
+    private final class Chunk implements Callable<Chunk> {
+
+        final byte[] input;
+        final AsciiSequence text;
+        final MoneyParser parser = new MoneyParser('.', ',');
+        final char[] digits = new char[MoneyFormat.plain().getMaxLength()];
+        int inputLength;
+        boolean first;
+        byte[] output;
+        int outputLength;
+        long lines;
+        long rows;
+        long errors;
+        long firstErrorLine;
+        boolean header;
+
+        Chunk(int size) {
+            this.input = new byte[size];
+            this.text = new AsciiSequence(input);
+            this.output = new byte[size + size / 2];
+        }
+
+        @Override
+        public Chunk call() {
+            outputLength = 0;
+            lines = 0;
+            rows = 0;
+            errors = 0;
+            firstErrorLine = 0;
+            header = false;
+            int start = 0;
+            while (start < inputLength) {
+                int end = start;
+                while (end < inputLength && input[end] != '\n') {
+                    end++;
+                }
+                int next = end + 1;
+                if (end > start && input[end - 1] == '\r') {
+                    end--;
+                }
+                lines++;
+                if (end > start) {
+                    quoteLine(start, end);
+                }
+                start = next;
+            }
+            return this;
+        }
+
+        private void quoteLine(int start, int end) {
+            int codeEnd = fieldEnd(start, end);
+            int amountStart = codeEnd < end ? codeEnd + 1 : end;
+            int amountEnd = fieldEnd(amountStart, end);
+
+            boolean parsed = parseAmount(amountStart, amountEnd);
+            int key = keyOf(start, codeEnd);
+            int index = key < 0 ? -1 : codeIndex.get(key);
+            float total = Float.NaN;
+            float fee = Float.NaN;
+            if (index >= 0 && parsed) {
+                float amount = parser.floatValue();
+                total = table.getPlan(index).total(amount);
+                fee = total - amount;
+            }
+
+            ensureOutput(end - start + 2 * digits.length + 3);
+            System.arraycopy(input, start, output, outputLength, end - start);
+            outputLength += end - start;
+            if (lines == 1 && first && !parsed) {
+                // a first line without an amount is the header
+                header = true;
+                appendField(HEADER_TOTAL);
+                appendField(HEADER_FEE);
+            } else {
+                rows++;
+                if (Float.isInfinite(total) || Float.isNaN(total)) {
+                    errors++;
+                    if (firstErrorLine == 0) {
+                        firstErrorLine = lines;
+                    }
+                    output[outputLength++] = delimiter;
+                    output[outputLength++] = delimiter;
+                } else {
+                    appendNumber(total);
+                    appendNumber(fee);
+                }
+            }
+            output[outputLength++] = '\n';
+        }
+
+        private boolean parseAmount(int start, int end) {
+            int status = parser.parse(text, unquotedStart(start, end), unquotedEnd(start, end), MinorUnits.MAX_SCALE);
+            if (status == MoneyParser.OVERFLOW) {
+                // too large for eight decimals; whole units are plenty at that size
+                status = parser.parse(text, unquotedStart(start, end), unquotedEnd(start, end), 0);
+            }
+            return MoneyParser.isValid(status);
+        }
+
+        private int keyOf(int fieldStart, int fieldEnd) {
+            int start = unquotedStart(fieldStart, fieldEnd);
+            int end = unquotedEnd(fieldStart, fieldEnd);
+            while (start < end && input[start] == ' ') {
+                start++;
+            }
+            while (end > start && input[end - 1] == ' ') {
+                end--;
+            }
+            if (end - start > 4) {
+                return -1;
+            }
+            int key = 0;
+            for (int i = start; i < end; i++) {
+                int c = upperAscii(input[i]);
+                if (c <= 0) {
+                    return -1;
+                }
+                key = key << 8 | c;
+            }
+            return key;
+        }
+
+        /**
+         * End of the field starting at {@code start}: the next delimiter outside quotes,
+         * or {@code end}.
+         */
+        private int fieldEnd(int start, int end) {
+            boolean quoted = false;
+            for (int i = start; i < end; i++) {
+                byte b = input[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == delimiter && !quoted) {
+                    return i;
+                }
+            }
+            return end;
+        }
+
+        private int unquotedStart(int start, int end) {
+            return end - start >= 2 && input[start] == '"' && input[end - 1] == '"' ? start + 1 : start;
+        }
+
+        private int unquotedEnd(int start, int end) {
+            return end - start >= 2 && input[start] == '"' && input[end - 1] == '"' ? end - 1 : end;
+        }
+
+        private void appendField(byte[] name) {
+            output[outputLength++] = delimiter;
+            System.arraycopy(name, 0, output, outputLength, name.length);
+            outputLength += name.length;
+        }
+
+        private void appendNumber(float value) {
+            output[outputLength++] = delimiter;
+            int length = MoneyFormat.plain().format(value, digits, 0);
+            for (int i = 0; i < length; i++) {
+                output[outputLength++] = (byte) digits[i];
+            }
+        }
+
+        private void ensureOutput(int extra) {
+            if (outputLength + extra > output.length) {
+                output = Arrays.copyOf(output, Math.max(output.length * 2, outputLength + extra));
+            }
+        }
+    }
+
+    /**
+     * Read-only {@link CharSequence} over ASCII bytes, so {@link MoneyParser} can scan a
+     * field in place.
+     */
+    private static final class AsciiSequence implements CharSequence {
+
+        private final byte[] bytes;
+
+        AsciiSequence(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int length() {
+            return bytes.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, bytes.length).toString();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+/**
+ * Prices one amount in every currency of a {@link FeeTable} at once.
+ * <p>
+ * The fixed charges and gross-up multipliers of all rows are copied into two parallel
+ * arrays when the comparison is built. {@link #quote(float, float[], float[])} is then a
+ * single branch-free loop over them, one add and one multiply per currency, which the JIT
+ * can unroll and vectorize. Each result is exactly {@link FeePlan#total(float)} of the
+ * row's plan.
+ * <p>
+ * The amount is taken in each currency's own units, so the totals answer "what would
+ * this amount cost in each currency", not a conversion between them.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeComparison {
+
+    private final FeeTable table;
+    private final float[] amountCharges;
+    private final double[] multipliers;
+
+    public FeeComparison(FeeTable table) {
+        int size = table.size();
+        this.table = table;
+        this.amountCharges = new float[size];
+        this.multipliers = new double[size];
+        for (int i = 0; i < size; i++) {
+            amountCharges[i] = table.getAmountCharge(i);
+            multipliers[i] = FeePlan.reciprocalOf(table.getPercentageCharge(i));
+        }
+    }
+
+    public FeeTable getTable() {
+        return table;
+    }
+
+    public int size() {
+        return amountCharges.length;
+    }
+
+    /**
+     * Writes the total to charge and PayPal's fee for {@code amount} in row {@code i} of
+     * the table to {@code totals[i]} and {@code fees[i]}.
+     *
+     * @throws IllegalArgumentException if an array is shorter than {@link #size()}
+     */
+    public void quote(float amount, float[] totals, float[] fees) {
+        int size = amountCharges.length;
+        if (totals.length < size || fees.length < size) {
+            throw new IllegalArgumentException("Arrays must hold " + size + " rows");
+        }
+        float[] amountCharges = this.amountCharges;
+        double[] multipliers = this.multipliers;
+        for (int i = 0; i < size; i++) {
+            float total = (float) ((amount + amountCharges[i]) * multipliers[i]);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+}
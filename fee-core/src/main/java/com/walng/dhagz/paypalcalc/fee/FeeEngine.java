@@ -0,0 +1,169 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Stateless PayPal fee calculations on primitive inputs.
+ * <p>
+ * This is the gross-up formula the calculator screen uses: given the amount you want to
+ * receive, it returns the amount to charge so that PayPal's percentage and fixed fee are
+ * covered. It has no Android dependencies so it can be reused on a plain JVM.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeEngine {
+
+    /**
+     * Largest |amount| and |additional| for which {@link #totalMinor} stays in {@code long}
+     * arithmetic; beyond it the result is computed with {@link BigDecimal}.
+     */
+    private static final long MAX_EXACT_OPERAND = Long.MAX_VALUE / MinorUnits.PPM_ONE / 2;
+
+    private FeeEngine() {
+    }
+
+    /**
+     * Computes the total to charge so that {@code amount} is received after fees.
+     * <p>
+     * Uses {@code float} arithmetic in the same order as the calculator screen so both
+     * produce identical results.
+     *
+     * @param amount     the amount to receive
+     * @param percent    the percentage charge, e.g. {@code 4.4f}
+     * @param additional the fixed charge per transaction
+     * @return the total to charge
+     */
+    public static float total(float amount, float percent, float additional) {
+        return ((amount + additional) / ((100 - percent) / 100));
+    }
+
+    /**
+     * Computes the fee to add on top of {@code amount}, i.e. {@code total - amount}.
+     *
+     * @param amount     the amount to receive
+     * @param percent    the percentage charge, e.g. {@code 4.4f}
+     * @param additional the fixed charge per transaction
+     * @return the amount to add to cover the fees
+     */
+    public static float fee(float amount, float percent, float additional) {
+        return total(amount, percent, additional) - amount;
+    }
+
+    /**
+     * {@code double} precision variant of {@link #total(float, float, float)}.
+     */
+    public static double total(double amount, double percent, double additional) {
+        return ((amount + additional) / ((100 - percent) / 100));
+    }
+
+    /**
+     * {@code double} precision variant of {@link #fee(float, float, float)}.
+     */
+    public static double fee(double amount, double percent, double additional) {
+        return total(amount, percent, additional) - amount;
+    }
+
+    /**
+     * Prices {@code amounts[from..to)} into the same positions of {@code totals} and
+     * {@code fees}. Each element gives exactly what {@link #total(float, float, float)} and
+     * {@link #fee(float, float, float)} return for it.
+     */
+    public static void quote(double[] amounts, int from, int to, float percent, float additional,
+                             double[] totals, double[] fees) {
+        for (int i = from; i < to; i++) {
+            float amount = (float) amounts[i];
+            float total = total(amount, percent, additional);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+
+    /**
+     * Like {@link #quote(double[], int, int, float, float, double[], double[])} for amounts
+     * given in minor units (e.g. cents) of a currency with {@code scale} decimal places.
+     */
+    public static void quote(long[] minorAmounts, int from, int to, int scale, float percent, float additional,
+                             double[] totals, double[] fees) {
+        double unit = MinorUnits.pow10(scale);
+        for (int i = from; i < to; i++) {
+            float amount = (float) (minorAmounts[i] / unit);
+            float total = total(amount, percent, additional);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+
+    /**
+     * Exact fixed-point variant of {@link #total(float, float, float)}.
+     * <p>
+     * All values are in minor units of one currency and the percentage is in parts per
+     * million (see {@link MinorUnits}). The exact quotient is rounded once, with
+     * {@code roundingMode}; {@link RoundingMode#CEILING} guarantees that at least
+     * {@code amount} is received.
+     *
+     * @throws ArithmeticException if {@code ratePpm} is 100% or more
+     */
+    public static long totalMinor(long amount, long ratePpm, long additional, RoundingMode roundingMode) {
+        long denominator = MinorUnits.PPM_ONE - ratePpm;
+        checkDenominator(denominator);
+        if (!fitsExact(amount, additional)) {
+            return totalReference(amount, ratePpm, additional, roundingMode).longValueExact();
+        }
+        return MinorUnits.divide((amount + additional) * MinorUnits.PPM_ONE, denominator, roundingMode);
+    }
+
+    /**
+     * Exact fixed-point variant of {@link #fee(float, float, float)}.
+     */
+    public static long feeMinor(long amount, long ratePpm, long additional, RoundingMode roundingMode) {
+        return totalMinor(amount, ratePpm, additional, roundingMode) - amount;
+    }
+
+    /**
+     * Prices minor-unit {@code amounts[from..to)} into the same positions of {@code totals}
+     * and {@code fees}, as {@link #totalMinor(long, long, long, RoundingMode)} would.
+     */
+    public static void quoteMinor(long[] amounts, int from, int to, long ratePpm, long additional,
+                                  RoundingMode roundingMode, long[] totals, long[] fees) {
+        long denominator = MinorUnits.PPM_ONE - ratePpm;
+        checkDenominator(denominator);
+        for (int i = from; i < to; i++) {
+            long amount = amounts[i];
+            long total;
+            if (fitsExact(amount, additional)) {
+                total = MinorUnits.divide((amount + additional) * MinorUnits.PPM_ONE, denominator, roundingMode);
+            } else {
+                total = totalReference(amount, ratePpm, additional, roundingMode).longValueExact();
+            }
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+
+    /**
+     * {@link BigDecimal} reference for {@link #totalMinor(long, long, long, RoundingMode)},
+     * used to cross-check the {@code long} arithmetic.
+     */
+    public static BigDecimal totalReference(long amount, long ratePpm, long additional, RoundingMode roundingMode) {
+        long denominator = MinorUnits.PPM_ONE - ratePpm;
+        checkDenominator(denominator);
+        return BigDecimal.valueOf(amount)
+                .add(BigDecimal.valueOf(additional))
+                .multiply(BigDecimal.valueOf(MinorUnits.PPM_ONE))
+                .divide(BigDecimal.valueOf(denominator), 0, roundingMode);
+    }
+
+    private static boolean fitsExact(long amount, long additional) {
+        return amount <= MAX_EXACT_OPERAND && amount >= -MAX_EXACT_OPERAND
+                && additional <= MAX_EXACT_OPERAND && additional >= -MAX_EXACT_OPERAND;
+    }
+
+    private static void checkDenominator(long denominator) {
+        if (denominator <= 0) {
+            throw new ArithmeticException("Percentage charge must be below 100%");
+        }
+    }
+
+}
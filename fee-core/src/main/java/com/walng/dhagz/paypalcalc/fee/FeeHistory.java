@@ -0,0 +1,488 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, append-only history of the charges of each currency, for pricing amounts
+ * with the charges that applied at a given time.
+ * <p>
+ * Every version says from when on ({@code effectiveFrom}, in epoch milliseconds) a
+ * currency had a percentage and fixed charge, and holds until the next version of that
+ * currency. Versions are kept in primitive columns, grouped by currency and sorted by time
+ * within each group, so finding the version for a time is a binary search over a slice of
+ * one {@code long[]}. The gross-up multiplier of every version is computed once, and
+ * {@link #quote(int[], long[], double[], int, int, double[], double[])} prices a batch
+ * without allocating or hashing per row once the currency ids are resolved to rows with
+ * {@link #indexOf(int)}. Totals are exactly what {@link FeePlan#total(float)} returns
+ * for the version's charges.
+ * <p>
+ * {@link #append(int, long, float, float)} returns a new history and never changes a
+ * version already recorded. The binary encoding is a short header followed by one record
+ * per version:
+ * <pre>
+ * header  int magic "PPCH", short version
+ * record  varint currency id, zigzag varint effectiveFrom delta,
+ *         varint percentageCharge bits XOR previous, varint amountCharge bits XOR previous
+ * </pre>
+ * Deltas and XORs are against the previous version of the same currency (zero for its
+ * first), so a typical edit, which changes one charge a while after the last one, takes
+ * about ten bytes. Records can be appended to an encoded history one at a time, see
+ * {@link #encodeRecord(int, long, float, float)} and {@link FeeHistoryLog}.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeHistory {
+
+    public static final int MAGIC = 0x50504348;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 6;
+
+    private static final FeeHistory EMPTY = new FeeHistory(new int[0], new int[1], new long[0], new float[0],
+            new float[0]);
+
+    private final int[] ids;
+    private final IntIndex idIndex;
+    // versions of row r are [starts[r], starts[r + 1])
+    private final int[] starts;
+    private final long[] times;
+    private final float[] percentageCharges;
+    private final float[] amountCharges;
+    private final double[] multipliers;
+
+    private FeeHistory(int[] ids, int[] starts, long[] times, float[] percentageCharges, float[] amountCharges) {
+        this.ids = ids;
+        this.idIndex = new IntIndex(ids, ids.length);
+        this.starts = starts;
+        this.times = times;
+        this.percentageCharges = percentageCharges;
+        this.amountCharges = amountCharges;
+        this.multipliers = new double[times.length];
+        for (int v = 0; v < times.length; v++) {
+            multipliers[v] = FeePlan.reciprocalOf(percentageCharges[v]);
+        }
+    }
+
+    public static FeeHistory empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Number of currencies with at least one version.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Number of versions of all currencies.
+     */
+    public int getVersionCount() {
+        return times.length;
+    }
+
+    /**
+     * @return the row of the currency with the given id, or {@code -1} if it has no
+     * history
+     */
+    public int indexOf(int currencyId) {
+        return idIndex.get(currencyId);
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * The versions of row {@code row} are {@code [getFirstVersion(row), getFirstVersion(row + 1))}.
+     */
+    public int getFirstVersion(int row) {
+        return starts[row];
+    }
+
+    /**
+     * The most recent version of row {@code row}.
+     */
+    public int getLatestVersion(int row) {
+        return starts[row + 1] - 1;
+    }
+
+    /**
+     * Finds the version of row {@code row} in effect at {@code time}: the last one whose
+     * effective time is not after it.
+     *
+     * @return the version, or {@code -1} if {@code row} is {@code -1} or {@code time} is
+     * before its first version
+     */
+    public int versionAt(int row, long time) {
+        if (row < 0) {
+            return -1;
+        }
+        int from = starts[row];
+        int low = from;
+        int high = starts[row + 1];
+        // first version effective after time
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low > from ? low - 1 : -1;
+    }
+
+    /**
+     * Same as {@link #versionAt(int, long)} with a currency id.
+     */
+    public int findVersion(int currencyId, long time) {
+        return versionAt(idIndex.get(currencyId), time);
+    }
+
+    public long getEffectiveFrom(int version) {
+        return times[version];
+    }
+
+    public float getPercentageCharge(int version) {
+        return percentageCharges[version];
+    }
+
+    public float getAmountCharge(int version) {
+        return amountCharges[version];
+    }
+
+    /**
+     * The total to charge for {@code amount} with the charges of {@code version}.
+     */
+    public float total(int version, float amount) {
+        return (float) ((amount + amountCharges[version]) * multipliers[version]);
+    }
+
+    /**
+     * Prices {@code amounts[i]} in row {@code rows[i]} with the charges in effect at
+     * {@code times[i]}, for {@code i} in {@code [from, to)}, into the same positions of
+     * {@code totals} and {@code fees}. Rows of {@code -1} and times before a currency's
+     * first version get {@code NaN}.
+     * <p>
+     * The version last used for each currency is tried before searching, so input in time
+     * order, like a statement, mostly skips the search.
+     */
+    public void quote(int[] rows, long[] times, double[] amounts, int from, int to,
+                      double[] totals, double[] fees) {
+        long[] effective = this.times;
+        int[] starts = this.starts;
+        float[] amountCharges = this.amountCharges;
+        double[] multipliers = this.multipliers;
+        // per row: the version used last and the times [since, until) it covers
+        int[] last = new int[ids.length];
+        long[] until = new long[ids.length];
+        long[] since = new long[ids.length];
+        for (int r = 0; r < until.length; r++) {
+            since[r] = Long.MAX_VALUE;
+        }
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            long time = times[i];
+            int version;
+            if (row >= 0 && time >= since[row] && time < until[row]) {
+                version = last[row];
+            } else {
+                version = versionAt(row, time);
+                if (version < 0) {
+                    totals[i] = Double.NaN;
+                    fees[i] = Double.NaN;
+                    continue;
+                }
+                last[row] = version;
+                since[row] = effective[version];
+                until[row] = version + 1 < starts[row + 1] ? effective[version + 1] : Long.MAX_VALUE;
+            }
+            float amount = (float) amounts[i];
+            float total = (float) ((amount + amountCharges[version]) * multipliers[version]);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+
+    /**
+     * Returns a history with one more version of currency {@code currencyId}. A version
+     * with the same effective time as the latest one supersedes it for lookups.
+     *
+     * @throws IllegalArgumentException if {@code effectiveFrom} is before the currency's
+     *                                  latest version
+     */
+    public FeeHistory append(int currencyId, long effectiveFrom, float percentageCharge, float amountCharge) {
+        int row = idIndex.get(currencyId);
+        checkAppendable(row, currencyId, effectiveFrom);
+        int[] newIds = ids;
+        int[] newStarts;
+        int at;
+        if (row < 0) {
+            newIds = Arrays.copyOf(ids, ids.length + 1);
+            newIds[ids.length] = currencyId;
+            newStarts = Arrays.copyOf(starts, starts.length + 1);
+            newStarts[starts.length] = times.length + 1;
+            at = times.length;
+        } else {
+            newStarts = starts.clone();
+            for (int r = row + 1; r < newStarts.length; r++) {
+                newStarts[r]++;
+            }
+            at = starts[row + 1];
+        }
+        return new FeeHistory(newIds, newStarts, insert(times, at, effectiveFrom),
+                insert(percentageCharges, at, percentageCharge), insert(amountCharges, at, amountCharge));
+    }
+
+    /**
+     * Encodes every version, grouped by currency.
+     */
+    public ByteBuffer encode() {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + times.length * maxRecordSize()).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(MAGIC);
+        out.putShort((short) VERSION);
+        for (int row = 0; row < ids.length; row++) {
+            for (int v = starts[row]; v < starts[row + 1]; v++) {
+                putRecord(out, ids[row], v - 1 >= starts[row] ? v - 1 : -1, times[v], percentageCharges[v],
+                        amountCharges[v]);
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Encodes the record that {@link #append(int, long, float, float)} with the same
+     * arguments adds, so it can be appended to this history's encoding.
+     *
+     * @throws IllegalArgumentException if {@code effectiveFrom} is before the currency's
+     *                                  latest version
+     */
+    public ByteBuffer encodeRecord(int currencyId, long effectiveFrom, float percentageCharge, float amountCharge) {
+        int row = idIndex.get(currencyId);
+        checkAppendable(row, currencyId, effectiveFrom);
+        ByteBuffer out = ByteBuffer.allocate(maxRecordSize());
+        putRecord(out, currencyId, row < 0 ? -1 : getLatestVersion(row), effectiveFrom, percentageCharge,
+                amountCharge);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Reads an encoded history from {@code buffer}. A record cut short at the end, as an
+     * interrupted append leaves it, is ignored; the buffer's position is left after the
+     * last complete record.
+     *
+     * @throws IOException if the buffer is not a fee history, was written by a newer
+     *                     version, or a record goes back in time
+     */
+    public static FeeHistory decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(buffer.position()) != MAGIC) {
+            throw new IOException("Not a fee history");
+        }
+        int version = buffer.getShort(buffer.position() + 4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported fee history version: " + version);
+        }
+        buffer.position(buffer.position() + HEADER_SIZE);
+
+        // latest version of each currency, only while decoding
+        Map<Integer, long[]> latest = new HashMap<>();
+        Records records = new Records();
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            try {
+                int id = getVarInt(buffer);
+                long[] previous = latest.get(id);
+                long timeDelta = zigzagDecode(getVarLong(buffer));
+                int percentBits = getVarInt(buffer);
+                int amountBits = getVarInt(buffer);
+                long time = timeDelta;
+                if (previous != null) {
+                    if (timeDelta < 0) {
+                        throw new IOException("Fee history record at " + start + " goes back in time");
+                    }
+                    time += previous[0];
+                    percentBits ^= (int) previous[1];
+                    amountBits ^= (int) previous[2];
+                } else {
+                    previous = new long[3];
+                    latest.put(id, previous);
+                }
+                previous[0] = time;
+                previous[1] = percentBits;
+                previous[2] = amountBits;
+                records.add(id, time, Float.intBitsToFloat(percentBits), Float.intBitsToFloat(amountBits));
+            } catch (BufferUnderflowException ex) {
+                // torn final record
+                buffer.position(start);
+                break;
+            }
+        }
+        return records.toHistory();
+    }
+
+    private void checkAppendable(int row, int currencyId, long effectiveFrom) {
+        if (row >= 0 && effectiveFrom < times[getLatestVersion(row)]) {
+            throw new IllegalArgumentException("Fee history of currency " + currencyId
+                    + " is append-only: " + effectiveFrom + " is before " + times[getLatestVersion(row)]);
+        }
+    }
+
+    private void putRecord(ByteBuffer out, int currencyId, int previous, long time, float percentageCharge,
+                           float amountCharge) {
+        int percentBits = Float.floatToRawIntBits(percentageCharge);
+        int amountBits = Float.floatToRawIntBits(amountCharge);
+        long timeDelta = time;
+        if (previous >= 0) {
+            timeDelta -= times[previous];
+            percentBits ^= Float.floatToRawIntBits(percentageCharges[previous]);
+            amountBits ^= Float.floatToRawIntBits(amountCharges[previous]);
+        }
+        try {
+            putVarInt(out, currencyId);
+            putVarLong(out, (timeDelta << 1) ^ (timeDelta >> 63));
+            putVarInt(out, percentBits);
+            putVarInt(out, amountBits);
+        } catch (BufferOverflowException ex) {
+            throw new IllegalStateException("Record larger than " + maxRecordSize() + " bytes", ex);
+        }
+    }
+
+    private static int maxRecordSize() {
+        // two 5-byte ints, a 10-byte long and the id
+        return 5 + 10 + 5 + 5;
+    }
+
+    private static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at " + in.position());
+    }
+
+    private static long getVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint at " + in.position());
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long[] insert(long[] array, int at, long value) {
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(array, at, result, at + 1, array.length - at);
+        return result;
+    }
+
+    private static float[] insert(float[] array, int at, float value) {
+        float[] result = new float[array.length + 1];
+        System.arraycopy(array, 0, result, 0, at);
+        result[at] = value;
+        System.arraycopy(array, at, result, at + 1, array.length - at);
+        return result;
+    }
+
+    /**
+     * Decoded records in file order, laid out by currency at the end.
+     */
+    private static final class Records {
+
+        private int size;
+        private int[] ids = new int[64];
+        private long[] times = new long[64];
+        private float[] percentageCharges = new float[64];
+        private float[] amountCharges = new float[64];
+
+        void add(int id, long time, float percentageCharge, float amountCharge) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                times = Arrays.copyOf(times, capacity);
+                percentageCharges = Arrays.copyOf(percentageCharges, capacity);
+                amountCharges = Arrays.copyOf(amountCharges, capacity);
+            }
+            ids[size] = id;
+            times[size] = time;
+            percentageCharges[size] = percentageCharge;
+            amountCharges[size] = amountCharge;
+            size++;
+        }
+
+        FeeHistory toHistory() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            // rows in order of first appearance, counted first, then filled stably
+            int[] rowIds = new int[size];
+            int[] rowOf = new int[size];
+            int[] counts = new int[size];
+            Map<Integer, Integer> rows = new HashMap<>();
+            int rowCount = 0;
+            for (int i = 0; i < size; i++) {
+                Integer row = rows.get(ids[i]);
+                if (row == null) {
+                    row = rowCount++;
+                    rows.put(ids[i], row);
+                    rowIds[row] = ids[i];
+                }
+                rowOf[i] = row;
+                counts[row]++;
+            }
+            int[] starts = new int[rowCount + 1];
+            for (int r = 0; r < rowCount; r++) {
+                starts[r + 1] = starts[r] + counts[r];
+            }
+            int[] next = Arrays.copyOf(starts, rowCount);
+            long[] sortedTimes = new long[size];
+            float[] sortedPercent = new float[size];
+            float[] sortedAmount = new float[size];
+            for (int i = 0; i < size; i++) {
+                int at = next[rowOf[i]]++;
+                sortedTimes[at] = times[i];
+                sortedPercent[at] = percentageCharges[i];
+                sortedAmount[at] = amountCharges[i];
+            }
+            return new FeeHistory(Arrays.copyOf(rowIds, rowCount), starts, sortedTimes, sortedPercent, sortedAmount);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link FeeHistory} kept in an append-only file.
+ * <p>
+ * {@link #append(int, long, float, float)} writes one encoded record at the end of the
+ * file and forces it to disk; nothing already written is rewritten. Opening the log
+ * decodes the file once and cuts off a record left incomplete by an interrupted append,
+ * so the next append starts on a record boundary.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeHistoryLog implements Closeable {
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private volatile FeeHistory history;
+
+    private FeeHistoryLog(RandomAccessFile file, FeeHistory history) {
+        this.file = file;
+        this.channel = file.getChannel();
+        this.history = history;
+    }
+
+    /**
+     * Opens the log in {@code file}, creating it if it does not exist or is empty.
+     *
+     * @throws IOException if the file holds something other than a fee history
+     */
+    public static FeeHistoryLog open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            FeeHistory history;
+            if (channel.size() == 0) {
+                ByteBuffer header = FeeHistory.empty().encode();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+                history = FeeHistory.empty();
+            } else {
+                ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+                while (data.hasRemaining() && channel.read(data) >= 0) {
+                    // keep reading
+                }
+                data.flip();
+                history = FeeHistory.decode(data);
+                if (data.position() < channel.size()) {
+                    channel.truncate(data.position());
+                }
+            }
+            channel.position(channel.size());
+            return new FeeHistoryLog(raf, history);
+        } catch (IOException | RuntimeException ex) {
+            raf.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Everything appended so far.
+     */
+    public FeeHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Appends a version, see {@link FeeHistory#append(int, long, float, float)}.
+     *
+     * @return the history including it
+     * @throws IllegalArgumentException if {@code effectiveFrom} is before the currency's
+     *                                  latest version
+     */
+    public synchronized FeeHistory append(int currencyId, long effectiveFrom, float percentageCharge,
+                                          float amountCharge) throws IOException {
+        FeeHistory current = history;
+        ByteBuffer record = current.encodeRecord(currencyId, effectiveFrom, percentageCharge, amountCharge);
+        FeeHistory next = current.append(currencyId, effectiveFrom, percentageCharge, amountCharge);
+        long end = channel.position();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            // drop the partial record so later appends stay aligned
+            channel.truncate(end);
+            throw ex;
+        }
+        history = next;
+        return next;
+    }
+
+    /**
+     * Size of the file in bytes.
+     */
+    public long length() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,223 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.math.RoundingMode;
+
+/**
+ * One currency's fee schedule compiled for repeated pricing.
+ * <p>
+ * Everything that depends only on the schedule (the divisor, its reciprocal and the
+ * minor-unit terms) is computed once, so pricing an amount is an add and a multiply with
+ * no lookups or divides. Plans are immutable; build a new one when the charges change.
+ * <p>
+ * The {@code float} methods return exactly what {@link FeeEngine#total(float, float, float)}
+ * returns. The quotient is formed in {@code double} from a precomputed reciprocal; its
+ * error (under 2<sup>-52</sup>) is smaller than the distance of any {@code float} quotient
+ * from a {@code float} rounding boundary (at least 2<sup>-50</sup>), so rounding the
+ * product to {@code float} gives the correctly rounded quotient.
+ * <p>
+ * The minor-unit methods return exactly what
+ * {@link FeeEngine#totalMinor(long, long, long, RoundingMode)} returns: the quotient is
+ * estimated with a multiply, corrected against the integer remainder, and only very large
+ * amounts fall back to the division.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeePlan {
+
+    /**
+     * Plan without any charges; the total is the amount itself.
+     */
+    public static final FeePlan NONE = of(0, 0, 2, FeeTable.DEFAULT_ROUNDING);
+
+    /**
+     * Largest {@code amount + additional} whose numerator ({@code * PPM_ONE}) is exact in a
+     * {@code double}, which keeps the multiply estimate within a few units.
+     */
+    private static final long FAST_LIMIT = MinorUnits.EXACT_DOUBLE_LIMIT / MinorUnits.PPM_ONE;
+
+    private final float percentageCharge;
+    private final float amountCharge;
+    private final double reciprocal;
+    private final int scale;
+    private final double unit;
+    private final RoundingMode roundingMode;
+
+    private final boolean minorSupported;
+    private final long ratePpm;
+    private final long amountChargeMinor;
+    private final long denominator;
+    private final double minorReciprocal;
+
+    private FeePlan(float percentageCharge, float amountCharge, int scale, RoundingMode roundingMode) {
+        this.percentageCharge = percentageCharge;
+        this.amountCharge = amountCharge;
+        this.reciprocal = reciprocalOf(percentageCharge);
+        this.scale = scale;
+        this.unit = MinorUnits.pow10(scale);
+        this.roundingMode = roundingMode;
+
+        this.minorSupported = !Float.isNaN(percentageCharge) && !Float.isInfinite(percentageCharge)
+                && Math.abs((double) amountCharge) * unit < FAST_LIMIT;
+        this.ratePpm = minorSupported ? MinorUnits.toPpm(percentageCharge) : MinorUnits.PPM_ONE;
+        this.amountChargeMinor = minorSupported ? MinorUnits.toMinor(amountCharge, scale, roundingMode) : 0;
+        this.denominator = MinorUnits.PPM_ONE - ratePpm;
+        this.minorReciprocal = denominator > 0 ? 1.0 / denominator : 0;
+    }
+
+    /**
+     * @param percentageCharge the percentage charge, e.g. {@code 4.4f}
+     * @param amountCharge     the fixed charge per transaction, in major units
+     * @param scale            decimal places of the minor unit
+     * @param roundingMode     rounding for minor-unit totals
+     */
+    public static FeePlan of(float percentageCharge, float amountCharge, int scale, RoundingMode roundingMode) {
+        return new FeePlan(percentageCharge, amountCharge, scale, roundingMode);
+    }
+
+    /**
+     * The multiplier from an amount plus the fixed charge to the total, for
+     * {@code percentageCharge}. Every {@code float} path builds it with this expression, so
+     * their totals match {@link #total(float)} bit for bit.
+     */
+    static double reciprocalOf(float percentageCharge) {
+        return 1.0 / ((100 - percentageCharge) / 100);
+    }
+
+    /**
+     * Plan for row {@code index} of {@code table}.
+     */
+    public static FeePlan of(FeeTable table, int index) {
+        return new FeePlan(table.getPercentageCharge(index), table.getAmountCharge(index),
+                table.getScale(index), table.getRoundingMode(index));
+    }
+
+    public float getPercentageCharge() {
+        return percentageCharge;
+    }
+
+    public float getAmountCharge() {
+        return amountCharge;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    /**
+     * The percentage charge in parts per million, see {@link MinorUnits}.
+     */
+    public long getRatePpm() {
+        return ratePpm;
+    }
+
+    /**
+     * The fixed charge in minor units, see {@link #getScale()}.
+     */
+    public long getAmountChargeMinor() {
+        return amountChargeMinor;
+    }
+
+    /**
+     * @return {@code false} if the charges cannot be held in minor units (not finite or
+     * too large), in which case the minor-unit methods throw
+     */
+    public boolean isMinorSupported() {
+        return minorSupported;
+    }
+
+    /**
+     * See {@link #reciprocalOf(float)}.
+     */
+    double getReciprocal() {
+        return reciprocal;
+    }
+
+    /**
+     * Same as {@link FeeEngine#total(float, float, float)} with this plan's charges.
+     */
+    public float total(float amount) {
+        return (float) ((amount + amountCharge) * reciprocal);
+    }
+
+    /**
+     * Same as {@link FeeEngine#fee(float, float, float)} with this plan's charges.
+     */
+    public float fee(float amount) {
+        return total(amount) - amount;
+    }
+
+    /**
+     * Same as {@link FeeEngine#quote(double[], int, int, float, float, double[], double[])}
+     * with this plan's charges.
+     */
+    public void quote(double[] amounts, int from, int to, double[] totals, double[] fees) {
+        float additional = amountCharge;
+        double multiplier = reciprocal;
+        for (int i = from; i < to; i++) {
+            float amount = (float) amounts[i];
+            float total = (float) ((amount + additional) * multiplier);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+
+    /**
+     * Same as
+     * {@link FeeEngine#quote(long[], int, int, int, float, float, double[], double[])}
+     * with this plan's scale and charges.
+     */
+    public void quote(long[] minorAmounts, int from, int to, double[] totals, double[] fees) {
+        float additional = amountCharge;
+        double multiplier = reciprocal;
+        double unit = this.unit;
+        for (int i = from; i < to; i++) {
+            float amount = (float) (minorAmounts[i] / unit);
+            float total = (float) ((amount + additional) * multiplier);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+
+    /**
+     * Same as {@link FeeEngine#totalMinor(long, long, long, RoundingMode)} with this
+     * plan's rate, fixed charge and rounding.
+     *
+     * @throws ArithmeticException if the percentage charge is 100% or more, or the charges
+     *                             cannot be held in minor units
+     */
+    public long totalMinor(long amount) {
+        if (denominator > 0 && amount >= -FAST_LIMIT && amount <= FAST_LIMIT) {
+            long sum = amount + amountChargeMinor;
+            if (sum >= -FAST_LIMIT && sum <= FAST_LIMIT) {
+                return MinorUnits.divide(sum * MinorUnits.PPM_ONE, denominator, minorReciprocal, roundingMode);
+            }
+        }
+        if (!minorSupported) {
+            throw new ArithmeticException("Charges cannot be expressed in minor units");
+        }
+        return FeeEngine.totalMinor(amount, ratePpm, amountChargeMinor, roundingMode);
+    }
+
+    public long feeMinor(long amount) {
+        return totalMinor(amount) - amount;
+    }
+
+    /**
+     * Same as
+     * {@link FeeEngine#quoteMinor(long[], int, int, long, long, RoundingMode, long[], long[])}
+     * with this plan's rate, fixed charge and rounding.
+     */
+    public void quoteMinor(long[] amounts, int from, int to, long[] totals, long[] fees) {
+        for (int i = from; i < to; i++) {
+            long amount = amounts[i];
+            long total = totalMinor(amount);
+            totals[i] = total;
+            fees[i] = total - amount;
+        }
+    }
+}
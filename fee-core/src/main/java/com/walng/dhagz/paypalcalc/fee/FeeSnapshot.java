@@ -0,0 +1,252 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned binary encoding of a {@link FeeTable}, read in place from a (usually
+ * memory-mapped) {@link ByteBuffer}.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header   int magic "PPCF", short version, short recordSize, int count, int stringsOffset
+ * records  count * recordSize bytes:
+ *          int id, float percentageCharge, float amountCharge,
+ *          int nameOffset, int symbolOffset, byte scale, byte roundingMode, 2 bytes reserved
+ * strings  unsigned short length + UTF-8 bytes, offsets relative to stringsOffset
+ * </pre>
+ * Accessors read single fields straight from the buffer, so opening a snapshot decodes
+ * nothing and names stay off-heap until asked for. Readers use the stored record size as
+ * stride, so later versions can append fields to a record.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeSnapshot {
+
+    public static final int MAGIC = 0x50504346;
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 24;
+    private static final RoundingMode[] ROUNDING_MODES = RoundingMode.values();
+
+    private final ByteBuffer buffer;
+    private final int recordSize;
+    private final int size;
+    private final int stringsOffset;
+    private volatile IntIndex idIndex;
+
+    private FeeSnapshot(ByteBuffer buffer, int recordSize, int size, int stringsOffset) {
+        this.buffer = buffer;
+        this.recordSize = recordSize;
+        this.size = size;
+        this.stringsOffset = stringsOffset;
+    }
+
+    /**
+     * Reads a snapshot from {@code buffer} without copying it.
+     *
+     * @throws IOException if the buffer is not a snapshot, is truncated, or was written by
+     *                     a newer version
+     */
+    public static FeeSnapshot wrap(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a fee snapshot");
+        }
+        int version = data.getShort(4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported fee snapshot version: " + version);
+        }
+        int recordSize = data.getShort(6) & 0xFFFF;
+        int size = data.getInt(8);
+        int stringsOffset = data.getInt(12);
+        if (recordSize < RECORD_SIZE || size < 0
+                || stringsOffset != HEADER_SIZE + (long) size * recordSize
+                || stringsOffset > data.limit()) {
+            throw new IOException("Corrupt fee snapshot header");
+        }
+        return new FeeSnapshot(data, recordSize, size, stringsOffset);
+    }
+
+    /**
+     * Memory-maps {@code file} read-only and wraps it.
+     */
+    public static FeeSnapshot open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    public static ByteBuffer encode(FeeTable table) {
+        int size = table.size();
+        Map<String, Integer> offsets = new HashMap<>();
+        ByteBuffer strings = ByteBuffer.allocate(64);
+        int[] nameOffsets = new int[size];
+        int[] symbolOffsets = new int[size];
+        for (int i = 0; i < size; i++) {
+            strings = putString(strings, offsets, table.getName(i));
+            nameOffsets[i] = offsets.get(nullToEmpty(table.getName(i)));
+            strings = putString(strings, offsets, table.getSymbol(i));
+            symbolOffsets[i] = offsets.get(nullToEmpty(table.getSymbol(i)));
+        }
+        strings.flip();
+
+        int stringsOffset = HEADER_SIZE + size * RECORD_SIZE;
+        ByteBuffer out = ByteBuffer.allocate(stringsOffset + strings.remaining()).order(ByteOrder.BIG_ENDIAN);
+        out.putInt(MAGIC);
+        out.putShort((short) VERSION);
+        out.putShort((short) RECORD_SIZE);
+        out.putInt(size);
+        out.putInt(stringsOffset);
+        for (int i = 0; i < size; i++) {
+            out.putInt(table.getId(i));
+            out.putFloat(table.getPercentageCharge(i));
+            out.putFloat(table.getAmountCharge(i));
+            out.putInt(nameOffsets[i]);
+            out.putInt(symbolOffsets[i]);
+            out.put((byte) table.getScale(i));
+            out.put((byte) table.getRoundingMode(i).ordinal());
+            out.putShort((short) 0);
+        }
+        out.put(strings);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Writes {@code table} to {@code file}, replacing it atomically: readers see either
+     * the old snapshot or the complete new one.
+     */
+    public static void write(FeeTable table, File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            FileChannel channel = out.getChannel();
+            ByteBuffer data = encode(table);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int indexOf(int id) {
+        IntIndex index = idIndex;
+        if (index == null) {
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = getId(i);
+            }
+            index = new IntIndex(ids, size);
+            idIndex = index;
+        }
+        return index.get(id);
+    }
+
+    public int getId(int index) {
+        return buffer.getInt(record(index));
+    }
+
+    public float getPercentageCharge(int index) {
+        return buffer.getFloat(record(index) + 4);
+    }
+
+    public float getAmountCharge(int index) {
+        return buffer.getFloat(record(index) + 8);
+    }
+
+    public String getName(int index) {
+        return getString(buffer.getInt(record(index) + 12));
+    }
+
+    public String getSymbol(int index) {
+        return getString(buffer.getInt(record(index) + 16));
+    }
+
+    public int getScale(int index) {
+        return buffer.get(record(index) + 20);
+    }
+
+    public RoundingMode getRoundingMode(int index) {
+        return ROUNDING_MODES[buffer.get(record(index) + 21)];
+    }
+
+    /**
+     * Decodes every row into a heap {@link FeeTable}.
+     */
+    public FeeTable toFeeTable() {
+        FeeTable.Builder builder = new FeeTable.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(getId(i), getName(i), getSymbol(i), getPercentageCharge(i), getAmountCharge(i),
+                    getScale(i), getRoundingMode(i));
+        }
+        return builder.build();
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return HEADER_SIZE + index * recordSize;
+    }
+
+    private String getString(int offset) {
+        int position = stringsOffset + offset;
+        int length = buffer.getShort(position) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + 2);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer putString(ByteBuffer strings, Map<String, Integer> offsets, String value) {
+        String key = nullToEmpty(value);
+        if (offsets.containsKey(key)) {
+            return strings;
+        }
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for a fee snapshot: " + bytes.length + " bytes");
+        }
+        if (strings.remaining() < bytes.length + 2) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(strings.capacity() * 2, strings.position() + bytes.length + 2));
+            strings.flip();
+            grown.put(strings);
+            strings = grown;
+        }
+        offsets.put(key, strings.position());
+        strings.putShort((short) bytes.length);
+        strings.put(bytes);
+        return strings;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
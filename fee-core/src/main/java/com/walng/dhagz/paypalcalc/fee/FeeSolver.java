@@ -0,0 +1,315 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Answers a fee question for one {@link FeePlan}, chosen by {@link Mode}.
+ * <p>
+ * Every mode has a closed form, so each input costs a multiply-add on coefficients
+ * computed once here. No mode searches for its answer. With a {@link BatchQuoter} the
+ * other modes price arrays at the same rate as {@link Mode#GROSS_UP}.
+ * <p>
+ * With PayPal's rate {@code r} and fixed charge {@code f}, PayPal takes
+ * {@code r * charged + f} from each payment:
+ * <ul>
+ * <li>{@link Mode#GROSS_UP}: the input is the amount to receive; the result is the total to
+ * charge, {@code (amount + f) / (1 - r)}. This is the calculator screen's formula and
+ * gives exactly the numbers of {@link FeePlan#total(float)}.</li>
+ * <li>{@link Mode#NET}: the input is the gross charged; the result is what is received,
+ * {@code gross - (r * gross + f)}. It is negative if the gross does not cover the fixed
+ * charge.</li>
+ * <li>{@link Mode#SPLIT}: the input is the price; the payer covers share {@code s} of the
+ * fee on top of it, so the fee is {@code F = (r * price + f) / (1 - r * s)} and the
+ * result is the total the payer is charged, {@code price + s * F}. The payee receives
+ * {@code price - (1 - s) * F}. {@code s = 100%} is {@code GROSS_UP}; {@code s = 0} is
+ * {@code NET} with the price as gross.</li>
+ * </ul>
+ * The fee output is always PayPal's fee, so what the payee receives is
+ * {@code result - fee} in every mode except {@code NET}, where it is the result itself.
+ * <p>
+ * In minor units the fee is rounded once with the plan's rounding mode, and in
+ * {@code SPLIT} the payer's part of it is rounded again; the results are checked against
+ * {@link #solveReference(long)}.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeSolver {
+
+    public enum Mode {
+        GROSS_UP,
+        NET,
+        SPLIT
+    }
+
+    private final Mode mode;
+    private final FeePlan plan;
+    private final float payerShare;
+
+    // float path: result = input * resultMultiplier + resultOffset, likewise for the fee
+    private final double resultMultiplier;
+    private final double resultOffset;
+    private final double feeMultiplier;
+    private final double feeOffset;
+    private final double unit;
+
+    // minor-unit path
+    private final long ratePpm;
+    private final long sharePpm;
+    private final long fixedNumerator;
+    private final long numeratorScale;
+    private final long denominator;
+    private final double reciprocal;
+    private final long inputLimit;
+    private final long shareNumerator;
+    private final long shareDenominator;
+    private final double shareReciprocal;
+
+    private FeeSolver(Mode mode, FeePlan plan, float payerShare) {
+        this.mode = mode;
+        this.plan = plan;
+        this.payerShare = payerShare;
+        this.unit = MinorUnits.pow10(plan.getScale());
+
+        double rate = plan.getPercentageCharge() / 100.0;
+        double fixed = plan.getAmountCharge();
+        double share = mode == Mode.NET ? 0 : payerShare / 100.0;
+        double multiplier = 1 / (1 - rate * share);
+        this.resultMultiplier = mode == Mode.NET ? 1 - rate : multiplier;
+        this.resultOffset = mode == Mode.NET ? -fixed : share * fixed * multiplier;
+        this.feeMultiplier = rate * multiplier;
+        this.feeOffset = fixed * multiplier;
+
+        // fee = (input * rate + fixed * PPM) * PPM / (PPM^2 - rate * share), rounded once;
+        // the fraction is reduced so that typical numerators stay exact in a double
+        long ppm = MinorUnits.PPM_ONE;
+        this.ratePpm = plan.getRatePpm();
+        this.sharePpm = mode == Mode.NET ? 0 : mode == Mode.GROSS_UP ? ppm : MinorUnits.toPpm(payerShare);
+        long shareGcd = gcd(sharePpm, ppm);
+        this.shareNumerator = sharePpm / shareGcd;
+        this.shareDenominator = ppm / shareGcd;
+        this.shareReciprocal = 1.0 / shareDenominator;
+        long fullDenominator = ppm * ppm - ratePpm * sharePpm;
+        if (plan.isMinorSupported() && mode != Mode.GROSS_UP && fullDenominator > 0) {
+            long gcd = gcd(fullDenominator, ppm);
+            this.fixedNumerator = plan.getAmountChargeMinor() * ppm;
+            this.numeratorScale = ppm / gcd;
+            this.denominator = fullDenominator / gcd;
+            this.reciprocal = 1.0 / denominator;
+            long headroom = Long.MAX_VALUE / numeratorScale - Math.abs(fixedNumerator);
+            this.inputLimit = ratePpm == 0 ? headroom : Math.max(0, headroom / Math.abs(ratePpm));
+        } else {
+            this.fixedNumerator = 0;
+            this.numeratorScale = 0;
+            this.denominator = 0;
+            this.reciprocal = 0;
+            this.inputLimit = -1;
+        }
+    }
+
+    /**
+     * Total to charge so that the input is received; see {@link FeePlan#total(float)}.
+     */
+    public static FeeSolver grossUp(FeePlan plan) {
+        return new FeeSolver(Mode.GROSS_UP, plan, 100);
+    }
+
+    /**
+     * Amount received from a gross payment.
+     */
+    public static FeeSolver net(FeePlan plan) {
+        return new FeeSolver(Mode.NET, plan, 0);
+    }
+
+    /**
+     * Total the payer is charged when they cover {@code payerShare} percent of the fee,
+     * e.g. {@code 50f} to split it evenly.
+     */
+    public static FeeSolver split(FeePlan plan, float payerShare) {
+        if (!(payerShare >= 0 && payerShare <= 100)) {
+            throw new IllegalArgumentException("Payer share must be between 0 and 100: " + payerShare);
+        }
+        return new FeeSolver(Mode.SPLIT, plan, payerShare);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public FeePlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Percentage of the fee the payer covers: 100 for {@link Mode#GROSS_UP}, 0 for
+     * {@link Mode#NET}.
+     */
+    public float getPayerShare() {
+        return payerShare;
+    }
+
+    /**
+     * The result for {@code input}, see {@link Mode}.
+     */
+    public float solve(float input) {
+        if (mode == Mode.GROSS_UP) {
+            return plan.total(input);
+        }
+        return (float) (input * resultMultiplier + resultOffset);
+    }
+
+    /**
+     * PayPal's fee for {@code input}.
+     */
+    public float fee(float input) {
+        if (mode == Mode.GROSS_UP) {
+            return plan.fee(input);
+        }
+        return (float) (input * feeMultiplier + feeOffset);
+    }
+
+    /**
+     * Solves {@code inputs[from..to)} into the same positions of {@code results} and
+     * {@code fees}.
+     */
+    public void quote(double[] inputs, int from, int to, double[] results, double[] fees) {
+        if (mode == Mode.GROSS_UP) {
+            plan.quote(inputs, from, to, results, fees);
+            return;
+        }
+        double resultMultiplier = this.resultMultiplier;
+        double resultOffset = this.resultOffset;
+        double feeMultiplier = this.feeMultiplier;
+        double feeOffset = this.feeOffset;
+        for (int i = from; i < to; i++) {
+            float input = (float) inputs[i];
+            results[i] = (float) (input * resultMultiplier + resultOffset);
+            fees[i] = (float) (input * feeMultiplier + feeOffset);
+        }
+    }
+
+    /**
+     * Like {@link #quote(double[], int, int, double[], double[])} for inputs in minor units
+     * of the plan's scale.
+     */
+    public void quote(long[] minorInputs, int from, int to, double[] results, double[] fees) {
+        if (mode == Mode.GROSS_UP) {
+            plan.quote(minorInputs, from, to, results, fees);
+            return;
+        }
+        double resultMultiplier = this.resultMultiplier;
+        double resultOffset = this.resultOffset;
+        double feeMultiplier = this.feeMultiplier;
+        double feeOffset = this.feeOffset;
+        double unit = this.unit;
+        for (int i = from; i < to; i++) {
+            float input = (float) (minorInputs[i] / unit);
+            results[i] = (float) (input * resultMultiplier + resultOffset);
+            fees[i] = (float) (input * feeMultiplier + feeOffset);
+        }
+    }
+
+    /**
+     * The result for a minor-unit {@code input}, see {@link Mode}.
+     *
+     * @throws ArithmeticException if the plan's charges cannot be held in minor units, or
+     *                             the fee cannot be covered (rate times payer share of
+     *                             100% or more)
+     */
+    public long solveMinor(long input) {
+        if (mode == Mode.GROSS_UP) {
+            return plan.totalMinor(input);
+        }
+        long fee = feeMinor(input);
+        return mode == Mode.NET ? input - fee : input + payerPart(fee);
+    }
+
+    /**
+     * PayPal's fee for a minor-unit {@code input}.
+     */
+    public long feeMinor(long input) {
+        if (mode == Mode.GROSS_UP) {
+            return plan.feeMinor(input);
+        }
+        if (input <= inputLimit && input >= -inputLimit && denominator > 0) {
+            long numerator = (input * ratePpm + fixedNumerator) * numeratorScale;
+            return MinorUnits.divide(numerator, denominator, reciprocal, plan.getRoundingMode());
+        }
+        return feeReference(input).longValueExact();
+    }
+
+    /**
+     * Solves minor-unit {@code inputs[from..to)} into the same positions of
+     * {@code results} and {@code fees}, as {@link #solveMinor(long)} and
+     * {@link #feeMinor(long)} would.
+     */
+    public void quoteMinor(long[] inputs, int from, int to, long[] results, long[] fees) {
+        if (mode == Mode.GROSS_UP) {
+            plan.quoteMinor(inputs, from, to, results, fees);
+            return;
+        }
+        boolean net = mode == Mode.NET;
+        for (int i = from; i < to; i++) {
+            long input = inputs[i];
+            long fee = feeMinor(input);
+            results[i] = net ? input - fee : input + payerPart(fee);
+            fees[i] = fee;
+        }
+    }
+
+    /**
+     * {@link BigDecimal} reference for {@link #solveMinor(long)}, used to cross-check it.
+     */
+    public BigDecimal solveReference(long input) {
+        if (mode == Mode.GROSS_UP) {
+            return FeeEngine.totalReference(input, plan.getRatePpm(), plan.getAmountChargeMinor(),
+                    plan.getRoundingMode());
+        }
+        BigDecimal fee = feeReference(input);
+        BigDecimal amount = BigDecimal.valueOf(input);
+        if (mode == Mode.NET) {
+            return amount.subtract(fee);
+        }
+        BigDecimal ppm = BigDecimal.valueOf(MinorUnits.PPM_ONE);
+        return amount.add(fee.multiply(BigDecimal.valueOf(sharePpm)).divide(ppm, 0, plan.getRoundingMode()));
+    }
+
+    private long payerPart(long fee) {
+        if (sharePpm == MinorUnits.PPM_ONE) {
+            return fee;
+        }
+        if (fee > Long.MAX_VALUE / MinorUnits.PPM_ONE || fee < -Long.MAX_VALUE / MinorUnits.PPM_ONE) {
+            return BigDecimal.valueOf(fee).multiply(BigDecimal.valueOf(sharePpm))
+                    .divide(BigDecimal.valueOf(MinorUnits.PPM_ONE), 0, plan.getRoundingMode())
+                    .longValueExact();
+        }
+        return MinorUnits.divide(fee * shareNumerator, shareDenominator, shareReciprocal, plan.getRoundingMode());
+    }
+
+    private BigDecimal feeReference(long input) {
+        if (!plan.isMinorSupported()) {
+            throw new ArithmeticException("Charges cannot be expressed in minor units");
+        }
+        long ppm = MinorUnits.PPM_ONE;
+        if (ppm * ppm - ratePpm * sharePpm <= 0) {
+            throw new ArithmeticException("Percentage charge times payer share must be below 100%");
+        }
+        return BigDecimal.valueOf(input)
+                .multiply(BigDecimal.valueOf(ratePpm))
+                .add(BigDecimal.valueOf(plan.getAmountChargeMinor() * ppm))
+                .multiply(BigDecimal.valueOf(ppm))
+                .divide(BigDecimal.valueOf(ppm * ppm - ratePpm * sharePpm), 0, plan.getRoundingMode());
+    }
+
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a == 0 ? 1 : a;
+    }
+}
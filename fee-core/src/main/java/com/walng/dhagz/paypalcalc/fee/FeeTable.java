@@ -0,0 +1,240 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Immutable, column-oriented table of currency fee schedules.
+ * <p>
+ * Each row is addressed by its index; {@link #indexOf(int)} resolves a currency id to that
+ * index. Columns are kept as primitive arrays so batch pricing never touches boxed values.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeTable {
+
+    /**
+     * Id of the user-editable "Custom" currency.
+     */
+    public static final int OTHER_ID = 0;
+
+    /**
+     * Rounding used for minor-unit results unless a row says otherwise. Matches how the
+     * calculator screen rounds the amounts it displays.
+     */
+    public static final RoundingMode DEFAULT_ROUNDING = RoundingMode.HALF_EVEN;
+
+    private static FeeTable defaults;
+
+    private final int[] ids;
+    private final String[] names;
+    private final String[] symbols;
+    private final float[] percentageCharges;
+    private final float[] amountCharges;
+    private final int[] scales;
+    private final RoundingMode[] roundingModes;
+    private final long[] ratesPpm;
+    private final long[] amountChargesMinor;
+    private final FeePlan[] plans;
+    private final IntIndex idIndex;
+
+    private FeeTable(Builder builder) {
+        int size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.names = Arrays.copyOf(builder.names, size);
+        this.symbols = Arrays.copyOf(builder.symbols, size);
+        this.percentageCharges = Arrays.copyOf(builder.percentageCharges, size);
+        this.amountCharges = Arrays.copyOf(builder.amountCharges, size);
+        this.scales = Arrays.copyOf(builder.scales, size);
+        this.roundingModes = Arrays.copyOf(builder.roundingModes, size);
+        this.ratesPpm = new long[size];
+        this.amountChargesMinor = new long[size];
+        this.plans = new FeePlan[size];
+        this.idIndex = new IntIndex(ids, size);
+        for (int i = 0; i < size; i++) {
+            ratesPpm[i] = MinorUnits.toPpm(percentageCharges[i]);
+            amountChargesMinor[i] = MinorUnits.toMinor(amountCharges[i], scales[i], roundingModes[i]);
+            plans[i] = FeePlan.of(this, i);
+        }
+    }
+
+    /**
+     * The PayPal fee schedule shipped with the app, in display order, ending with the
+     * "Custom" entry.
+     */
+    public static synchronized FeeTable defaults() {
+        if (defaults == null) {
+            defaults = new Builder()
+                    .add(15, "Philippine Peso", "PHP", 4.4f, 15, 2)
+                    .add(1, "Australian Dollar", "AUD", 4.4f, 0.3f, 2)
+                    .add(2, "Brazilian Real", "BRL", 4.4f, 0.6f, 2)
+                    .add(3, "Canadian Dollar", "CAD", 4.4f, 0.3f, 2)
+                    .add(4, "Czech Koruna", "CZK", 4.4f, 10, 2)
+                    .add(5, "Danish Kroner", "DKK", 4.4f, 2.6f, 2)
+                    .add(6, "Euro", "EUR", 4.4f, 0.35f, 2)
+                    .add(7, "Hong Kong Dollar", "HKD", 4.4f, 2.35f, 2)
+                    .add(8, "Hungarian Forint", "HUF", 4.4f, 90f, 0)
+                    .add(9, "Israeli New Shekel", "ILS", 4.4f, 1.2f, 2)
+                    .add(10, "Japanese Yen", "JPY", 3.9f, 40f, 0)
+                    .add(11, "Malaysian Ringgit", "MYR", 4.4f, 2f, 2)
+                    .add(12, "Mexican Peso", "MXN", 4.4f, 4f, 2)
+                    .add(13, "New Zealand Dollar", "NZD", 4.4f, 0.45f, 2)
+                    .add(14, "Norwegian Krone", "NOK", 4.4f, 2.8f, 2)
+                    .add(16, "Polish Zloty", "PLN", 4.4f, 1.35f, 2)
+                    .add(17, "Russian Ruble", "RUB", 4.4f, 10f, 2)
+                    .add(18, "Singapore Dollar", "SGD", 4.4f, 0.5f, 2)
+                    .add(19, "Swedish Krona", "SEK", 4.4f, 3.25f, 2)
+                    .add(20, "Swiss Franc", "CHF", 4.4f, 0.55f, 2)
+                    .add(21, "New Taiwan Dollar", "TWD", 4.4f, 10f, 0)
+                    .add(22, "Thai Baht", "THB", 4.4f, 11f, 2)
+                    .add(23, "Turkish Lira", "TRY", 4.4f, 0.45f, 2)
+                    .add(24, "U.K. Pounds Sterling", "GBP", 4.4f, 0.2f, 2)
+                    .add(25, "US Dollar", "USD", 4.4f, 0.3f, 2)
+                    .add(OTHER_ID, "Custom", "", 4.4f, 0.3f, 2)
+                    .build();
+        }
+        return defaults;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Finds the row of the currency with the given id.
+     *
+     * @return the row index, or {@code -1} if the id is not in this table
+     */
+    public int indexOf(int id) {
+        return idIndex.get(id);
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public String getSymbol(int index) {
+        return symbols[index];
+    }
+
+    public float getPercentageCharge(int index) {
+        return percentageCharges[index];
+    }
+
+    public float getAmountCharge(int index) {
+        return amountCharges[index];
+    }
+
+    /**
+     * Number of decimal places of the currency's minor unit, e.g. 2 for cents, 0 for yen.
+     */
+    public int getScale(int index) {
+        return scales[index];
+    }
+
+    /**
+     * Rounding applied when a minor-unit result falls between two minor units.
+     */
+    public RoundingMode getRoundingMode(int index) {
+        return roundingModes[index];
+    }
+
+    /**
+     * The percentage charge in parts per million, e.g. {@code 44000} for 4.4%.
+     */
+    public long getRatePpm(int index) {
+        return ratesPpm[index];
+    }
+
+    /**
+     * The fixed charge in minor units, see {@link #getScale(int)}.
+     */
+    public long getAmountChargeMinor(int index) {
+        return amountChargesMinor[index];
+    }
+
+    /**
+     * The row's charges compiled for pricing, built once with the table.
+     */
+    public FeePlan getPlan(int index) {
+        return plans[index];
+    }
+
+    /**
+     * The scale amounts in {@code symbol} are priced at: that of its row in
+     * {@link #defaults()}, which for HUF and TWD is 0 where ISO 4217 has 2, or for other
+     * symbols the ISO 4217 scale, 2 if the symbol is not a known currency code.
+     */
+    public static int scaleOf(String symbol) {
+        if (symbol != null && !symbol.isEmpty()) {
+            FeeTable defaults = defaults();
+            for (int i = 0; i < defaults.size(); i++) {
+                if (defaults.symbols[i].equals(symbol)) {
+                    return defaults.scales[i];
+                }
+            }
+        }
+        return MinorUnits.scaleOf(symbol);
+    }
+
+    /**
+     * Collects rows for a {@link FeeTable}.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] ids = new int[32];
+        private String[] names = new String[32];
+        private String[] symbols = new String[32];
+        private float[] percentageCharges = new float[32];
+        private float[] amountCharges = new float[32];
+        private int[] scales = new int[32];
+        private RoundingMode[] roundingModes = new RoundingMode[32];
+
+        /**
+         * Adds a row with the scale of {@code symbol}, see {@link FeeTable#scaleOf(String)}.
+         */
+        public Builder add(int id, String name, String symbol, float percentageCharge, float amountCharge) {
+            return add(id, name, symbol, percentageCharge, amountCharge, scaleOf(symbol));
+        }
+
+        public Builder add(int id, String name, String symbol, float percentageCharge, float amountCharge, int scale) {
+            return add(id, name, symbol, percentageCharge, amountCharge, scale, DEFAULT_ROUNDING);
+        }
+
+        public Builder add(int id, String name, String symbol, float percentageCharge, float amountCharge,
+                           int scale, RoundingMode roundingMode) {
+            if (scale < 0 || scale > MinorUnits.MAX_SCALE) {
+                throw new IllegalArgumentException("Unsupported scale: " + scale);
+            }
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                symbols = Arrays.copyOf(symbols, capacity);
+                percentageCharges = Arrays.copyOf(percentageCharges, capacity);
+                amountCharges = Arrays.copyOf(amountCharges, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+                roundingModes = Arrays.copyOf(roundingModes, capacity);
+            }
+            ids[size] = id;
+            names[size] = name;
+            symbols[size] = symbol == null ? "" : symbol;
+            percentageCharges[size] = percentageCharge;
+            amountCharges[size] = amountCharge;
+            scales[size] = scale;
+            roundingModes[size] = roundingMode;
+            size++;
+            return this;
+        }
+
+        public FeeTable build() {
+            return new FeeTable(this);
+        }
+    }
+}
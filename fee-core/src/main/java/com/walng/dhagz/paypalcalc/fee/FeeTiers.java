@@ -0,0 +1,132 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Volume-tiered percentage charges for one currency, e.g. a lower merchant rate once the
+ * monthly sales volume passes a threshold.
+ * <p>
+ * Each tier is compiled into its own {@link FeePlan} up front. Picking the plan for a
+ * volume is a binary search over the thresholds, done once per quote or batch rather than
+ * per amount; the chosen plan (or a {@link FeeSolver} over it) then prices at full speed.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FeeTiers {
+
+    private final long[] thresholds;
+    private final FeePlan[] plans;
+
+    private FeeTiers(long[] thresholds, FeePlan[] plans) {
+        this.thresholds = thresholds;
+        this.plans = plans;
+    }
+
+    /**
+     * Starts tiers from row {@code index} of {@code table}: its fixed charge, scale and
+     * rounding, with its percentage charge as the tier from volume 0.
+     */
+    public static Builder builder(FeeTable table, int index) {
+        return new Builder(table.getAmountCharge(index), table.getScale(index), table.getRoundingMode(index))
+                .add(0, table.getPercentageCharge(index));
+    }
+
+    public int size() {
+        return plans.length;
+    }
+
+    /**
+     * Volume, in minor units, from which tier {@code index} applies.
+     */
+    public long getThreshold(int index) {
+        return thresholds[index];
+    }
+
+    public FeePlan getPlan(int index) {
+        return plans[index];
+    }
+
+    /**
+     * The plan of the highest tier whose threshold is at most {@code volume}; volumes below
+     * the first threshold use the first tier.
+     *
+     * @param volume the sales volume in minor units
+     */
+    public FeePlan planFor(long volume) {
+        int index = Arrays.binarySearch(thresholds, volume);
+        if (index < 0) {
+            index = Math.max(0, -index - 2);
+        }
+        return plans[index];
+    }
+
+    /**
+     * Collects tiers for {@link FeeTiers}. The fixed charge, scale and rounding are shared
+     * by all tiers.
+     */
+    public static final class Builder {
+
+        private final float amountCharge;
+        private final int scale;
+        private final RoundingMode roundingMode;
+        private long[] thresholds = new long[4];
+        private float[] percentageCharges = new float[4];
+        private int size;
+
+        public Builder(float amountCharge, int scale, RoundingMode roundingMode) {
+            if (scale < 0 || scale > MinorUnits.MAX_SCALE) {
+                throw new IllegalArgumentException("Unsupported scale: " + scale);
+            }
+            this.amountCharge = amountCharge;
+            this.scale = scale;
+            this.roundingMode = roundingMode;
+        }
+
+        /**
+         * Adds a tier that applies from {@code volume} (in minor units) upwards.
+         */
+        public Builder add(long volume, float percentageCharge) {
+            if (size == thresholds.length) {
+                thresholds = Arrays.copyOf(thresholds, size * 2);
+                percentageCharges = Arrays.copyOf(percentageCharges, size * 2);
+            }
+            thresholds[size] = volume;
+            percentageCharges[size] = percentageCharge;
+            size++;
+            return this;
+        }
+
+        /**
+         * @throws IllegalStateException if there are no tiers or two tiers share a
+         *                               threshold
+         */
+        public FeeTiers build() {
+            if (size == 0) {
+                throw new IllegalStateException("No tiers added");
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer left, Integer right) {
+                    return Long.compare(thresholds[left], thresholds[right]);
+                }
+            });
+            long[] sortedThresholds = new long[size];
+            FeePlan[] plans = new FeePlan[size];
+            for (int i = 0; i < size; i++) {
+                sortedThresholds[i] = thresholds[order[i]];
+                if (i > 0 && sortedThresholds[i] == sortedThresholds[i - 1]) {
+                    throw new IllegalStateException("Duplicate tier threshold: " + sortedThresholds[i]);
+                }
+                plans[i] = FeePlan.of(percentageCharges[order[i]], amountCharge, scale, roundingMode);
+            }
+            return new FeeTiers(sortedThresholds, plans);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+/**
+ * One currency pair compiled for cross-currency pricing: how much to bill in one currency
+ * so that a net amount arrives in another.
+ * <p>
+ * The payment is converted into the receiving currency at the mid-market rate less the
+ * receiving currency's spread, and PayPal's fee is then taken in the receiving currency.
+ * Working backwards from the net, the gross-up, the spread and the rate are all
+ * multipliers, so they are folded into one when the plan is built and pricing is an add
+ * and a multiply, like {@link FeePlan}.
+ * <p>
+ * For a currency billed in itself (rate 1, no spread) the results are exactly those of
+ * the receiving currency's {@link FeePlan}.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FxPlan {
+
+    private final FeePlan feePlan;
+    private final double rate;
+    private final float spread;
+    private final float amountCharge;
+    private final double multiplier;
+
+    private FxPlan(FeePlan feePlan, double rate, float spread) {
+        this.feePlan = feePlan;
+        this.rate = rate;
+        this.spread = spread;
+        this.amountCharge = feePlan.getAmountCharge();
+        this.multiplier = feePlan.getReciprocal() * (rate / ((100 - spread) / 100.0));
+    }
+
+    /**
+     * @param feePlan the receiving currency's fees
+     * @param rate    mid-market units of the billing currency per unit of the receiving one
+     * @param spread  the conversion spread in percent
+     */
+    public static FxPlan of(FeePlan feePlan, double rate, float spread) {
+        return new FxPlan(feePlan, rate, spread);
+    }
+
+    /**
+     * Plan for billing a currency in itself.
+     */
+    public static FxPlan same(FeePlan feePlan) {
+        return new FxPlan(feePlan, 1, 0);
+    }
+
+    public FeePlan getFeePlan() {
+        return feePlan;
+    }
+
+    /**
+     * Mid-market units of the billing currency per unit of the receiving currency.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public float getSpread() {
+        return spread;
+    }
+
+    /**
+     * Units of the billing currency paid per unit arriving before fees, i.e. the rate
+     * after the spread.
+     */
+    public double getEffectiveRate() {
+        return rate / ((100 - spread) / 100.0);
+    }
+
+    /**
+     * The amount to bill, in the billing currency, so that {@code net} arrives in the
+     * receiving currency after conversion and fees.
+     */
+    public float total(float net) {
+        return (float) ((net + amountCharge) * multiplier);
+    }
+
+    /**
+     * What the fee and the spread cost, in the billing currency: {@link #total(float)}
+     * less {@code net} converted at the mid-market rate.
+     */
+    public float cost(float net) {
+        return total(net) - (float) (net * rate);
+    }
+
+    /**
+     * Prices the nets {@code amounts[from..to)} into the same positions of {@code totals}
+     * and {@code costs}. Each element gives exactly what {@link #total(float)} and
+     * {@link #cost(float)} return for it.
+     */
+    public void quote(double[] amounts, int from, int to, double[] totals, double[] costs) {
+        float additional = amountCharge;
+        double multiplier = this.multiplier;
+        double rate = this.rate;
+        for (int i = from; i < to; i++) {
+            float amount = (float) amounts[i];
+            float total = (float) ((amount + additional) * multiplier);
+            totals[i] = total;
+            costs[i] = total - (float) (amount * rate);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+/**
+ * Cross-currency pricing over a {@link FeeTable} and {@link FxRates}.
+ * <p>
+ * Each fee table row is matched to its rate by symbol once, when the quoter is built.
+ * Pair plans are compiled on first use and kept, one slot per (billing row, receiving
+ * row), so repeated quotes for a pair never look up rates or divide again. The slots are
+ * filled without locking: plans are immutable, and two threads racing on an empty slot at
+ * worst both compile the same plan. Pairs without a rate are remembered too, so asking
+ * for them again costs no more than for any other pair.
+ * <p>
+ * A quoter is bound to the charges and rates it was built with; build a new one when
+ * either changes.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FxQuoter {
+
+    /**
+     * Marks a compiled pair that has no rate; never returned.
+     */
+    private static final FxPlan NO_RATE = FxPlan.same(FeePlan.NONE);
+
+    private final FeeTable table;
+    private final FxRates rates;
+    private final int[] rateRows;
+    // [billing row][receiving row], rows allocated on first use
+    private final FxPlan[][] plans;
+
+    public FxQuoter(FeeTable table, FxRates rates) {
+        int size = table.size();
+        this.table = table;
+        this.rates = rates;
+        this.rateRows = new int[size];
+        this.plans = new FxPlan[size][];
+        for (int i = 0; i < size; i++) {
+            rateRows[i] = rates.indexOf(table.getSymbol(i));
+        }
+    }
+
+    public FeeTable getTable() {
+        return table;
+    }
+
+    public FxRates getRates() {
+        return rates;
+    }
+
+    /**
+     * @return {@code true} if row {@code row} of the table has a rate, so it can be billed
+     * in or billed from other currencies
+     */
+    public boolean hasRate(int row) {
+        return rateRows[row] >= 0;
+    }
+
+    /**
+     * The plan for billing in row {@code billingRow} so that amounts arrive in row
+     * {@code receivingRow}.
+     *
+     * @return the plan, or {@code null} if the rows differ and either has no rate
+     */
+    public FxPlan getPlan(int billingRow, int receivingRow) {
+        FxPlan[] row = plans[billingRow];
+        if (row == null) {
+            row = new FxPlan[plans.length];
+            plans[billingRow] = row;
+        }
+        FxPlan plan = row[receivingRow];
+        if (plan == null) {
+            plan = compile(billingRow, receivingRow);
+            row[receivingRow] = plan;
+        }
+        return plan == NO_RATE ? null : plan;
+    }
+
+    /**
+     * Same as {@link #getPlan(int, int)} with currency ids.
+     *
+     * @return the plan, or {@code null} if either id is not in the table or has no rate
+     */
+    public FxPlan getPlanById(int billingId, int receivingId) {
+        int billingRow = table.indexOf(billingId);
+        int receivingRow = table.indexOf(receivingId);
+        if (billingRow < 0 || receivingRow < 0) {
+            return null;
+        }
+        return getPlan(billingRow, receivingRow);
+    }
+
+    /**
+     * Prices a batch of invoices with mixed pairs: the net {@code amounts[i]} arriving in
+     * row {@code receivingRows[i]}, billed in row {@code billingRows[i]}, for
+     * {@code i} in {@code [from, to)}. Results go to the same positions of {@code totals}
+     * and {@code costs}, see {@link FxPlan}; pairs without a rate get {@code NaN}.
+     */
+    public void quote(int[] billingRows, int[] receivingRows, double[] amounts, int from, int to,
+                      double[] totals, double[] costs) {
+        for (int i = from; i < to; i++) {
+            FxPlan plan = getPlan(billingRows[i], receivingRows[i]);
+            if (plan == null) {
+                totals[i] = Double.NaN;
+                costs[i] = Double.NaN;
+                continue;
+            }
+            float amount = (float) amounts[i];
+            float total = plan.total(amount);
+            totals[i] = total;
+            costs[i] = total - (float) (amount * plan.getRate());
+        }
+    }
+
+    private FxPlan compile(int billingRow, int receivingRow) {
+        FeePlan feePlan = table.getPlan(receivingRow);
+        if (billingRow == receivingRow) {
+            return FxPlan.same(feePlan);
+        }
+        int billing = rateRows[billingRow];
+        int receiving = rateRows[receivingRow];
+        if (billing < 0 || receiving < 0) {
+            return NO_RATE;
+        }
+        return FxPlan.of(feePlan, rates.crossRate(receiving, billing), rates.getSpread(receiving));
+    }
+}
@@ -0,0 +1,188 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable table of exchange rates against a common base currency, with PayPal's
+ * conversion spread per currency.
+ * <p>
+ * A rate is how many units of the currency one unit of the base buys, so the base itself
+ * has rate 1 and the base never needs to be named: the rate between any two rows is the
+ * ratio of their rates, see {@link #crossRate(int, int)}. Rows are looked up by ISO 4217
+ * code once, when a quoter is built; pricing reads the columns by index.
+ * <p>
+ * Tables are read from and written to a small text file so they can be kept offline and
+ * edited by hand, one currency per line:
+ * <pre>
+ * # code,rate,spread
+ * USD,1,0
+ * EUR,0.92,3.5
+ * </pre>
+ * Blank lines and lines starting with {@code #} are ignored. The spread is in percent and
+ * may be omitted, in which case it is 0.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class FxRates {
+
+    private static final FxRates EMPTY = new Builder().build();
+
+    private final String[] codes;
+    private final double[] rates;
+    private final float[] spreads;
+    private final Map<String, Integer> codeIndex;
+
+    private FxRates(Builder builder) {
+        int size = builder.size;
+        this.codes = Arrays.copyOf(builder.codes, size);
+        this.rates = Arrays.copyOf(builder.rates, size);
+        this.spreads = Arrays.copyOf(builder.spreads, size);
+        this.codeIndex = new HashMap<>(builder.codeIndex);
+    }
+
+    /**
+     * A table without rates; only same-currency quotes are possible with it.
+     */
+    public static FxRates empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Reads a table in the text format described above.
+     *
+     * @throws IOException if reading fails or a line is malformed, naming the line
+     */
+    public static FxRates parse(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        Builder builder = new Builder();
+        int number = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length < 2 || fields.length > 3) {
+                throw new IOException("Line " + number + ": expected code,rate[,spread]");
+            }
+            try {
+                float spread = fields.length == 3 ? Float.parseFloat(fields[2].trim()) : 0;
+                builder.add(fields[0].trim(), Double.parseDouble(fields[1].trim()), spread);
+            } catch (IllegalArgumentException ex) {
+                // also covers NumberFormatException
+                throw new IOException("Line " + number + ": " + ex.getMessage(), ex);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes the table in the format {@link #parse(Reader)} reads.
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write("# code,rate,spread\n");
+        for (int i = 0; i < codes.length; i++) {
+            writer.write(codes[i] + "," + rates[i] + "," + spreads[i] + "\n");
+        }
+        writer.flush();
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @return the row of the currency with the ISO code {@code code}, or {@code -1}
+     */
+    public int indexOf(String code) {
+        Integer index = code == null ? null : codeIndex.get(code);
+        return index == null ? -1 : index;
+    }
+
+    public String getCode(int index) {
+        return codes[index];
+    }
+
+    /**
+     * Units of the currency per unit of the common base.
+     */
+    public double getRate(int index) {
+        return rates[index];
+    }
+
+    /**
+     * PayPal's conversion spread, in percent, when converting into the currency.
+     */
+    public float getSpread(int index) {
+        return spreads[index];
+    }
+
+    /**
+     * Mid-market units of row {@code to} per unit of row {@code from}.
+     */
+    public double crossRate(int from, int to) {
+        return rates[to] / rates[from];
+    }
+
+    /**
+     * Collects rows for {@link FxRates}.
+     */
+    public static final class Builder {
+
+        private int size;
+        private String[] codes = new String[32];
+        private double[] rates = new double[32];
+        private float[] spreads = new float[32];
+        private final Map<String, Integer> codeIndex = new HashMap<>();
+
+        /**
+         * @param code   the ISO 4217 code, as in the currency's symbol
+         * @param rate   units of the currency per unit of the common base
+         * @param spread the conversion spread in percent, e.g. {@code 3.5f}
+         * @throws IllegalArgumentException if the code is empty or already added, the rate
+         *                                  is not positive or the spread is outside
+         *                                  {@code [0, 100)}
+         */
+        public Builder add(String code, double rate, float spread) {
+            if (code == null || code.isEmpty()) {
+                throw new IllegalArgumentException("Missing currency code");
+            }
+            if (codeIndex.containsKey(code)) {
+                throw new IllegalArgumentException("Duplicate rate for " + code);
+            }
+            if (!(rate > 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Invalid rate for " + code + ": " + rate);
+            }
+            if (!(spread >= 0 && spread < 100)) {
+                throw new IllegalArgumentException("Invalid spread for " + code + ": " + spread);
+            }
+            if (size == codes.length) {
+                int capacity = size * 2;
+                codes = Arrays.copyOf(codes, capacity);
+                rates = Arrays.copyOf(rates, capacity);
+                spreads = Arrays.copyOf(spreads, capacity);
+            }
+            codes[size] = code;
+            rates[size] = rate;
+            spreads[size] = spread;
+            codeIndex.put(code, size);
+            size++;
+            return this;
+        }
+
+        public FxRates build() {
+            return new FxRates(this);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+/**
+ * Immutable open-addressing map from {@code int} keys to their position in the array the
+ * index was built from.
+ * <p>
+ * Lookups hash straight into a primitive table with linear probing, so they neither box
+ * the key nor allocate.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class IntIndex {
+
+    private static final int EMPTY = -1;
+
+    private final int[] keys;
+    private final int[] positions;
+    private final int mask;
+
+    /**
+     * Indexes {@code keys[0..size)}. If a key appears more than once, its first position
+     * wins.
+     */
+    public IntIndex(int[] keys, int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+        this.keys = new int[capacity];
+        this.positions = new int[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            positions[i] = EMPTY;
+        }
+        for (int i = 0; i < size; i++) {
+            int slot = slot(keys[i]);
+            if (positions[slot] == EMPTY) {
+                this.keys[slot] = keys[i];
+                positions[slot] = i;
+            }
+        }
+    }
+
+    /**
+     * @return the position of {@code key}, or {@code -1} if it is not indexed
+     */
+    public int get(int key) {
+        return positions[slot(key)];
+    }
+
+    private int slot(int key) {
+        int slot = mix(key) & mask;
+        while (positions[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,175 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for money held as {@code long} minor units (cents, or whole yen for
+ * a currency with scale 0) and percentage rates held as parts per million.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class MinorUnits {
+
+    /**
+     * 100% expressed in parts per million.
+     */
+    public static final long PPM_ONE = 1000000L;
+
+    /**
+     * Largest scale supported by {@link #pow10(int)}.
+     */
+    public static final int MAX_SCALE = 8;
+
+    /**
+     * Largest magnitude up to which every {@code long} is exact in a {@code double}.
+     */
+    static final long EXACT_DOUBLE_LIMIT = 1L << 53;
+
+    private static final int DEFAULT_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L
+    };
+
+    private MinorUnits() {
+    }
+
+    public static long pow10(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Unsupported scale: " + scale);
+        }
+        return POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Number of decimal places of the ISO 4217 currency {@code code}, or 2 if the code is
+     * unknown.
+     */
+    public static int scaleOf(String code) {
+        if (code == null || code.length() != 3) {
+            return DEFAULT_SCALE;
+        }
+        try {
+            int digits = java.util.Currency.getInstance(code).getDefaultFractionDigits();
+            return digits < 0 ? DEFAULT_SCALE : digits;
+        } catch (IllegalArgumentException ex) {
+            return DEFAULT_SCALE;
+        }
+    }
+
+    /**
+     * Converts a percentage such as {@code 4.4f} into parts per million ({@code 44000}),
+     * using the shortest decimal representation of the float.
+     */
+    public static long toPpm(float percent) {
+        return new BigDecimal(Float.toString(percent))
+                .movePointRight(4)
+                .setScale(0, RoundingMode.HALF_EVEN)
+                .longValue();
+    }
+
+    /**
+     * Converts a major-unit value such as {@code 0.35f} into minor units of a currency with
+     * the given scale, using the shortest decimal representation of the float.
+     */
+    public static long toMinor(float value, int scale, RoundingMode roundingMode) {
+        return toMinor(new BigDecimal(Float.toString(value)), scale, roundingMode);
+    }
+
+    public static long toMinor(BigDecimal value, int scale, RoundingMode roundingMode) {
+        return value.setScale(scale, roundingMode).unscaledValue().longValue();
+    }
+
+    public static BigDecimal toDecimal(long minor, int scale) {
+        return BigDecimal.valueOf(minor, scale);
+    }
+
+    /**
+     * Divides {@code numerator} by a positive {@code denominator}, rounding the exact
+     * quotient with {@code roundingMode}.
+     *
+     * @throws ArithmeticException if {@code roundingMode} is {@link RoundingMode#UNNECESSARY}
+     *                             and the division is inexact
+     */
+    public static long divide(long numerator, long denominator, RoundingMode roundingMode) {
+        long quotient = numerator / denominator;
+        return round(quotient, numerator - quotient * denominator, denominator, roundingMode);
+    }
+
+    /**
+     * Like {@link #divide(long, long, RoundingMode)}, but estimates the quotient with
+     * {@code reciprocal} ({@code 1.0 / denominator}) and corrects it against the exact
+     * remainder, avoiding the hardware divide. Numerators beyond
+     * {@link #EXACT_DOUBLE_LIMIT} take the plain division.
+     */
+    static long divide(long numerator, long denominator, double reciprocal, RoundingMode roundingMode) {
+        if (numerator > EXACT_DOUBLE_LIMIT || numerator < -EXACT_DOUBLE_LIMIT) {
+            return divide(numerator, denominator, roundingMode);
+        }
+        long quotient = (long) (numerator * reciprocal);
+        long remainder = numerator - quotient * denominator;
+        // bring the estimate to the truncated quotient, whose remainder has the numerator's sign
+        if (numerator >= 0) {
+            while (remainder < 0) {
+                quotient--;
+                remainder += denominator;
+            }
+            while (remainder >= denominator) {
+                quotient++;
+                remainder -= denominator;
+            }
+        } else {
+            while (remainder > 0) {
+                quotient++;
+                remainder -= denominator;
+            }
+            while (remainder <= -denominator) {
+                quotient--;
+                remainder += denominator;
+            }
+        }
+        return round(quotient, remainder, denominator, roundingMode);
+    }
+
+    /**
+     * Rounds a truncated quotient given its remainder, which carries the sign of the
+     * numerator as with Java's {@code /} and {@code %}.
+     */
+    static long round(long quotient, long remainder, long denominator, RoundingMode roundingMode) {
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = remainder < 0 ? -1 : 1;
+        long absRemainder = Math.abs(remainder);
+        boolean increment;
+        switch (roundingMode) {
+            case UNNECESSARY:
+                throw new ArithmeticException("Rounding necessary");
+            case DOWN:
+                increment = false;
+                break;
+            case UP:
+                increment = true;
+                break;
+            case FLOOR:
+                increment = sign < 0;
+                break;
+            case CEILING:
+                increment = sign > 0;
+                break;
+            default:
+                int half = Long.compare(absRemainder, denominator - absRemainder);
+                if (roundingMode == RoundingMode.HALF_UP) {
+                    increment = half >= 0;
+                } else if (roundingMode == RoundingMode.HALF_DOWN) {
+                    increment = half > 0;
+                } else {
+                    increment = half > 0 || (half == 0 && (quotient & 1) != 0);
+                }
+                break;
+        }
+        return increment ? quotient + sign : quotient;
+    }
+}
@@ -0,0 +1,344 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, thread-safe number formatter for the amounts and percentages shown by the
+ * calculator.
+ * <p>
+ * Output matches {@code new DecimalFormat(symbol + " #,###,###.00").format(value)} for
+ * money and {@code String.format("%.2f%%", value)} for percentages, but digits are
+ * written straight into a {@code char[]} or {@link StringBuilder} instead of going
+ * through pattern parsing and {@code FieldPosition} bookkeeping. Instances are cached
+ * per locale and symbol, so callers can look them up on every keystroke.
+ * <p>
+ * {@code float} values are rounded exactly. {@code double} values are scaled by
+ * {@code 10^2} before rounding, which can differ from {@code DecimalFormat} in the last
+ * digit for values sitting within one ulp of a rounding tie.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class MoneyFormat {
+
+    private static final int FRACTION_DIGITS = 2;
+    private static final long UNIT = MinorUnits.pow10(FRACTION_DIGITS);
+
+    /**
+     * Largest scaled magnitude written with {@code long} arithmetic; anything larger goes
+     * through {@link BigDecimal}.
+     */
+    private static final double MAX_UNITS = 1e18;
+
+    /**
+     * Room for a sign, the 309 integer digits of {@link Double#MAX_VALUE}, their grouping
+     * separators, a decimal separator and the decimals.
+     */
+    private static final int MAX_NUMBER_LENGTH = 1 + 309 + 102 + 1 + FRACTION_DIGITS;
+
+    private static final ConcurrentHashMap<Locale, ConcurrentHashMap<String, MoneyFormat>> MONEY_FORMATS =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Locale, MoneyFormat> PERCENT_FORMATS = new ConcurrentHashMap<>();
+
+    private static final MoneyFormat PLAIN =
+            new MoneyFormat(Locale.ROOT, "", "", false, 1, RoundingMode.HALF_EVEN);
+
+    private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[64];
+        }
+    };
+
+    private final String prefix;
+    private final String suffix;
+    private final boolean grouping;
+    private final int minimumIntegerDigits;
+    private final RoundingMode roundingMode;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final char minusSign;
+    private final String infinity;
+    private final String nan;
+
+    private MoneyFormat(Locale locale, String prefix, String suffix, boolean grouping,
+                        int minimumIntegerDigits, RoundingMode roundingMode) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.grouping = grouping;
+        this.minimumIntegerDigits = minimumIntegerDigits;
+        this.roundingMode = roundingMode;
+        this.groupingSeparator = symbols.getGroupingSeparator();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.minusSign = symbols.getMinusSign();
+        this.infinity = symbols.getInfinity();
+        this.nan = symbols.getNaN();
+    }
+
+    /**
+     * Formatter for money in the default locale, see {@link #forSymbol(String, Locale)}.
+     */
+    public static MoneyFormat forSymbol(String symbol) {
+        return forSymbol(symbol, Locale.getDefault());
+    }
+
+    /**
+     * Formatter for money prefixed by {@code symbol} and a space (no prefix if the symbol
+     * is empty), with grouping and two decimals, e.g. {@code "PHP 1,046.79"}.
+     */
+    public static MoneyFormat forSymbol(String symbol, Locale locale) {
+        String key = symbol == null ? "" : symbol;
+        ConcurrentHashMap<String, MoneyFormat> formats = MONEY_FORMATS.get(locale);
+        if (formats == null) {
+            ConcurrentHashMap<String, MoneyFormat> created = new ConcurrentHashMap<>();
+            formats = MONEY_FORMATS.putIfAbsent(locale, created);
+            if (formats == null) {
+                formats = created;
+            }
+        }
+        MoneyFormat format = formats.get(key);
+        if (format == null) {
+            MoneyFormat created = new MoneyFormat(locale, key.isEmpty() ? "" : key + " ", "", true,
+                    0, RoundingMode.HALF_EVEN);
+            format = formats.putIfAbsent(key, created);
+            if (format == null) {
+                format = created;
+            }
+        }
+        return format;
+    }
+
+    /**
+     * Formatter for percentages in the default locale, see {@link #percent(Locale)}.
+     */
+    public static MoneyFormat percent() {
+        return percent(Locale.getDefault());
+    }
+
+    /**
+     * Formatter for percentages with two decimals and a trailing {@code %}, e.g.
+     * {@code "4.40%"}.
+     */
+    public static MoneyFormat percent(Locale locale) {
+        MoneyFormat format = PERCENT_FORMATS.get(locale);
+        if (format == null) {
+            MoneyFormat created = new MoneyFormat(locale, "", "%", false, 1, RoundingMode.HALF_UP);
+            format = PERCENT_FORMATS.putIfAbsent(locale, created);
+            if (format == null) {
+                format = created;
+            }
+        }
+        return format;
+    }
+
+    /**
+     * Formatter for machine-readable output: no symbol or grouping, a {@code .} decimal
+     * separator and a leading zero, e.g. {@code "-1046.79"}.
+     */
+    public static MoneyFormat plain() {
+        return PLAIN;
+    }
+
+    /**
+     * Upper bound on the number of chars any {@code format} call writes.
+     */
+    public int getMaxLength() {
+        return prefix.length() + suffix.length() + Math.max(MAX_NUMBER_LENGTH, infinity.length() + 1)
+                + nan.length();
+    }
+
+    public String format(float value) {
+        char[] buffer = buffer();
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+
+    public String format(double value) {
+        char[] buffer = buffer();
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+
+    /**
+     * Formats a value held in minor units with {@code scale} decimal places.
+     */
+    public String formatMinor(long minor, int scale) {
+        char[] buffer = buffer();
+        return new String(buffer, 0, formatMinor(minor, scale, buffer, 0));
+    }
+
+    public StringBuilder format(float value, StringBuilder out) {
+        char[] buffer = buffer();
+        return out.append(buffer, 0, format(value, buffer, 0));
+    }
+
+    public StringBuilder format(double value, StringBuilder out) {
+        char[] buffer = buffer();
+        return out.append(buffer, 0, format(value, buffer, 0));
+    }
+
+    public StringBuilder formatMinor(long minor, int scale, StringBuilder out) {
+        char[] buffer = buffer();
+        return out.append(buffer, 0, formatMinor(minor, scale, buffer, 0));
+    }
+
+    /**
+     * Writes {@code value} into {@code out} starting at {@code offset}, which must leave
+     * room for {@link #getMaxLength()} chars.
+     *
+     * @return the number of chars written
+     */
+    public int format(float value, char[] out, int offset) {
+        // a float has a 24-bit mantissa, so scaling by 100 is exact in double
+        return format((double) value, out, offset);
+    }
+
+    public int format(double value, char[] out, int offset) {
+        if (Double.isNaN(value)) {
+            nan.getChars(0, nan.length(), out, offset);
+            return nan.length();
+        }
+        boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+        double magnitude = Math.abs(value);
+        if (Double.isInfinite(value)) {
+            int position = writePrefix(negative, out, offset);
+            infinity.getChars(0, infinity.length(), out, position);
+            position += infinity.length();
+            return writeSuffix(out, position) - offset;
+        }
+        double scaled = magnitude * UNIT;
+        if (scaled >= MAX_UNITS) {
+            // like DecimalFormat, keep only the shortest decimal representation of large values
+            BigDecimal rounded = new BigDecimal(Double.toString(magnitude)).setScale(FRACTION_DIGITS, roundingMode);
+            return writeDecimal(rounded.toPlainString(), negative, out, offset);
+        }
+        return write(round(scaled, negative), negative, out, offset);
+    }
+
+    public int formatMinor(long minor, int scale, char[] out, int offset) {
+        long units;
+        if (scale == FRACTION_DIGITS) {
+            units = minor;
+        } else if (scale < FRACTION_DIGITS) {
+            units = minor * MinorUnits.pow10(FRACTION_DIGITS - scale);
+        } else {
+            units = MinorUnits.divide(minor, MinorUnits.pow10(scale - FRACTION_DIGITS), roundingMode);
+        }
+        return write(Math.abs(units), minor < 0, out, offset);
+    }
+
+    private long round(double scaled, boolean negative) {
+        double floor = Math.floor(scaled);
+        double remainder = scaled - floor;
+        long quotient = (long) floor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        boolean increment;
+        switch (roundingMode) {
+            case UNNECESSARY:
+                throw new ArithmeticException("Rounding necessary");
+            case DOWN:
+                increment = false;
+                break;
+            case UP:
+                increment = true;
+                break;
+            case FLOOR:
+                increment = negative;
+                break;
+            case CEILING:
+                increment = !negative;
+                break;
+            case HALF_UP:
+                increment = remainder >= 0.5;
+                break;
+            case HALF_DOWN:
+                increment = remainder > 0.5;
+                break;
+            default:
+                increment = remainder > 0.5 || (remainder == 0.5 && (quotient & 1) != 0);
+                break;
+        }
+        return increment ? quotient + 1 : quotient;
+    }
+
+    private int write(long units, boolean negative, char[] out, int offset) {
+        int position = writePrefix(negative, out, offset);
+
+        // constant divisors, which the JIT turns into multiplies
+        long integer = units / UNIT;
+        long fraction = units % UNIT;
+        int digits = integer == 0 ? minimumIntegerDigits : digitCount(integer);
+        int length = grouping && digits > 3 ? digits + (digits - 1) / 3 : digits;
+        int end = position + length;
+        int index = end;
+        for (int i = 0; i < digits; i++) {
+            if (grouping && i > 0 && i % 3 == 0) {
+                out[--index] = groupingSeparator;
+            }
+            out[--index] = (char) ('0' + integer % 10);
+            integer /= 10;
+        }
+        position = end;
+
+        out[position++] = decimalSeparator;
+        for (int i = FRACTION_DIGITS - 1; i >= 0; i--) {
+            out[position + i] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        position += FRACTION_DIGITS;
+        return writeSuffix(out, position) - offset;
+    }
+
+    private int writeDecimal(String plain, boolean negative, char[] out, int offset) {
+        int position = writePrefix(negative, out, offset);
+        int point = plain.indexOf('.');
+        for (int i = 0; i < point; i++) {
+            if (grouping && i > 0 && (point - i) % 3 == 0) {
+                out[position++] = groupingSeparator;
+            }
+            out[position++] = plain.charAt(i);
+        }
+        out[position++] = decimalSeparator;
+        for (int i = point + 1; i < plain.length(); i++) {
+            out[position++] = plain.charAt(i);
+        }
+        return writeSuffix(out, position) - offset;
+    }
+
+    private int writePrefix(boolean negative, char[] out, int position) {
+        if (negative) {
+            out[position++] = minusSign;
+        }
+        prefix.getChars(0, prefix.length(), out, position);
+        return position + prefix.length();
+    }
+
+    private int writeSuffix(char[] out, int position) {
+        suffix.getChars(0, suffix.length(), out, position);
+        return position + suffix.length();
+    }
+
+    private char[] buffer() {
+        char[] buffer = BUFFER.get();
+        int needed = getMaxLength();
+        if (buffer.length < needed) {
+            buffer = new char[needed];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static int digitCount(long value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,208 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Scans money input straight into {@code long} minor units.
+ * <p>
+ * Invalid or half-typed input is reported through a status code instead of an
+ * exception, and nothing is allocated per call. After {@link #parse} returns, the parsed
+ * value is available from {@link #getValue()}.
+ * <p>
+ * Accepted input: optional surrounding whitespace, an optional {@code +} or {@code -},
+ * integer digits optionally split by the grouping separator, and an optional decimal
+ * separator followed by digits. Digits beyond the requested scale are rounded half-even.
+ * <p>
+ * A parser keeps the last result, so it is not thread-safe; use one per thread.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class MoneyParser {
+
+    /**
+     * The input is a complete number.
+     */
+    public static final int OK = 0;
+    /**
+     * The input is a complete number with more decimals than the scale; the value was
+     * rounded.
+     */
+    public static final int ROUNDED = 1;
+    /**
+     * The input is empty or only whitespace. The value is 0.
+     */
+    public static final int EMPTY = 2;
+    /**
+     * The input is the start of a number, e.g. {@code "."}, {@code "-"} or
+     * {@code "1,"}. The value holds what was typed so far.
+     */
+    public static final int INCOMPLETE = 3;
+    /**
+     * The input contains something that is not part of a number. The value is 0.
+     */
+    public static final int INVALID = 4;
+    /**
+     * The number does not fit in a {@code long} at the requested scale. The value is 0.
+     */
+    public static final int OVERFLOW = 5;
+
+    private final char decimalSeparator;
+    private final char groupingSeparator;
+    private final boolean spaceGrouping;
+
+    private long value;
+    private int scale;
+    private int status = EMPTY;
+
+    public MoneyParser(char decimalSeparator, char groupingSeparator) {
+        if (decimalSeparator == groupingSeparator) {
+            throw new IllegalArgumentException("Decimal and grouping separators must differ");
+        }
+        this.decimalSeparator = decimalSeparator;
+        this.groupingSeparator = groupingSeparator;
+        this.spaceGrouping = Character.isSpaceChar(groupingSeparator);
+    }
+
+    /**
+     * Parser using the separators of {@code locale}. If the locale groups digits with a
+     * (non-breaking) space, a plain space is accepted too.
+     */
+    public static MoneyParser forLocale(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return new MoneyParser(symbols.getDecimalSeparator(), symbols.getGroupingSeparator());
+    }
+
+    /**
+     * @return {@code true} if {@code status} comes with a usable value
+     */
+    public static boolean isValid(int status) {
+        return status == OK || status == ROUNDED;
+    }
+
+    public int parse(CharSequence text, int scale) {
+        return parse(text, 0, text.length(), scale);
+    }
+
+    /**
+     * Parses {@code text[start..end)} into minor units with {@code scale} decimals.
+     *
+     * @return one of the status constants
+     */
+    public int parse(CharSequence text, int start, int end, int scale) {
+        long unit = MinorUnits.pow10(scale);
+        this.scale = scale;
+        this.value = 0;
+
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return status = EMPTY;
+        }
+
+        boolean negative = false;
+        char first = text.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+
+        long integer = 0;
+        int digits = 0;
+        boolean point = false;
+        boolean trailingGroup = false;
+        long fraction = 0;
+        int fractionDigits = 0;
+        int roundDigit = -1;
+        boolean sticky = false;
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (!point) {
+                    if (integer > (Long.MAX_VALUE - digit) / 10) {
+                        return status = OVERFLOW;
+                    }
+                    integer = integer * 10 + digit;
+                    digits++;
+                    trailingGroup = false;
+                } else if (fractionDigits < scale) {
+                    fraction = fraction * 10 + digit;
+                    fractionDigits++;
+                } else if (roundDigit < 0) {
+                    roundDigit = digit;
+                } else if (digit != 0) {
+                    sticky = true;
+                }
+            } else if (c == decimalSeparator && !point && !trailingGroup) {
+                point = true;
+            } else if ((c == groupingSeparator || (spaceGrouping && c == ' ')) && !point && digits > 0
+                    && !trailingGroup) {
+                trailingGroup = true;
+            } else {
+                return status = INVALID;
+            }
+        }
+
+        while (fractionDigits < scale) {
+            fraction *= 10;
+            fractionDigits++;
+        }
+        if (integer > (Long.MAX_VALUE - fraction) / unit) {
+            return status = OVERFLOW;
+        }
+        long magnitude = integer * unit + fraction;
+        if (roundDigit > 5 || (roundDigit == 5 && (sticky || (magnitude & 1) != 0))) {
+            if (magnitude == Long.MAX_VALUE) {
+                return status = OVERFLOW;
+            }
+            magnitude++;
+        }
+        value = negative ? -magnitude : magnitude;
+
+        if (trailingGroup || (digits == 0 && fractionDigits == scale && fraction == 0 && roundDigit < 0
+                && !hasFractionDigit(text, start, end))) {
+            return status = INCOMPLETE;
+        }
+        return status = roundDigit >= 0 ? ROUNDED : OK;
+    }
+
+    /**
+     * The value of the last parse, in minor units at {@link #getScale()}.
+     */
+    public long getValue() {
+        return value;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * The value of the last parse as a {@code float} in major units, or {@code 0} if it
+     * was not {@linkplain #isValid(int) valid}.
+     */
+    public float floatValue() {
+        return isValid(status) ? (float) (value / (double) MinorUnits.pow10(scale)) : 0;
+    }
+
+    private static boolean hasFractionDigit(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
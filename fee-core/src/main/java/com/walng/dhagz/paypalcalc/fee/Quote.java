@@ -0,0 +1,73 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+/**
+ * Result of pricing one amount: the numbers and the text shown for them.
+ * <p>
+ * The billed total is what to charge in the billing currency, converted from the total;
+ * when the amount is billed in its own currency it is the total itself.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public class Quote {
+
+    private final float amount;
+    private final float total;
+    private final float fee;
+    private final String totalText;
+    private final String feeText;
+    private final float billedTotal;
+    private final String billedText;
+
+    public Quote(float amount, float total, float fee, String totalText, String feeText) {
+        this(amount, total, fee, totalText, feeText, total, totalText);
+    }
+
+    public Quote(float amount, float total, float fee, String totalText, String feeText,
+                 float billedTotal, String billedText) {
+        this.amount = amount;
+        this.total = total;
+        this.fee = fee;
+        this.totalText = totalText;
+        this.feeText = feeText;
+        this.billedTotal = billedTotal;
+        this.billedText = billedText;
+    }
+
+    public float getAmount() {
+        return amount;
+    }
+
+    public float getTotal() {
+        return total;
+    }
+
+    public float getFee() {
+        return fee;
+    }
+
+    public String getTotalText() {
+        return totalText;
+    }
+
+    public String getFeeText() {
+        return feeText;
+    }
+
+    /**
+     * @return the amount to bill in the billing currency, or {@code NaN} if there is no
+     * exchange rate for it
+     */
+    public float getBilledTotal() {
+        return billedTotal;
+    }
+
+    public String getBilledText() {
+        return billedText;
+    }
+
+    @Override
+    public String toString() {
+        return totalText + " (" + feeText + ")";
+    }
+}
@@ -0,0 +1,245 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.util.Arrays;
+
+/**
+ * Bounded least-recently-used cache of quotes keyed by currency id and minor-unit amount.
+ * <p>
+ * Keys are stored in primitive arrays and entries are linked by index, so a lookup
+ * neither boxes its key nor allocates; only the cached values are objects. When the cache
+ * is full, storing a new quote evicts the least recently used one. All methods are
+ * synchronized: quotes are looked up from a worker thread while charges are edited on
+ * the main thread, and each call is a handful of array accesses.
+ * <p>
+ * The cache does not know the charges a quote was computed with. Call
+ * {@link #invalidate(int)} whenever a currency's charges or symbol change.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class QuoteCache<V> {
+
+    /**
+     * Returned by {@link #keyOf(float, int)} for amounts that have no exact minor-unit
+     * key.
+     */
+    public static final long NO_KEY = Long.MIN_VALUE;
+
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final int[] currencyIds;
+    private final long[] amounts;
+    private final Object[] values;
+    private final int[] newer;
+    private final int[] older;
+    private final int[] chains;
+    private final int[] buckets;
+    private final int mask;
+
+    private int size;
+    private int used;
+    private int firstFree = NONE;
+    private int newest = NONE;
+    private int oldest = NONE;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public QuoteCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.currencyIds = new int[capacity];
+        this.amounts = new long[capacity];
+        this.values = new Object[capacity];
+        this.newer = new int[capacity];
+        this.older = new int[capacity];
+        this.chains = new int[capacity];
+        int bucketCount = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.buckets = new int[bucketCount];
+        this.mask = bucketCount - 1;
+        Arrays.fill(buckets, NONE);
+    }
+
+    /**
+     * The minor-unit key of {@code amount} at {@code scale}, or {@link #NO_KEY} if the
+     * amount is not exactly a whole number of minor units (so that two different
+     * {@code float} amounts never share a key).
+     */
+    public static long keyOf(float amount, int scale) {
+        double unit = MinorUnits.pow10(scale);
+        double scaled = Math.rint(amount * unit);
+        if (!(Math.abs(scaled) < MinorUnits.EXACT_DOUBLE_LIMIT) || (float) (scaled / unit) != amount) {
+            return NO_KEY;
+        }
+        return (long) scaled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the cached quote, which becomes the most recently used, or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(int currencyId, long amount) {
+        int entry = find(currencyId, amount);
+        if (entry == NONE) {
+            misses++;
+            return null;
+        }
+        hits++;
+        touch(entry);
+        return (V) values[entry];
+    }
+
+    /**
+     * Stores {@code value} as the most recently used quote, replacing any quote for the
+     * same key and evicting the least recently used one if the cache is full.
+     */
+    public synchronized void put(int currencyId, long amount, V value) {
+        int entry = find(currencyId, amount);
+        if (entry != NONE) {
+            values[entry] = value;
+            touch(entry);
+            return;
+        }
+        if (size == capacity) {
+            remove(oldest);
+            evictions++;
+        }
+        if (firstFree != NONE) {
+            entry = firstFree;
+            firstFree = chains[entry];
+        } else {
+            entry = used++;
+        }
+        currencyIds[entry] = currencyId;
+        amounts[entry] = amount;
+        values[entry] = value;
+        int bucket = bucket(currencyId, amount);
+        chains[entry] = buckets[bucket];
+        buckets[bucket] = entry;
+        linkNewest(entry);
+        size++;
+    }
+
+    /**
+     * Drops every quote of one currency.
+     *
+     * @return the number of quotes dropped
+     */
+    public synchronized int invalidate(int currencyId) {
+        int removed = 0;
+        int entry = oldest;
+        while (entry != NONE) {
+            int next = newer[entry];
+            if (currencyIds[entry] == currencyId) {
+                remove(entry);
+                removed++;
+            }
+            entry = next;
+        }
+        return removed;
+    }
+
+    /**
+     * Drops every quote; the counters are kept.
+     */
+    public synchronized void clear() {
+        Arrays.fill(buckets, NONE);
+        Arrays.fill(values, null);
+        size = 0;
+        used = 0;
+        firstFree = NONE;
+        newest = NONE;
+        oldest = NONE;
+    }
+
+    private int find(int currencyId, long amount) {
+        int entry = buckets[bucket(currencyId, amount)];
+        while (entry != NONE && (currencyIds[entry] != currencyId || amounts[entry] != amount)) {
+            entry = chains[entry];
+        }
+        return entry;
+    }
+
+    private int bucket(int currencyId, long amount) {
+        long h = (amount ^ (long) currencyId << 32) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private void touch(int entry) {
+        if (entry != newest) {
+            unlink(entry);
+            linkNewest(entry);
+        }
+    }
+
+    private void linkNewest(int entry) {
+        older[entry] = newest;
+        newer[entry] = NONE;
+        if (newest != NONE) {
+            newer[newest] = entry;
+        } else {
+            oldest = entry;
+        }
+        newest = entry;
+    }
+
+    private void unlink(int entry) {
+        int before = older[entry];
+        int after = newer[entry];
+        if (before != NONE) {
+            newer[before] = after;
+        } else {
+            oldest = after;
+        }
+        if (after != NONE) {
+            older[after] = before;
+        } else {
+            newest = before;
+        }
+    }
+
+    /**
+     * Unlinks {@code entry} from its bucket chain and the recency list and frees its
+     * slot.
+     */
+    private void remove(int entry) {
+        int bucket = bucket(currencyIds[entry], amounts[entry]);
+        if (buckets[bucket] == entry) {
+            buckets[bucket] = chains[entry];
+        } else {
+            int previous = buckets[bucket];
+            while (chains[previous] != entry) {
+                previous = chains[previous];
+            }
+            chains[previous] = chains[entry];
+        }
+        unlink(entry);
+        values[entry] = null;
+        chains[entry] = firstFree;
+        firstFree = entry;
+        size--;
+    }
+}
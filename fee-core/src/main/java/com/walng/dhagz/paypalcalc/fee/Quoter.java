@@ -0,0 +1,135 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import java.util.Locale;
+
+/**
+ * The calculator's quoting path: prices an amount with a currency's {@link FeePlan},
+ * bills it in another currency with an {@link FxPlan} if asked, formats the texts and
+ * keeps the result in a {@link QuoteCache}.
+ * <p>
+ * Amounts that are whole minor units are answered from the cache when they were priced
+ * before with the same plan, billing currency and pair plan; plans are compared by
+ * identity, so a quote priced just before the charges or rates changed is never served
+ * for the new ones. Callers still invalidate a currency whose symbol or charges change,
+ * through {@link #getCache()}, so the stale entries do not take up room.
+ * <p>
+ * Thread-safe: the cache is, and quotes and plans are immutable.
+ *
+ * @author Dhagz
+ * @since 2026-10-18
+ */
+public final class Quoter {
+
+    /**
+     * Billing id for amounts billed in their own currency.
+     */
+    public static final int SAME_CURRENCY = -1;
+
+    private final QuoteCache<CachedQuote> cache;
+    private final Locale locale;
+    private final String noRateText;
+
+    /**
+     * @param cacheSize  quotes kept, see {@link QuoteCache}
+     * @param locale     the locale texts are formatted in, or {@code null} for the default
+     *                   locale at the time of each quote
+     * @param noRateText shown as the billed text of pairs without an exchange rate
+     */
+    public Quoter(int cacheSize, Locale locale, String noRateText) {
+        this.cache = new QuoteCache<>(cacheSize);
+        this.locale = locale;
+        this.noRateText = noRateText;
+    }
+
+    /**
+     * Cache counters, for diagnostics, and {@link QuoteCache#invalidate(int)} when a
+     * currency's charges or symbol change.
+     */
+    public QuoteCache<?> getCache() {
+        return cache;
+    }
+
+    /**
+     * Prices {@code amount} in currency {@code currencyId}, billed in its own currency.
+     */
+    public Quote quote(int currencyId, String symbol, FeePlan plan, float amount) {
+        return quote(currencyId, symbol, plan, amount, SAME_CURRENCY, null, null);
+    }
+
+    /**
+     * Prices {@code amount} in currency {@code currencyId}, billed in {@code billingId}.
+     *
+     * @param symbol        the currency's symbol, for the texts
+     * @param plan          the currency's charges
+     * @param billingId     the billing currency, or {@link #SAME_CURRENCY}
+     * @param billingSymbol the billing currency's symbol; ignored for the same currency
+     * @param fxPlan        the pair plan from the billing currency to this one, or
+     *                      {@code null} if the pair has no exchange rate; ignored for the
+     *                      same currency
+     */
+    public Quote quote(int currencyId, String symbol, FeePlan plan, float amount,
+                       int billingId, String billingSymbol, FxPlan fxPlan) {
+        if (billingId == currencyId) {
+            billingId = SAME_CURRENCY;
+        }
+        if (billingId == SAME_CURRENCY) {
+            fxPlan = null;
+        }
+        long key = QuoteCache.keyOf(amount, plan.getScale());
+        if (key != QuoteCache.NO_KEY) {
+            CachedQuote cached = cache.get(currencyId, key);
+            if (cached != null && cached.plan == plan && cached.billingId == billingId && cached.fxPlan == fxPlan) {
+                return cached.quote;
+            }
+        }
+        Quote quote = price(symbol, plan, amount);
+        if (billingId != SAME_CURRENCY) {
+            quote = bill(quote, billingSymbol, fxPlan);
+        }
+        if (key != QuoteCache.NO_KEY) {
+            cache.put(currencyId, key, new CachedQuote(plan, billingId, fxPlan, quote));
+        }
+        return quote;
+    }
+
+    /**
+     * Prices {@code amount} with {@code plan}, billed in the same currency, without the
+     * cache.
+     */
+    public Quote price(String symbol, FeePlan plan, float amount) {
+        float total = plan.total(amount);
+        float fee = total - amount;
+        MoneyFormat formatter = formatterFor(symbol);
+        return new Quote(amount, total, fee, formatter.format(total), formatter.format(fee));
+    }
+
+    private Quote bill(Quote quote, String billingSymbol, FxPlan fxPlan) {
+        if (fxPlan == null) {
+            return new Quote(quote.getAmount(), quote.getTotal(), quote.getFee(), quote.getTotalText(),
+                    quote.getFeeText(), Float.NaN, noRateText);
+        }
+        float billedTotal = fxPlan.total(quote.getAmount());
+        return new Quote(quote.getAmount(), quote.getTotal(), quote.getFee(), quote.getTotalText(),
+                quote.getFeeText(), billedTotal, formatterFor(billingSymbol).format(billedTotal));
+    }
+
+    private MoneyFormat formatterFor(String symbol) {
+        return locale == null ? MoneyFormat.forSymbol(symbol) : MoneyFormat.forSymbol(symbol, locale);
+    }
+
+    private static final class CachedQuote {
+
+        final FeePlan plan;
+        // SAME_CURRENCY and null when billed in the quoted currency
+        final int billingId;
+        final FxPlan fxPlan;
+        final Quote quote;
+
+        CachedQuote(FeePlan plan, int billingId, FxPlan fxPlan, Quote quote) {
+            this.plan = plan;
+            this.billingId = billingId;
+            this.fxPlan = fxPlan;
+            this.quote = quote;
+        }
+    }
+}
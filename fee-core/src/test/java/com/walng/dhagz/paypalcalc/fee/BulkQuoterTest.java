@@ -0,0 +1,84 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class BulkQuoterTest {
+
+    private static String quote(BulkQuoter quoter, String input, BulkQuoter.Summary[] summary) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        summary[0] = quoter.quote(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void quote_appendsTotalAndFee() throws Exception {
+        BulkQuoter.Summary[] summary = new BulkQuoter.Summary[1];
+        String output = quote(new BulkQuoter(','),
+                "currency,amount,note\r\n"
+                        + "PHP,1000,first\n"
+                        + "usd,\"1,234.50\"\n"
+                        + "\n"
+                        + "XXX,10\n"
+                        + "JPY,abc\n"
+                        + ",100", summary);
+
+        FeeTable table = FeeTable.defaults();
+        MoneyFormat plain = MoneyFormat.plain();
+        float php = table.getPlan(table.indexOf(15)).total(1000f);
+        float usd = table.getPlan(table.indexOf(25)).total(1234.5f);
+        float custom = table.getPlan(table.indexOf(FeeTable.OTHER_ID)).total(100f);
+        assertEquals("currency,amount,note,total,fee\n"
+                + "PHP,1000,first," + plain.format(php) + "," + plain.format(php - 1000f) + "\n"
+                + "usd,\"1,234.50\"," + plain.format(usd) + "," + plain.format(usd - 1234.5f) + "\n"
+                + "XXX,10,,\n"
+                + "JPY,abc,,\n"
+                + ",100," + plain.format(custom) + "," + plain.format(custom - 100f) + "\n", output);
+        assertEquals("1061.72", plain.format(php));
+        assertTrue(summary[0].hasHeader());
+        assertEquals(5, summary[0].getRows());
+        assertEquals(2, summary[0].getErrors());
+        assertEquals(5, summary[0].getFirstErrorLine());
+    }
+
+    @Test
+    public void quote_keepsOrderAcrossChunks() throws Exception {
+        FeeTable table = FeeTable.defaults();
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        Random random = new Random(11);
+        MoneyFormat plain = MoneyFormat.plain();
+        for (int i = 0; i < 20000; i++) {
+            int index = random.nextInt(table.size() - 1);
+            long cents = random.nextInt(10000000);
+            String amount = MinorUnits.toDecimal(cents, 2).toPlainString();
+            float total = table.getPlan(index).total(cents / 100f);
+            input.append(table.getSymbol(index)).append('\t').append(amount).append('\n');
+            expected.append(table.getSymbol(index)).append('\t').append(amount).append('\t')
+                    .append(plain.format(total)).append('\t').append(plain.format(total - cents / 100f)).append('\n');
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            BulkQuoter.Summary[] summary = new BulkQuoter.Summary[1];
+            // small chunks so that lines straddle chunk boundaries and buffers get reused
+            String output = quote(new BulkQuoter(table, '\t', executor, 997), input.toString(), summary);
+            assertEquals(expected.toString(), output);
+            assertFalse(summary[0].hasHeader());
+            assertEquals(20000, summary[0].getRows());
+            assertEquals(0, summary[0].getErrors());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
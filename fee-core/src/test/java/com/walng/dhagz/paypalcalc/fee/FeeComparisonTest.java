@@ -0,0 +1,41 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeeComparisonTest {
+
+    @Test
+    public void quote_matchesEveryRowPlanBitForBit() throws Exception {
+        Random random = new Random(21);
+        FeeTable.Builder builder = new FeeTable.Builder();
+        for (int id = 1; id <= 300; id++) {
+            builder.add(id, "Currency " + id, "C" + id, random.nextFloat() * 10,
+                    random.nextFloat() * (float) Math.pow(10, random.nextInt(3)));
+        }
+        FeeTable[] tables = {FeeTable.defaults(), builder.build()};
+        for (FeeTable table : tables) {
+            FeeComparison comparison = new FeeComparison(table);
+            float[] totals = new float[comparison.size()];
+            float[] fees = new float[comparison.size()];
+            for (int i = 0; i < 20000; i++) {
+                float amount = random.nextFloat() * (float) Math.pow(10, random.nextInt(9));
+                comparison.quote(amount, totals, fees);
+                for (int row = 0; row < table.size(); row++) {
+                    FeePlan plan = table.getPlan(row);
+                    assertEquals(Float.floatToIntBits(plan.total(amount)), Float.floatToIntBits(totals[row]));
+                    assertEquals(Float.floatToIntBits(plan.fee(amount)), Float.floatToIntBits(fees[row]));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quote_rejectsShortArrays() throws Exception {
+        FeeComparison comparison = new FeeComparison(FeeTable.defaults());
+        comparison.quote(1f, new float[comparison.size() - 1], new float[comparison.size()]);
+    }
+}
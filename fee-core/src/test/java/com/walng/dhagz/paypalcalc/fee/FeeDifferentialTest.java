@@ -0,0 +1,298 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Randomized differential test of every pricing path against an exact {@link BigDecimal}
+ * reference.
+ * <p>
+ * Each batch picks a currency of the default table, priced with its own charges or with
+ * random ones, and amounts spread log-uniformly over its minor units up to 10^9; the
+ * first batch is larger than {@link BatchQuoter#PARALLEL_THRESHOLD}. Then:
+ * <ul>
+ * <li>the {@code float} paths ({@link FeePlan}, {@link FeeSolver} in gross-up mode, their
+ * batches, {@link BatchQuoter} on the calling thread and forked, {@link FeeComparison} and
+ * {@link Quoter}, computed and served from its cache) must return the legacy
+ * {@link FeeEngine#total(float, float, float)} bit for bit;</li>
+ * <li>the minor-unit paths, single and batched, must return the reference exactly;</li>
+ * <li>the legacy formula, rounded to minor units as displayed, may be off from the
+ * reference only by its {@code float} rounding error.</li>
+ * </ul>
+ * The default 2M cases take about 5.5 s on one core. For a longer run, and a table of the
+ * largest deviation of the legacy formula per currency on stdout,
+ * {@code ./gradlew :fee-core:test -PdifferentialCases=100000000 -PdifferentialSeed=7 -PdifferentialReport}.
+ */
+public class FeeDifferentialTest {
+
+    private static final int DEFAULT_CASES = 1 << 21;
+    private static final long DEFAULT_SEED = 20261018L;
+    private static final int BATCH = 1024;
+    private static final int LARGE_BATCH = 2 * BatchQuoter.PARALLEL_THRESHOLD + 1;
+    /**
+     * One batch in this many, the first included, also goes through the slower bulk
+     * paths: {@link BatchQuoter}, {@link Quoter} and the {@link FeeSolver} batches.
+     */
+    private static final int EVERY_PATH_BATCHES = 8;
+    private static final int MAX_AMOUNT_DIGITS = 9;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    /**
+     * Relative error of the legacy formula: five {@code float} roundings of at most
+     * 2<sup>-24</sup> each, with room to spare.
+     */
+    private static final double FLOAT_RELATIVE_ERROR = 0x1p-21;
+    /**
+     * Amounts up to this many major units are reported separately, as the range the
+     * calculator is mostly used for.
+     */
+    private static final long TYPICAL_AMOUNT = 10000;
+
+    @Test
+    public void everyPath_agreesWithExactReference() throws Exception {
+        long seed = Long.getLong("fee.differential.seed", DEFAULT_SEED);
+        int cases = Integer.getInteger("fee.differential.cases", DEFAULT_CASES);
+        Random random = new Random(seed);
+        FeeTable table = FeeTable.defaults();
+        FeeComparison comparison = new FeeComparison(table);
+        BatchQuoter batchQuoter = new BatchQuoter(table);
+        Quoter quoter = new Quoter(LARGE_BATCH, Locale.US, "");
+        Deviation[] deviations = new Deviation[table.size()];
+        for (int row = 0; row < table.size(); row++) {
+            deviations[row] = new Deviation();
+        }
+        float[] rowTotals = new float[table.size()];
+        float[] rowFees = new float[table.size()];
+
+        int batches = 0;
+        for (int done = 0; done < cases; ) {
+            boolean everyPath = batches++ % EVERY_PATH_BATCHES == 0;
+            int row = random.nextInt(table.size());
+            int id = table.getId(row);
+            int scale = table.getScale(row);
+            long unit = MinorUnits.pow10(scale);
+            RoundingMode roundingMode = table.getRoundingMode(row);
+            boolean ownCharges = random.nextBoolean();
+            FeePlan plan = ownCharges
+                    ? table.getPlan(row)
+                    : FeePlan.of(random.nextInt(2001) / 100f, (float) (random.nextInt(5000) / (double) unit),
+                    scale, roundingMode);
+            FeeSolver solver = FeeSolver.grossUp(plan);
+            float percent = plan.getPercentageCharge();
+            float additional = plan.getAmountCharge();
+            // the decimals the charges were given in, not the binary fractions of the floats
+            BigDecimal charge = new BigDecimal(Float.toString(additional));
+            BigDecimal divisor = HUNDRED.subtract(new BigDecimal(Float.toString(percent)));
+
+            // the first batch is large enough for BatchQuoter to fork
+            Batch batch = new Batch(seed, table, row, plan, Math.min(done == 0 ? LARGE_BATCH : BATCH, cases - done));
+            done += batch.size;
+            for (int i = 0; i < batch.size; i++) {
+                long bound = (long) Math.pow(10, 1 + random.nextInt(MAX_AMOUNT_DIGITS));
+                long minor = (long) (random.nextDouble() * bound);
+                float amount = (float) (minor / (double) unit);
+                batch.minorAmounts[i] = minor;
+                batch.amounts[i] = minor / (double) unit;
+                batch.legacy[i] = FeeEngine.total(amount, percent, additional);
+                batch.reference[i] = BigDecimal.valueOf(minor, scale).add(charge).multiply(HUNDRED)
+                        .divide(divisor, scale, roundingMode).unscaledValue().longValueExact();
+            }
+
+            int keyed = 0;
+            for (int i = 0; i < batch.size; i++) {
+                long minor = batch.minorAmounts[i];
+                float amount = (float) batch.amounts[i];
+                float legacy = batch.legacy[i];
+                long reference = batch.reference[i];
+
+                batch.checkTotal("FeePlan.total", i, plan.total(amount), plan.fee(amount));
+                batch.checkTotal("FeeSolver.solve", i, solver.solve(amount), solver.fee(amount));
+                if (ownCharges) {
+                    comparison.quote(amount, rowTotals, rowFees);
+                    batch.checkTotal("FeeComparison", i, rowTotals[row], rowFees[row]);
+                }
+                if (everyPath) {
+                    Quote quote = quoter.quote(id, table.getSymbol(row), plan, amount);
+                    batch.checkTotal("Quoter", i, quote.getTotal(), quote.getFee());
+                    if (QuoteCache.keyOf(amount, scale) != QuoteCache.NO_KEY) {
+                        keyed++;
+                    }
+                    batch.checkMinor("FeeSolver.solveReference", i, solver.solveReference(minor).longValueExact(),
+                            reference - minor);
+                }
+
+                batch.checkMinor("FeeEngine.totalMinor", i,
+                        FeeEngine.totalMinor(minor, plan.getRatePpm(), plan.getAmountChargeMinor(), roundingMode),
+                        reference - minor);
+                batch.checkMinor("FeeSolver.solveMinor", i, solver.solveMinor(minor), solver.feeMinor(minor));
+
+                long shown = new BigDecimal(legacy).setScale(scale, roundingMode).unscaledValue().longValueExact();
+                long deviation = Math.abs(shown - reference);
+                long allowed = 1 + (long) (Math.abs((double) legacy) * unit * FLOAT_RELATIVE_ERROR);
+                if (deviation > allowed) {
+                    fail(batch.where(i) + ": legacy formula shows " + shown + " minor units, reference "
+                            + reference + ", beyond float error " + allowed);
+                }
+                deviations[row].add(minor, unit, deviation);
+            }
+
+            double[] totals = new double[batch.size];
+            double[] fees = new double[batch.size];
+            long[] exactTotals = new long[batch.size];
+            long[] exactFees = new long[batch.size];
+            plan.quote(batch.amounts, 0, batch.size, totals, fees);
+            batch.checkTotals("FeePlan.quote(double[])", totals, fees);
+            plan.quote(batch.minorAmounts, 0, batch.size, totals, fees);
+            batch.checkTotals("FeePlan.quote(long[])", totals, fees);
+            plan.quoteMinor(batch.minorAmounts, 0, batch.size, exactTotals, exactFees);
+            batch.checkMinors("FeePlan.quoteMinor", exactTotals, exactFees);
+            if (!everyPath) {
+                continue;
+            }
+
+            // every amount with a key was cached above, so now each is served from the cache
+            long hits = quoter.getCache().getHits();
+            for (int i = 0; i < batch.size; i++) {
+                Quote quote = quoter.quote(id, table.getSymbol(row), plan, (float) batch.amounts[i]);
+                batch.checkTotal("Quoter from the cache", i, quote.getTotal(), quote.getFee());
+            }
+            assertEquals(batch.where(0) + ": quotes served from the cache", keyed, quoter.getCache().getHits() - hits);
+
+            solver.quote(batch.amounts, 0, batch.size, totals, fees);
+            batch.checkTotals("FeeSolver.quote(double[])", totals, fees);
+            solver.quote(batch.minorAmounts, 0, batch.size, totals, fees);
+            batch.checkTotals("FeeSolver.quote(long[])", totals, fees);
+            solver.quoteMinor(batch.minorAmounts, 0, batch.size, exactTotals, exactFees);
+            batch.checkMinors("FeeSolver.quoteMinor", exactTotals, exactFees);
+
+            batchQuoter.quote(solver, batch.amounts, totals, fees);
+            batch.checkTotals("BatchQuoter.quote(double[])", totals, fees);
+            batchQuoter.quoteParallel(solver, batch.amounts, totals, fees);
+            batch.checkTotals("BatchQuoter.quoteParallel(double[])", totals, fees);
+            batchQuoter.quoteParallel(solver, batch.minorAmounts, totals, fees);
+            batch.checkTotals("BatchQuoter.quoteParallel(long[])", totals, fees);
+            batchQuoter.quoteExactParallel(solver, batch.minorAmounts, exactTotals, exactFees);
+            batch.checkMinors("BatchQuoter.quoteExactParallel", exactTotals, exactFees);
+            if (ownCharges) {
+                batchQuoter.quote(id, batch.minorAmounts, totals, fees);
+                batch.checkTotals("BatchQuoter.quote by id", totals, fees);
+                batchQuoter.quoteParallel(id, batch.amounts, totals, fees);
+                batch.checkTotals("BatchQuoter.quoteParallel by id", totals, fees);
+                batchQuoter.quoteExact(id, batch.minorAmounts, exactTotals, exactFees);
+                batch.checkMinors("BatchQuoter.quoteExact by id", exactTotals, exactFees);
+            }
+        }
+
+        if (!Boolean.getBoolean("fee.differential.report")) {
+            return;
+        }
+        System.out.println(String.format(Locale.US,
+                "Legacy float formula against the exact reference, %d cases, seed %d, in minor units:", cases, seed));
+        System.out.println(String.format(Locale.US, "  %-6s %9s %9s %12s %15s %18s",
+                "code", "cases", "off", "max", "max <= " + TYPICAL_AMOUNT, "worst amount"));
+        for (int row = 0; row < table.size(); row++) {
+            Deviation deviation = deviations[row];
+            String code = table.getSymbol(row).isEmpty() ? table.getName(row) : table.getSymbol(row);
+            System.out.println(String.format(Locale.US, "  %-6s %9d %9d %12d %15d %18s", code, deviation.cases,
+                    deviation.off, deviation.max, deviation.maxTypical,
+                    MinorUnits.toDecimal(deviation.worstAmount, table.getScale(row)).toPlainString()));
+        }
+    }
+
+    private static boolean same(float expected, double actual) {
+        return Double.doubleToLongBits(expected) == Double.doubleToLongBits(actual);
+    }
+
+    /**
+     * One batch of amounts in one currency and plan, with what every path must return for
+     * them: the legacy {@code float} total and the exact reference in minor units.
+     */
+    private static final class Batch {
+
+        final long seed;
+        final FeeTable table;
+        final int row;
+        final FeePlan plan;
+        final int size;
+        final long[] minorAmounts;
+        final double[] amounts;
+        final float[] legacy;
+        final long[] reference;
+
+        Batch(long seed, FeeTable table, int row, FeePlan plan, int size) {
+            this.seed = seed;
+            this.table = table;
+            this.row = row;
+            this.plan = plan;
+            this.size = size;
+            this.minorAmounts = new long[size];
+            this.amounts = new double[size];
+            this.legacy = new float[size];
+            this.reference = new long[size];
+        }
+
+        void checkTotal(String path, int i, double total, double fee) {
+            float amount = (float) amounts[i];
+            if (!same(legacy[i], total) || !same(legacy[i] - amount, fee)) {
+                fail(where(i) + ": " + path + " gave " + total + " and fee " + fee + ", legacy formula "
+                        + legacy[i]);
+            }
+        }
+
+        void checkTotals(String path, double[] totals, double[] fees) {
+            for (int i = 0; i < size; i++) {
+                checkTotal(path, i, totals[i], fees[i]);
+            }
+        }
+
+        void checkMinor(String path, int i, long total, long fee) {
+            if (total != reference[i] || fee != reference[i] - minorAmounts[i]) {
+                fail(where(i) + ": " + path + " gave " + total + " and fee " + fee + ", reference " + reference[i]);
+            }
+        }
+
+        void checkMinors(String path, long[] totals, long[] fees) {
+            for (int i = 0; i < size; i++) {
+                checkMinor(path, i, totals[i], fees[i]);
+            }
+        }
+
+        String where(int i) {
+            return String.format(Locale.US, "seed %d, %s at %s%% + %s, amount %s", seed, table.getSymbol(row),
+                    Float.toString(plan.getPercentageCharge()), Float.toString(plan.getAmountCharge()),
+                    MinorUnits.toDecimal(minorAmounts[i], plan.getScale()).toPlainString());
+        }
+    }
+
+    /**
+     * How far the legacy formula is off for one currency, in its minor units.
+     */
+    private static final class Deviation {
+
+        long cases;
+        long off;
+        long max;
+        long maxTypical;
+        long worstAmount;
+
+        void add(long minorAmount, long unit, long deviation) {
+            cases++;
+            if (deviation == 0) {
+                return;
+            }
+            off++;
+            if (deviation > max) {
+                max = deviation;
+                worstAmount = minorAmount;
+            }
+            if (minorAmount <= TYPICAL_AMOUNT * unit && deviation > maxTypical) {
+                maxTypical = deviation;
+            }
+        }
+    }
+}
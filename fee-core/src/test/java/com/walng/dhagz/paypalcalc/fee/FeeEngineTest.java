@@ -0,0 +1,117 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeeEngineTest {
+
+    @Test
+    public void total_matchesPresenterFormula() throws Exception {
+        float amount = 1000f;
+        float percent = 4.4f;
+        float additional = 15f;
+        float expected = ((amount + additional) / ((100 - percent) / 100));
+        assertEquals(expected, FeeEngine.total(amount, percent, additional), 0f);
+        assertEquals(expected - amount, FeeEngine.fee(amount, percent, additional), 0f);
+    }
+
+    @Test
+    public void total_coversFees() throws Exception {
+        double total = FeeEngine.total(100d, 4.4d, 0.3d);
+        assertEquals(100d, total - total * 0.044d - 0.3d, 1e-9);
+    }
+
+    @Test
+    public void batch_matchesSingleAmountPath() throws Exception {
+        FeeTable table = FeeTable.defaults();
+        int index = table.indexOf(15);
+        float percent = table.getPercentageCharge(index);
+        float additional = table.getAmountCharge(index);
+
+        int size = BatchQuoter.PARALLEL_THRESHOLD * 4 + 7;
+        double[] amounts = new double[size];
+        long[] minorAmounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            minorAmounts[i] = i * 1237L;
+            amounts[i] = minorAmounts[i] / 100d;
+        }
+        double[] totals = new double[size];
+        double[] fees = new double[size];
+        double[] minorTotals = new double[size];
+        double[] minorFees = new double[size];
+
+        BatchQuoter quoter = new BatchQuoter(table);
+        quoter.quoteParallel(15, amounts, totals, fees);
+        quoter.quoteParallel(15, minorAmounts, minorTotals, minorFees);
+
+        for (int i = 0; i < size; i++) {
+            float amount = Float.parseFloat(Double.toString(amounts[i]));
+            float total = FeeEngine.total(amount, percent, additional);
+            assertEquals(total, totals[i], 0d);
+            assertEquals(total - amount, fees[i], 0d);
+            assertEquals(total, minorTotals[i], 0d);
+            assertEquals(total - amount, minorFees[i], 0d);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batch_rejectsUnknownCurrency() throws Exception {
+        new BatchQuoter(FeeTable.defaults()).quote(-1, new double[1], new double[1], new double[1]);
+    }
+
+    @Test
+    public void totalMinor_isExactAboveFloatPrecision() throws Exception {
+        // 1,000,000.00 PHP at 4.4% + 15.00 -> 1,046,040.79, where float is already cents off
+        long total = FeeEngine.totalMinor(100000000L, 44000L, 1500L, RoundingMode.HALF_EVEN);
+        BigDecimal expected = new BigDecimal("1000015.00")
+                .divide(new BigDecimal("0.956"), 2, RoundingMode.HALF_EVEN);
+        assertEquals(expected.unscaledValue().longValue(), total);
+    }
+
+    @Test
+    public void totalMinor_usesCurrencyScale() throws Exception {
+        FeeTable table = FeeTable.defaults();
+        int yen = table.indexOf(10);
+        assertEquals(0, table.getScale(yen));
+        assertEquals(39000L, table.getRatePpm(yen));
+        assertEquals(40L, table.getAmountChargeMinor(yen));
+
+        long[] totals = new long[1];
+        long[] fees = new long[1];
+        BatchQuoter quoter = new BatchQuoter(table);
+        quoter.setVerifyExact(true);
+        quoter.quoteExact(10, new long[]{10000L}, totals, fees);
+        assertEquals(10447L, totals[0]);
+        assertEquals(447L, fees[0]);
+    }
+
+    @Test
+    public void divide_matchesBigDecimalForEveryRoundingMode() throws Exception {
+        Random random = new Random(42);
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (int i = 0; i < 10000; i++) {
+                long numerator = random.nextInt(2000001) - 1000000;
+                long denominator = 1 + random.nextInt(1000);
+                long expected = BigDecimal.valueOf(numerator)
+                        .divide(BigDecimal.valueOf(denominator), 0, mode).longValueExact();
+                assertEquals(mode + " " + numerator + "/" + denominator,
+                        expected, MinorUnits.divide(numerator, denominator, mode));
+            }
+        }
+    }
+
+    @Test
+    public void totalMinor_fallsBackToBigDecimalForHugeAmounts() throws Exception {
+        long amount = Long.MAX_VALUE / 2;
+        assertEquals(FeeEngine.totalReference(amount, 10000L, 0L, RoundingMode.CEILING).longValueExact(),
+                FeeEngine.totalMinor(amount, 10000L, 0L, RoundingMode.CEILING));
+    }
+}
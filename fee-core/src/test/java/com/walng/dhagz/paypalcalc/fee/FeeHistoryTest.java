@@ -0,0 +1,131 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeeHistoryTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void versionAt_findsChargesInEffect() throws Exception {
+        FeeHistory history = FeeHistory.empty()
+                .append(15, 0, 4.4f, 15)
+                .append(25, 0, 4.4f, 0.3f)
+                .append(15, 100 * DAY, 3.9f, 15)
+                .append(15, 200 * DAY, 3.9f, 10)
+                .append(15, 200 * DAY, 3.4f, 10);
+        assertEquals(2, history.size());
+        assertEquals(5, history.getVersionCount());
+        assertEquals(-1, history.findVersion(15, -1));
+        assertEquals(-1, history.findVersion(99, 0));
+        assertEquals(4.4f, history.getPercentageCharge(history.findVersion(15, 100 * DAY - 1)), 0f);
+        assertEquals(3.9f, history.getPercentageCharge(history.findVersion(15, 100 * DAY)), 0f);
+        // the later of two versions with the same time wins
+        assertEquals(3.4f, history.getPercentageCharge(history.findVersion(15, 365 * DAY)), 0f);
+        assertEquals(0.3f, history.getAmountCharge(history.findVersion(25, 365 * DAY)), 0f);
+        try {
+            history.append(15, 150 * DAY, 1, 1);
+            fail("Appended before the latest version");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void quote_matchesFeePlanOfVersionInEffect() throws Exception {
+        Random random = new Random(23);
+        FeeHistory history = FeeHistory.empty();
+        int[] ids = {1, 6, 10, 15, 25};
+        for (int month = 0; month < 12; month++) {
+            for (int id : ids) {
+                if (month == 0 || random.nextInt(3) == 0) {
+                    history = history.append(id, month * 30 * DAY, 3 + random.nextFloat() * 2, random.nextFloat() * 20);
+                }
+            }
+        }
+        int size = 50000;
+        int[] rows = new int[size];
+        long[] times = new long[size];
+        double[] amounts = new double[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i % 50 == 0 ? -1 : history.indexOf(ids[random.nextInt(ids.length)]);
+            times[i] = (long) (random.nextDouble() * 365 * DAY) - DAY;
+            amounts[i] = random.nextInt(10000000) / 100.0;
+        }
+        double[] totals = new double[size];
+        double[] fees = new double[size];
+        history.quote(rows, times, amounts, 0, size, totals, fees);
+        for (int i = 0; i < size; i++) {
+            int version = history.versionAt(rows[i], times[i]);
+            if (version < 0) {
+                assertTrue(Double.isNaN(totals[i]) && Double.isNaN(fees[i]));
+                continue;
+            }
+            FeePlan plan = FeePlan.of(history.getPercentageCharge(version), history.getAmountCharge(version), 2,
+                    FeeTable.DEFAULT_ROUNDING);
+            float amount = (float) amounts[i];
+            assertEquals(plan.total(amount), totals[i], 0);
+            assertEquals(plan.fee(amount), fees[i], 0);
+        }
+    }
+
+    @Test
+    public void log_appendsCompactRecordsAndDropsTornTail() throws Exception {
+        File file = new File(folder.getRoot(), "history.bin");
+        FeeHistoryLog log = FeeHistoryLog.open(file);
+        FeeHistory expected = FeeHistory.empty();
+        long time = 1760745600000L;
+        for (int i = 0; i < 100; i++) {
+            int id = i % 5;
+            // one charge at a time, a few days apart
+            float percent = 4.4f - (i / 10) * 0.1f;
+            float amount = 0.3f + (i / 25) * 0.05f;
+            time += (1 + i % 7) * DAY;
+            expected = expected.append(id, time, percent, amount);
+            log.append(id, time, percent, amount);
+        }
+        long length = log.length();
+        log.close();
+        assertTrue("bytes per version: " + (length - FeeHistory.HEADER_SIZE) / 100.0,
+                length - FeeHistory.HEADER_SIZE <= 100 * 12);
+        assertEquals(expected.encode().remaining(), length);
+
+        // an append cut short
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(length);
+        raf.write(new byte[]{3, (byte) 0x80});
+        raf.close();
+
+        log = FeeHistoryLog.open(file);
+        assertEquals(length, log.length());
+        FeeHistory history = log.getHistory();
+        assertEquals(expected.getVersionCount(), history.getVersionCount());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.getId(row), history.getId(row));
+        }
+        for (int v = 0; v < expected.getVersionCount(); v++) {
+            assertEquals(expected.getEffectiveFrom(v), history.getEffectiveFrom(v));
+            assertEquals(Float.floatToIntBits(expected.getPercentageCharge(v)),
+                    Float.floatToIntBits(history.getPercentageCharge(v)));
+            assertEquals(Float.floatToIntBits(expected.getAmountCharge(v)),
+                    Float.floatToIntBits(history.getAmountCharge(v)));
+        }
+        log.append(3, time + DAY, 2.9f, 0.3f);
+        log.close();
+        FeeHistory reread = FeeHistory.decode(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+        assertEquals(2.9f, reread.getPercentageCharge(reread.findVersion(3, time + DAY)), 0f);
+        assertEquals(expected.getVersionCount() + 1, reread.getVersionCount());
+    }
+}
@@ -0,0 +1,85 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeePlanTest {
+
+    @Test
+    public void total_matchesFeeEngineBitForBit() throws Exception {
+        Random random = new Random(3);
+        FeeTable table = FeeTable.defaults();
+        for (int i = 0; i < 2000000; i++) {
+            float percent = i % 4 == 0
+                    ? table.getPercentageCharge(random.nextInt(table.size()))
+                    : random.nextFloat() * 10;
+            float additional = random.nextFloat() * (float) Math.pow(10, random.nextInt(4));
+            float amount = random.nextFloat() * (float) Math.pow(10, random.nextInt(12));
+            FeePlan plan = FeePlan.of(percent, additional, 2, RoundingMode.HALF_EVEN);
+            assertEquals(Float.floatToIntBits(FeeEngine.total(amount, percent, additional)),
+                    Float.floatToIntBits(plan.total(amount)));
+        }
+    }
+
+    @Test
+    public void total_keepsLegacyResultsForDegenerateCharges() throws Exception {
+        float[] percents = {100f, 150f, -5f};
+        for (float percent : percents) {
+            FeePlan plan = FeePlan.of(percent, 0.3f, 2, RoundingMode.HALF_EVEN);
+            assertEquals(FeeEngine.total(12f, percent, 0.3f), plan.total(12f), 0f);
+        }
+        assertTrue(Float.isNaN(FeePlan.of(100f, 0, 2, RoundingMode.HALF_EVEN).total(0f)));
+        assertEquals(0f, FeePlan.NONE.fee(123.45f), 0f);
+    }
+
+    @Test
+    public void totalMinor_matchesFeeEngine() throws Exception {
+        Random random = new Random(5);
+        RoundingMode[] modes = {RoundingMode.HALF_EVEN, RoundingMode.HALF_UP, RoundingMode.CEILING,
+                RoundingMode.FLOOR, RoundingMode.DOWN, RoundingMode.UP};
+        FeeTable table = FeeTable.defaults();
+        for (int i = 0; i < 1000000; i++) {
+            int row = random.nextInt(table.size());
+            RoundingMode mode = modes[random.nextInt(modes.length)];
+            FeePlan plan = FeePlan.of(table.getPercentageCharge(row), table.getAmountCharge(row),
+                    table.getScale(row), mode);
+            long amount;
+            switch (i % 4) {
+                case 0:
+                    amount = random.nextInt(1000000);
+                    break;
+                case 1:
+                    amount = random.nextLong() % 20000000000L;
+                    break;
+                case 2:
+                    amount = random.nextLong() / 4;
+                    break;
+                default:
+                    amount = (long) (random.nextDouble() * 10000000000L);
+                    break;
+            }
+            assertEquals(amount + " " + mode, FeeEngine.totalMinor(amount, table.getRatePpm(row),
+                    MinorUnits.toMinor(table.getAmountCharge(row), table.getScale(row), mode), mode),
+                    plan.totalMinor(amount));
+        }
+    }
+
+    @Test
+    public void table_plansMatchRows() throws Exception {
+        FeeTable table = FeeTable.defaults();
+        int jpy = table.indexOf(10);
+        FeePlan plan = table.getPlan(jpy);
+        assertEquals(0, plan.getScale());
+        assertEquals(10447, plan.totalMinor(10000));
+        assertEquals(447, plan.feeMinor(10000));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void totalMinor_rejectsFullRate() throws Exception {
+        FeePlan.of(100f, 0.3f, 2, RoundingMode.HALF_EVEN).totalMinor(100);
+    }
+}
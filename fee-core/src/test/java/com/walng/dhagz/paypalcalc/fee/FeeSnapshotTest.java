@@ -0,0 +1,57 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class FeeSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void write_roundTripsThroughMappedFile() throws Exception {
+        FeeTable table = new FeeTable.Builder()
+                .add(15, "Philippine Peso", "PHP", 4.4f, 15)
+                .add(10, "Japanese Yen", "JPY", 3.9f, 40f, 0, RoundingMode.CEILING)
+                .add(30, "Z\u0142oty (custom)", "PLN", 2.9f, 1.35f)
+                .add(FeeTable.OTHER_ID, "Custom", "", 4.4f, 0.3f)
+                .build();
+        File file = folder.newFile("currencies.bin");
+        FeeSnapshot.write(table, file);
+
+        FeeSnapshot snapshot = FeeSnapshot.open(file);
+        assertEquals(table.size(), snapshot.size());
+        for (int i = 0; i < table.size(); i++) {
+            assertEquals(table.getId(i), snapshot.getId(i));
+            assertEquals(table.getName(i), snapshot.getName(i));
+            assertEquals(table.getSymbol(i), snapshot.getSymbol(i));
+            assertEquals(table.getPercentageCharge(i), snapshot.getPercentageCharge(i), 0f);
+            assertEquals(table.getAmountCharge(i), snapshot.getAmountCharge(i), 0f);
+            assertEquals(table.getScale(i), snapshot.getScale(i));
+            assertEquals(table.getRoundingMode(i), snapshot.getRoundingMode(i));
+        }
+        assertEquals(1, snapshot.indexOf(10));
+        assertEquals(-1, snapshot.indexOf(99));
+        assertEquals(table.getAmountChargeMinor(1), snapshot.toFeeTable().getAmountChargeMinor(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void wrap_rejectsNewerVersion() throws Exception {
+        ByteBuffer data = FeeSnapshot.encode(FeeTable.defaults());
+        data.putShort(4, (short) (FeeSnapshot.VERSION + 1));
+        FeeSnapshot.wrap(data);
+    }
+
+    @Test(expected = IOException.class)
+    public void wrap_rejectsJson() throws Exception {
+        FeeSnapshot.wrap(ByteBuffer.wrap("[{\"id\":15}]".getBytes("UTF-8")));
+    }
+}
@@ -0,0 +1,132 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FeeSolverTest {
+
+    private final FeeTable table = FeeTable.defaults();
+    private final FeePlan php = table.getPlan(table.indexOf(15));
+
+    @Test
+    public void grossUp_matchesPlan() throws Exception {
+        FeeSolver solver = FeeSolver.grossUp(php);
+        assertEquals(php.total(1000f), solver.solve(1000f), 0f);
+        assertEquals(php.totalMinor(100000), solver.solveMinor(100000));
+    }
+
+    @Test
+    public void net_invertsGrossUp() throws Exception {
+        FeeSolver net = FeeSolver.net(php);
+        // PHP 1,000.00 + PHP 15 at 4.4%: charge 1,061.72 to receive 1,000.00
+        long gross = php.totalMinor(100000);
+        assertEquals(106172, gross);
+        assertEquals(100000, net.solveMinor(gross));
+        assertEquals(6172, net.feeMinor(gross));
+        assertEquals(1000f, net.solve(php.total(1000f)), 0.001f);
+        // a gross that does not cover the fixed charge leaves a negative net
+        assertEquals(1000 - 44 - 1500, net.solveMinor(1000));
+    }
+
+    @Test
+    public void split_coversModesAtItsEnds() throws Exception {
+        FeePlan plan = FeePlan.of(4.4f, 0.3f, 2, RoundingMode.CEILING);
+        FeeSolver payerPaysAll = FeeSolver.split(plan, 100);
+        FeeSolver payeePaysAll = FeeSolver.split(plan, 0);
+        FeeSolver net = FeeSolver.net(plan);
+        for (long price = 0; price < 100000; price += 7) {
+            assertEquals(plan.totalMinor(price), payerPaysAll.solveMinor(price));
+            assertEquals(price, payeePaysAll.solveMinor(price));
+            assertEquals(net.feeMinor(price), payeePaysAll.feeMinor(price));
+        }
+        assertEquals(plan.total(100f), payerPaysAll.solve(100f), 0.0001f);
+    }
+
+    @Test
+    public void split_sharesFee() throws Exception {
+        FeeSolver half = FeeSolver.split(php, 50);
+        // F = (0.044 * 1000 + 15) / (1 - 0.022) = 60.32..., payer covers half of it
+        assertEquals(6033, half.feeMinor(100000));
+        assertEquals(103016, half.solveMinor(100000));
+        assertEquals(1030.16f, half.solve(1000f), 0.005f);
+        assertEquals(60.33f, half.fee(1000f), 0.005f);
+    }
+
+    @Test
+    public void minor_matchesReferenceInEveryMode() throws Exception {
+        Random random = new Random(9);
+        RoundingMode[] modes = {RoundingMode.HALF_EVEN, RoundingMode.HALF_UP, RoundingMode.CEILING,
+                RoundingMode.FLOOR, RoundingMode.DOWN, RoundingMode.UP};
+        for (int i = 0; i < 300000; i++) {
+            int row = random.nextInt(table.size());
+            FeePlan plan = FeePlan.of(table.getPercentageCharge(row), table.getAmountCharge(row),
+                    table.getScale(row), modes[random.nextInt(modes.length)]);
+            FeeSolver solver;
+            switch (i % 3) {
+                case 0:
+                    solver = FeeSolver.net(plan);
+                    break;
+                case 1:
+                    solver = FeeSolver.split(plan, random.nextInt(101));
+                    break;
+                default:
+                    solver = FeeSolver.grossUp(plan);
+                    break;
+            }
+            long input = i % 5 == 0 ? random.nextLong() / 1000 : random.nextInt(100000000) - 1000;
+            assertEquals(solver.getMode() + " " + input, solver.solveReference(input).longValueExact(),
+                    solver.solveMinor(input));
+        }
+    }
+
+    @Test
+    public void batch_matchesSingleSolves() throws Exception {
+        BatchQuoter quoter = new BatchQuoter(table);
+        quoter.setVerifyExact(true);
+        FeeSolver[] solvers = {FeeSolver.net(php), FeeSolver.split(php, 25)};
+        long[] inputs = new long[50000];
+        double[] amounts = new double[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = i * 37L;
+            amounts[i] = inputs[i] / 100.0;
+        }
+        for (FeeSolver solver : solvers) {
+            long[] results = new long[inputs.length];
+            long[] fees = new long[inputs.length];
+            quoter.quoteExactParallel(solver, inputs, results, fees);
+            double[] floatResults = new double[inputs.length];
+            double[] floatFees = new double[inputs.length];
+            quoter.quoteParallel(solver, amounts, floatResults, floatFees);
+            for (int i = 0; i < inputs.length; i++) {
+                assertEquals(solver.solveMinor(inputs[i]), results[i]);
+                assertEquals(solver.feeMinor(inputs[i]), fees[i]);
+                assertEquals(solver.solve((float) amounts[i]), floatResults[i], 0);
+                assertEquals(solver.fee((float) amounts[i]), floatFees[i], 0);
+            }
+        }
+    }
+
+    @Test
+    public void tiers_pickPlanByVolume() throws Exception {
+        int usd = table.indexOf(25);
+        FeeTiers tiers = FeeTiers.builder(table, usd)
+                .add(1000000000L, 3.4f)
+                .add(300000000L, 3.9f)
+                .build();
+        assertEquals(3, tiers.size());
+        assertEquals(4.4f, tiers.planFor(-1).getPercentageCharge(), 0f);
+        assertEquals(4.4f, tiers.planFor(299999999L).getPercentageCharge(), 0f);
+        assertEquals(3.9f, tiers.planFor(300000000L).getPercentageCharge(), 0f);
+        assertEquals(3.4f, tiers.planFor(Long.MAX_VALUE).getPercentageCharge(), 0f);
+        assertEquals(30, tiers.planFor(0).getAmountChargeMinor());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void split_rejectsShareOutsideRange() throws Exception {
+        FeeSolver.split(php, 101);
+    }
+}
@@ -0,0 +1,43 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FeeTableTest {
+
+    @Test
+    public void add_takesScaleOfDefaultRow() throws Exception {
+        FeeTable defaults = FeeTable.defaults();
+        FeeTable table = new FeeTable.Builder()
+                .add(8, "Hungarian Forint", "HUF", 4.4f, 90f)
+                .add(21, "New Taiwan Dollar", "TWD", 4.4f, 10f)
+                .build();
+        for (int id : new int[]{8, 21}) {
+            int row = table.indexOf(id);
+            int defaultRow = defaults.indexOf(id);
+            // ISO 4217 says 2, PayPal prices both in whole units
+            assertEquals(0, table.getScale(row));
+            assertEquals(defaults.getScale(defaultRow), table.getScale(row));
+
+            FeePlan plan = table.getPlan(row);
+            FeePlan defaultPlan = defaults.getPlan(defaultRow);
+            assertEquals(defaultPlan.getAmountChargeMinor(), plan.getAmountChargeMinor());
+            for (long amount : new long[]{0, 1, 99, 1000, 25000, 1234567}) {
+                assertEquals("at " + amount, defaultPlan.totalMinor(amount), plan.totalMinor(amount));
+                assertEquals("at " + amount, defaultPlan.feeMinor(amount), plan.feeMinor(amount));
+            }
+        }
+    }
+
+    @Test
+    public void scaleOf_fallsBackToIso4217() throws Exception {
+        assertEquals(0, FeeTable.scaleOf("HUF"));
+        assertEquals(0, FeeTable.scaleOf("JPY"));
+        assertEquals(2, FeeTable.scaleOf("PHP"));
+        // not in the defaults
+        assertEquals(3, FeeTable.scaleOf("KWD"));
+        assertEquals(2, FeeTable.scaleOf(""));
+        assertEquals(2, FeeTable.scaleOf("C7"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FxQuoterTest {
+
+    private static FxRates rates() {
+        return new FxRates.Builder()
+                .add("USD", 1, 3.5f)
+                .add("EUR", 0.92, 3.5f)
+                .add("JPY", 149.7, 4f)
+                .add("PHP", 56.1, 4f)
+                .build();
+    }
+
+    @Test
+    public void getPlan_sameCurrencyMatchesFeePlanBitForBit() throws Exception {
+        FeeTable table = FeeTable.defaults();
+        FxQuoter quoter = new FxQuoter(table, rates());
+        Random random = new Random(22);
+        for (int row = 0; row < table.size(); row++) {
+            // including the "Custom" row, which has no rate
+            FxPlan plan = quoter.getPlan(row, row);
+            FeePlan feePlan = table.getPlan(row);
+            for (int i = 0; i < 2000; i++) {
+                float amount = random.nextFloat() * (float) Math.pow(10, random.nextInt(9));
+                assertEquals(Float.floatToIntBits(feePlan.total(amount)), Float.floatToIntBits(plan.total(amount)));
+                assertEquals(Float.floatToIntBits(feePlan.fee(amount)), Float.floatToIntBits(plan.cost(amount)));
+            }
+        }
+    }
+
+    @Test
+    public void getPlanById_chainsGrossUpSpreadAndRate() throws Exception {
+        FeeTable table = FeeTable.defaults();
+        FxQuoter quoter = new FxQuoter(table, rates());
+        // 100 EUR net, billed in USD
+        FxPlan plan = quoter.getPlanById(25, 6);
+        assertSame(plan, quoter.getPlanById(25, 6));
+        MathContext context = MathContext.DECIMAL128;
+        Random random = new Random(22);
+        for (int i = 0; i < 20000; i++) {
+            float net = i == 0 ? 100 : random.nextFloat() * (float) Math.pow(10, random.nextInt(7));
+            BigDecimal gross = new BigDecimal(net).add(new BigDecimal(0.35f))
+                    .divide(BigDecimal.ONE.subtract(new BigDecimal(4.4f).movePointLeft(2)), context);
+            BigDecimal expected = gross.multiply(BigDecimal.ONE.divide(new BigDecimal(0.92), context))
+                    .divide(BigDecimal.ONE.subtract(new BigDecimal(3.5f).movePointLeft(2)), context);
+            float total = plan.total(net);
+            // the divisor is rounded to float first, as FeePlan does
+            assertEquals(expected.doubleValue(), total, 2 * Math.ulp(total));
+            assertEquals(total - (float) (net / 0.92), plan.cost(net), 2 * Math.ulp(total));
+        }
+    }
+
+    @Test
+    public void quote_batchMatchesPlansAndMarksMissingRates() throws Exception {
+        FeeTable table = FeeTable.defaults();
+        FxQuoter quoter = new FxQuoter(table, rates());
+        int custom = table.indexOf(FeeTable.OTHER_ID);
+        int[] rows = {table.indexOf(25), table.indexOf(6), table.indexOf(10), table.indexOf(15), custom};
+        assertFalse(quoter.hasRate(custom));
+        assertNull(quoter.getPlan(rows[0], custom));
+        // answered from the compiled slot the second time
+        assertNull(quoter.getPlan(rows[0], custom));
+        assertNull(quoter.getPlanById(FeeTable.OTHER_ID, 25));
+
+        int size = 1000;
+        int[] billing = new int[size];
+        int[] receiving = new int[size];
+        double[] amounts = new double[size];
+        Random random = new Random(22);
+        for (int i = 0; i < size; i++) {
+            billing[i] = rows[random.nextInt(rows.length)];
+            receiving[i] = rows[random.nextInt(rows.length)];
+            amounts[i] = random.nextInt(10000000) / 100.0;
+        }
+        double[] totals = new double[size];
+        double[] costs = new double[size];
+        quoter.quote(billing, receiving, amounts, 0, size, totals, costs);
+        for (int i = 0; i < size; i++) {
+            FxPlan plan = quoter.getPlan(billing[i], receiving[i]);
+            if (plan == null) {
+                assertTrue(Double.isNaN(totals[i]) && Double.isNaN(costs[i]));
+            } else {
+                assertEquals(plan.total((float) amounts[i]), totals[i], 0);
+                assertEquals(plan.cost((float) amounts[i]), costs[i], 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class FxRatesTest {
+
+    @Test
+    public void parse_readsRowsAndRoundTripsThroughWrite() throws Exception {
+        FxRates rates = FxRates.parse(new StringReader(
+                "# code,rate,spread\n\nUSD,1,0\n EUR , 0.92 , 3.5 \nJPY,149.7\n"));
+        assertEquals(3, rates.size());
+        assertEquals(1, rates.indexOf("EUR"));
+        assertEquals(-1, rates.indexOf("PHP"));
+        assertEquals(-1, rates.indexOf(null));
+        assertEquals(0.92, rates.getRate(1), 0);
+        assertEquals(3.5f, rates.getSpread(1), 0f);
+        assertEquals(0f, rates.getSpread(2), 0f);
+        assertEquals(149.7 / 0.92, rates.crossRate(1, 2), 0);
+
+        StringWriter out = new StringWriter();
+        rates.write(out);
+        FxRates copy = FxRates.parse(new StringReader(out.toString()));
+        assertEquals(rates.size(), copy.size());
+        for (int i = 0; i < rates.size(); i++) {
+            assertEquals(rates.getCode(i), copy.getCode(i));
+            assertEquals(Double.doubleToLongBits(rates.getRate(i)), Double.doubleToLongBits(copy.getRate(i)));
+            assertEquals(Float.floatToIntBits(rates.getSpread(i)), Float.floatToIntBits(copy.getSpread(i)));
+        }
+    }
+
+    @Test
+    public void parse_namesTheBadLine() throws Exception {
+        String[] bad = {"USD,1\nEUR,abc", "USD,1\nEUR,-0.9", "USD,1\nEUR,0.9,100", "USD,1\nEUR", "USD,1\nUSD,1"};
+        for (String text : bad) {
+            try {
+                FxRates.parse(new StringReader(text));
+                fail("Parsed " + text);
+            } catch (IOException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Line 2: "));
+            }
+        }
+    }
+}
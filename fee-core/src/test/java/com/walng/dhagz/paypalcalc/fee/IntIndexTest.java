@@ -0,0 +1,71 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntIndexTest {
+
+    @Test
+    public void get_handlesSizesZeroAndOne() throws Exception {
+        IntIndex empty = new IntIndex(new int[0], 0);
+        assertEquals(-1, empty.get(0));
+        assertEquals(-1, empty.get(-1));
+
+        IntIndex single = new IntIndex(new int[]{42, 7}, 1);
+        assertEquals(0, single.get(42));
+        // beyond size, so not indexed
+        assertEquals(-1, single.get(7));
+    }
+
+    @Test
+    public void get_keepsFirstPositionOfDuplicates() throws Exception {
+        IntIndex index = new IntIndex(new int[]{5, 9, 5, 9, 5}, 5);
+        assertEquals(0, index.get(5));
+        assertEquals(1, index.get(9));
+        assertEquals(-1, index.get(6));
+    }
+
+    @Test
+    public void get_findsNegativeKeysIncludingEmptySentinel() throws Exception {
+        IntIndex index = new IntIndex(new int[]{-1, 0, Integer.MIN_VALUE, -15}, 4);
+        assertEquals(0, index.get(-1));
+        assertEquals(1, index.get(0));
+        assertEquals(2, index.get(Integer.MIN_VALUE));
+        assertEquals(3, index.get(-15));
+        assertEquals(-1, index.get(-2));
+
+        // -1 is a miss, not a match on an empty slot
+        assertEquals(-1, new IntIndex(new int[]{3}, 1).get(-1));
+    }
+
+    @Test
+    public void get_probesPastCollidingKeys() throws Exception {
+        // far more keys than a probe-free table would hold, and keys differing only in
+        // their high bits, so many land in the same slot
+        int size = 5000;
+        int[] keys = new int[size];
+        Random random = new Random(5);
+        for (int i = 0; i < size; i++) {
+            keys[i] = i % 2 == 0 ? (i << 16) : random.nextInt(20000) - 10000;
+        }
+        IntIndex index = new IntIndex(keys, size);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (!expected.containsKey(keys[i])) {
+                expected.put(keys[i], i);
+            }
+        }
+        for (int key = -20000; key < 20000; key++) {
+            Integer position = expected.get(key);
+            assertEquals("key " + key, position == null ? -1 : position, index.get(key));
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals(expected.get(keys[i]).intValue(), index.get(keys[i]));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void indexOf_isExactBelowSixtyFour() throws Exception {
+        for (long value = 0; value < 64; value++) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.highestValueOf((int) value));
+        }
+    }
+
+    @Test
+    public void indexOf_isContiguousAcrossPowersOfTwo() throws Exception {
+        assertEquals(LatencyHistogram.indexOf(63) + 1, LatencyHistogram.indexOf(64));
+        assertEquals(LatencyHistogram.indexOf(127) + 1, LatencyHistogram.indexOf(128));
+        for (long value = 0; value < 1 << 16; value++) {
+            int step = LatencyHistogram.indexOf(value + 1) - LatencyHistogram.indexOf(value);
+            assertTrue("at " + value, step == 0 || step == 1);
+        }
+        for (int bit = 6; bit < 40; bit++) {
+            long power = 1L << bit;
+            assertEquals("at 2^" + bit, LatencyHistogram.indexOf(power - 1) + 1, LatencyHistogram.indexOf(power));
+        }
+    }
+
+    @Test
+    public void highestValueOf_boundsValueWithinOneThirtySecond() throws Exception {
+        for (int bit = 0; bit < 40; bit++) {
+            long power = 1L << bit;
+            long[] values = {power, power + 1, power + power / 3, 2 * power - 1};
+            for (long value : values) {
+                long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+                assertTrue("at " + value, highest >= value);
+                assertTrue("at " + value, highest - value <= value / 32);
+            }
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE,
+                LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(LatencyHistogram.MAX_VALUE)));
+    }
+
+    @Test
+    public void record_clampsToRange() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getPercentile(100));
+        assertEquals(2, histogram.getCount());
+    }
+
+    @Test
+    public void getPercentile_readsKnownDistribution() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMean(), 0);
+        // the upper bounds of the buckets holding 500 and 990
+        assertEquals(503, histogram.getPercentile(50));
+        assertEquals(991, histogram.getPercentile(99));
+        // the bucket of 1000 reaches 1007, but nothing above 1000 was recorded
+        assertEquals(1000, histogram.getPercentile(100));
+        assertEquals(1000, histogram.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getPercentile_rejectsOutOfRange() throws Exception {
+        new LatencyHistogram().getPercentile(100.5);
+    }
+
+    @Test
+    public void reset_forgetsEverything() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.record(5000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getPercentile(99));
+
+        histogram.record(70);
+        assertEquals(70, histogram.getPercentile(50));
+    }
+}
@@ -0,0 +1,59 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MoneyFormatTest {
+
+    @Test
+    public void format_matchesDecimalFormat() throws Exception {
+        Locale[] locales = {Locale.US, Locale.GERMANY, Locale.FRANCE};
+        float[] samples = {0f, 0.3f, 0.005f, 0.015f, 1f, 15f, 999.995f, 1000f, 1046.7947f,
+                123456.78f, 9999999.99f, 1.0E12f, 3.4E38f, -0.5f, -1234.5f, -0f,
+                Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NaN};
+        Random random = new Random(7);
+        for (Locale locale : locales) {
+            DecimalFormat expected = new DecimalFormat("PHP #,###,###.00", DecimalFormatSymbols.getInstance(locale));
+            MoneyFormat actual = MoneyFormat.forSymbol("PHP", locale);
+            for (float sample : samples) {
+                assertEquals(Float.toString(sample), expected.format(sample), actual.format(sample));
+            }
+            for (int i = 0; i < 100000; i++) {
+                float sample = random.nextFloat() * (float) Math.pow(10, random.nextInt(10));
+                assertEquals(Float.toString(sample), expected.format(sample), actual.format(sample));
+            }
+        }
+    }
+
+    @Test
+    public void format_omitsPrefixForEmptySymbol() throws Exception {
+        assertEquals("1,234.50", MoneyFormat.forSymbol("", Locale.US).format(1234.5f));
+        assertSame(MoneyFormat.forSymbol("USD", Locale.US), MoneyFormat.forSymbol("USD", Locale.US));
+    }
+
+    @Test
+    public void formatMinor_usesScale() throws Exception {
+        MoneyFormat format = MoneyFormat.forSymbol("JPY", Locale.US);
+        assertEquals("JPY 10,447.00", format.formatMinor(10447L, 0));
+        assertEquals("JPY 104,604,079.50", format.formatMinor(10460407950L, 2));
+        assertEquals("JPY 1.24", format.formatMinor(12350L, 4));
+        assertEquals("-JPY 1.50", format.formatMinor(-150L, 2));
+
+        StringBuilder out = new StringBuilder("Total: ");
+        assertEquals("Total: JPY 3.00", format.formatMinor(3L, 0, out).toString());
+    }
+
+    @Test
+    public void percent_matchesStringFormat() throws Exception {
+        float[] samples = {0f, 0.3f, 2.9f, 3.9f, 4.4f, 4.45f, 12.345f, 99.999f};
+        for (float sample : samples) {
+            assertEquals(String.format(Locale.US, "%.2f%%", sample), MoneyFormat.percent(Locale.US).format(sample));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MoneyParserTest {
+
+    private final MoneyParser parser = new MoneyParser('.', ',');
+
+    @Test
+    public void parse_readsMinorUnits() throws Exception {
+        assertParsed(MoneyParser.OK, 123456, "1,234.56", 2);
+        assertParsed(MoneyParser.OK, 1000, "10", 2);
+        assertParsed(MoneyParser.OK, 50, ".5", 2);
+        assertParsed(MoneyParser.OK, 100, " 1. ", 2);
+        assertParsed(MoneyParser.OK, -250, "-2.5", 2);
+        assertParsed(MoneyParser.OK, 10000, "10000", 0);
+    }
+
+    @Test
+    public void parse_roundsHalfEven() throws Exception {
+        assertParsed(MoneyParser.ROUNDED, 2, "2.5", 0);
+        assertParsed(MoneyParser.ROUNDED, 4, "3.5", 0);
+        assertParsed(MoneyParser.ROUNDED, 3, "2.5001", 0);
+        assertParsed(MoneyParser.ROUNDED, 1234, "12.345", 2);
+        assertParsed(MoneyParser.ROUNDED, 1236, "12.355", 2);
+        assertParsed(MoneyParser.ROUNDED, -1234, "-12.3449", 2);
+    }
+
+    @Test
+    public void parse_reportsStatusInsteadOfThrowing() throws Exception {
+        assertParsed(MoneyParser.EMPTY, 0, "", 2);
+        assertParsed(MoneyParser.EMPTY, 0, "   ", 2);
+        assertParsed(MoneyParser.INCOMPLETE, 0, ".", 2);
+        assertParsed(MoneyParser.INCOMPLETE, 0, "-", 2);
+        assertParsed(MoneyParser.INCOMPLETE, 100, "1,", 2);
+        assertParsed(MoneyParser.INVALID, 0, "1.2.3", 2);
+        assertParsed(MoneyParser.INVALID, 0, ",1", 2);
+        assertParsed(MoneyParser.INVALID, 0, "1,,000", 2);
+        assertParsed(MoneyParser.INVALID, 0, "1.000,5", 2);
+        assertParsed(MoneyParser.INVALID, 0, "12abc", 2);
+        assertParsed(MoneyParser.INVALID, 0, "1e5", 2);
+        assertParsed(MoneyParser.OVERFLOW, 0, "92233720368547758.08", 2);
+        assertParsed(MoneyParser.OK, Long.MAX_VALUE, "92233720368547758.07", 2);
+        assertParsed(MoneyParser.INVALID, 0, "abc", 2);
+        assertEquals(0f, parser.floatValue(), 0f);
+    }
+
+    @Test
+    public void parse_usesLocaleSeparators() throws Exception {
+        MoneyParser german = MoneyParser.forLocale(Locale.GERMANY);
+        assertEquals(MoneyParser.OK, german.parse("1.234,56", 2));
+        assertEquals(123456, german.getValue());
+
+        MoneyParser french = MoneyParser.forLocale(Locale.FRANCE);
+        assertEquals(MoneyParser.OK, french.parse("1 234,56", 2));
+        assertEquals(123456, french.getValue());
+    }
+
+    @Test
+    public void parse_readsRangeOfLargerText() throws Exception {
+        String line = "PHP;1,500.25;USD";
+        assertEquals(MoneyParser.OK, parser.parse(line, 4, 12, 2));
+        assertEquals(150025, parser.getValue());
+    }
+
+    @Test
+    public void floatValue_matchesParseFloat() throws Exception {
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; i++) {
+            String text = Float.toString(random.nextInt(10000000) / 100f);
+            if (text.indexOf('E') >= 0) {
+                continue;
+            }
+            assertTrue(text, MoneyParser.isValid(parser.parse(text, MinorUnits.MAX_SCALE)));
+            assertEquals(text, Float.parseFloat(text), parser.floatValue(), 0f);
+        }
+    }
+
+    private void assertParsed(int status, long value, String text, int scale) {
+        assertEquals(text, status, parser.parse(text, scale));
+        assertEquals(text, value, parser.getValue());
+    }
+}
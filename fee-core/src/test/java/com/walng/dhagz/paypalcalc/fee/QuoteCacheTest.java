@@ -0,0 +1,90 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QuoteCacheTest {
+
+    @Test
+    public void get_evictsLeastRecentlyUsed() throws Exception {
+        QuoteCache<String> cache = new QuoteCache<>(2);
+        cache.put(15, 100, "a");
+        cache.put(15, 200, "b");
+        assertEquals("a", cache.get(15, 100));
+        cache.put(25, 100, "c");
+
+        assertNull(cache.get(15, 200));
+        assertEquals("a", cache.get(15, 100));
+        assertEquals("c", cache.get(25, 100));
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void invalidate_dropsOnlyThatCurrency() throws Exception {
+        QuoteCache<String> cache = new QuoteCache<>(8);
+        cache.put(15, 100, "php-1");
+        cache.put(25, 100, "usd-1");
+        cache.put(15, 200, "php-2");
+
+        assertEquals(2, cache.invalidate(15));
+        assertEquals(1, cache.size());
+        assertNull(cache.get(15, 100));
+        assertNull(cache.get(15, 200));
+        assertEquals("usd-1", cache.get(25, 100));
+
+        cache.put(15, 100, "php-3");
+        assertEquals("php-3", cache.get(15, 100));
+    }
+
+    @Test
+    public void put_matchesLinkedHashMap() throws Exception {
+        final int capacity = 37;
+        QuoteCache<Long> cache = new QuoteCache<>(capacity);
+        Map<Long, Long> expected = new LinkedHashMap<Long, Long>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+        Random random = new Random(5);
+        for (int i = 0; i < 200000; i++) {
+            int id = random.nextInt(4);
+            long amount = random.nextInt(60);
+            long key = (long) id << 32 | amount;
+            int operation = random.nextInt(100);
+            if (operation < 50) {
+                assertEquals(expected.get(key), cache.get(id, amount));
+            } else if (operation < 99) {
+                cache.put(id, amount, key + i);
+                expected.put(key, key + i);
+            } else {
+                cache.invalidate(id);
+                for (Iterator<Long> keys = expected.keySet().iterator(); keys.hasNext(); ) {
+                    if ((int) (keys.next() >>> 32) == id) {
+                        keys.remove();
+                    }
+                }
+            }
+            assertEquals(expected.size(), cache.size());
+        }
+    }
+
+    @Test
+    public void keyOf_isExactOrNone() throws Exception {
+        assertEquals(1234, QuoteCache.keyOf(12.34f, 2));
+        assertEquals(-50, QuoteCache.keyOf(-0.5f, 2));
+        assertEquals(40, QuoteCache.keyOf(40f, 0));
+        assertEquals(QuoteCache.NO_KEY, QuoteCache.keyOf(12.345f, 2));
+        assertEquals(QuoteCache.NO_KEY, QuoteCache.keyOf(Float.NaN, 2));
+        assertEquals(QuoteCache.NO_KEY, QuoteCache.keyOf(Float.POSITIVE_INFINITY, 2));
+        assertEquals(QuoteCache.NO_KEY, QuoteCache.keyOf(3.4e38f, 2));
+    }
+}
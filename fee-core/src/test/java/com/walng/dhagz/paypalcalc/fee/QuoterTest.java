@@ -0,0 +1,64 @@
+package com.walng.dhagz.paypalcalc.fee;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class QuoterTest {
+
+    private static final int PHP = 15;
+    private static final int USD = 25;
+
+    @Test
+    public void quote_formatsInTheQuotersLocale() throws Exception {
+        Quoter quoter = new Quoter(16, Locale.GERMANY, "-");
+        FeePlan plan = FeePlan.of(4.4f, 15f, 2, FeeTable.DEFAULT_ROUNDING);
+        Quote quote = quoter.quote(PHP, "PHP", plan, 1000);
+        assertEquals(plan.total(1000), quote.getTotal(), 0);
+        assertEquals(plan.total(1000) - 1000, quote.getFee(), 0);
+        assertEquals("PHP 1.061,72", quote.getTotalText());
+        assertEquals("PHP 61,72", quote.getFeeText());
+        assertEquals(quote.getTotal(), quote.getBilledTotal(), 0);
+        assertEquals(quote.getTotalText(), quote.getBilledText());
+    }
+
+    @Test
+    public void quote_servesCachedQuotesOnlyForTheSamePlans() throws Exception {
+        Quoter quoter = new Quoter(16, Locale.US, "No exchange rate");
+        FeePlan plan = FeePlan.of(4.4f, 15f, 2, FeeTable.DEFAULT_ROUNDING);
+        Quote quote = quoter.quote(PHP, "PHP", plan, 1000);
+        assertSame(quote, quoter.quote(PHP, "PHP", plan, 1000));
+        assertSame(quote, quoter.quote(PHP, "PHP", plan, 1000, PHP, "PHP", null));
+
+        // equal charges, but a new plan, e.g. after an edit that was undone
+        FeePlan edited = FeePlan.of(4.4f, 15f, 2, FeeTable.DEFAULT_ROUNDING);
+        assertNotSame(quote, quoter.quote(PHP, "PHP", edited, 1000));
+
+        // not whole minor units, so never cached
+        assertNotSame(quoter.quote(PHP, "PHP", plan, 1000.005f), quoter.quote(PHP, "PHP", plan, 1000.005f));
+        assertEquals(1, quoter.getCache().size());
+    }
+
+    @Test
+    public void quote_billsWithThePairPlan() throws Exception {
+        Quoter quoter = new Quoter(16, Locale.US, "No exchange rate");
+        FeeTable table = FeeTable.defaults();
+        FxQuoter fxQuoter = new FxQuoter(table, new FxRates.Builder().add("USD", 1, 3.5f).add("PHP", 56.1, 4f).build());
+        FeePlan plan = table.getPlan(table.indexOf(PHP));
+        FxPlan fxPlan = fxQuoter.getPlanById(USD, PHP);
+
+        Quote same = quoter.quote(PHP, "PHP", plan, 1000);
+        Quote billed = quoter.quote(PHP, "PHP", plan, 1000, USD, "USD", fxPlan);
+        assertEquals(same.getTotalText(), billed.getTotalText());
+        assertEquals(fxPlan.total(1000), billed.getBilledTotal(), 0);
+        assertEquals(MoneyFormat.forSymbol("USD", Locale.US).format(fxPlan.total(1000)), billed.getBilledText());
+        assertSame(billed, quoter.quote(PHP, "PHP", plan, 1000, USD, "USD", fxPlan));
+
+        Quote noRate = quoter.quote(PHP, "PHP", plan, 1000, FeeTable.OTHER_ID, "", null);
+        assertTrue(Float.isNaN(noRate.getBilledTotal()));
+        assertEquals("No exchange rate", noRate.getBilledText());
+        assertEquals(same.getTotalText(), noRate.getTotalText());
+    }
+}